@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.*;
 import ptit.drl.auth.dto.*;
 import ptit.drl.auth.dto.RequestPasswordRequest;
 import ptit.drl.auth.service.AuthService;
+import ptit.drl.auth.util.JwtClaims;
 import ptit.drl.auth.util.JwtTokenProvider;
 
 /**
@@ -17,6 +18,8 @@ import ptit.drl.auth.util.JwtTokenProvider;
 @RequestMapping("/auth")
 public class AuthController {
     
+    private static final int MAX_USER_IDS_PAGE_SIZE = 10000;
+    
     @Autowired
     private AuthService authService;
     
@@ -77,15 +80,15 @@ public class AuthController {
         // Extract token from "Bearer {token}"
         String token = authorization.substring(7);
         
-        // Validate token
-        if (!jwtTokenProvider.validateToken(token)) {
+        // Validate token and get user ID (one verification)
+        Long userId = jwtTokenProvider.parseAndVerify(token)
+                .map(JwtClaims::userId)
+                .orElse(null);
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Invalid token"));
         }
         
-        // Get user ID from token
-        Long userId = jwtTokenProvider.getUserIdFromToken(token);
-        
         // Get user info
         UserDTO user = authService.getCurrentUser(userId);
         return ResponseEntity.ok(ApiResponse.success("User information retrieved", user));
@@ -93,13 +96,13 @@ public class AuthController {
     
     /**
      * POST /auth/logout - Logout (invalidate refresh token)
-     * Note: In a stateless JWT system, logout is handled client-side by removing tokens
-     * For server-side invalidation, we would need a token blacklist (Redis)
+     * Access tokens stay valid until they expire; the refresh token is revoked so it cannot be used again
      */
     @PostMapping("/logout")
     public ResponseEntity<ApiResponse<Void>> logout(@RequestBody(required = false) RefreshTokenRequest request) {
-        // In a stateless system, logout is handled client-side
-        // Future: Implement token blacklist with Redis
+        if (request != null && request.getRefreshToken() != null) {
+            authService.logout(request.getRefreshToken());
+        }
         return ResponseEntity.ok(ApiResponse.success("Logout successful", null));
     }
     
@@ -113,6 +116,20 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("Active user IDs retrieved", userIds));
     }
     
+    /**
+     * GET /auth/users/ids/page - Active user IDs page by page, ordered by id
+     * Query params: afterId (nextAfterId of the previous page), size
+     * Internal use only - evaluation-service notification fan-out
+     */
+    @GetMapping("/users/ids/page")
+    public ResponseEntity<ApiResponse<UserIdsPage>> getActiveUserIdsPage(
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "1000") int size) {
+        UserIdsPage page = authService.getActiveUserIdsPage(
+                afterId, Math.min(Math.max(size, 1), MAX_USER_IDS_PAGE_SIZE));
+        return ResponseEntity.ok(ApiResponse.success("Active user IDs retrieved", page));
+    }
+    
     /**
      * GET /auth/users/student/{studentCode} - Get user ID by student code
      * Internal use only - for evaluation-service to send notifications
@@ -166,15 +183,15 @@ public class AuthController {
         // Extract token from "Bearer {token}"
         String token = authorization.substring(7);
         
-        // Validate token
-        if (!jwtTokenProvider.validateToken(token)) {
+        // Validate token and get user ID (one verification)
+        Long userId = jwtTokenProvider.parseAndVerify(token)
+                .map(JwtClaims::userId)
+                .orElse(null);
+        if (userId == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Invalid token"));
         }
         
-        // Get user ID from token
-        Long userId = jwtTokenProvider.getUserIdFromToken(token);
-        
         // Validate new password matches confirm password
         if (!request.getNewPassword().equals(request.getConfirmPassword())) {
             return ResponseEntity.badRequest()
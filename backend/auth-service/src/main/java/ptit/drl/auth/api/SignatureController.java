@@ -8,6 +8,7 @@ import org.springframework.web.multipart.MultipartFile;
 import ptit.drl.auth.dto.ApiResponse;
 import ptit.drl.auth.dto.SignatureDTO;
 import ptit.drl.auth.service.SignatureService;
+import ptit.drl.auth.util.JwtClaims;
 import ptit.drl.auth.util.JwtTokenProvider;
 
 import java.io.IOException;
@@ -127,10 +128,8 @@ public class SignatureController {
         }
         
         String token = authorization.substring(7);
-        if (!jwtTokenProvider.validateToken(token)) {
-            return null;
-        }
-        
-        return jwtTokenProvider.getUserIdFromToken(token);
+        return jwtTokenProvider.parseAndVerify(token)
+                .map(JwtClaims::userId)
+                .orElse(null);
     }
 }
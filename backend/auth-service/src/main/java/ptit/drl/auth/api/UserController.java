@@ -7,13 +7,21 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import ptit.drl.auth.dto.ApiResponse;
+import ptit.drl.auth.dto.BulkImportRequest;
+import ptit.drl.auth.dto.BulkImportStatus;
 import ptit.drl.auth.dto.UserDTO;
 import ptit.drl.auth.service.AuthService;
+import ptit.drl.auth.service.BulkUserImportService;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -27,6 +35,9 @@ public class UserController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private BulkUserImportService bulkUserImportService;
+    
     /**
      * GET /auth/users - Get all users with pagination and filters
      * Query params: page, size, search (username, email, studentCode), role, isActive
@@ -97,6 +108,57 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success("Roles retrieved successfully", roles));
     }
     
+    /**
+     * POST /auth/users/bulk-import - Create student accounts for a list of student codes (JSON)
+     * Runs in the background; poll GET /auth/users/bulk-import/{jobId} for progress
+     */
+    @PostMapping(value = "/bulk-import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BulkImportStatus>> bulkImport(
+            @Valid @RequestBody BulkImportRequest request) {
+        BulkImportStatus status = bulkUserImportService.start(request.getStudentCodes(), request.isSendEmails());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Bulk import started", status));
+    }
+    
+    /**
+     * POST /auth/users/bulk-import - Same as above with a CSV body (student code in the first column,
+     * optional header row). The body is read line by line, not buffered as one string.
+     */
+    @PostMapping(value = "/bulk-import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BulkImportStatus>> bulkImportCsv(
+            Reader body,
+            @RequestParam(defaultValue = "true") boolean sendEmails) throws IOException {
+        List<String> studentCodes = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(body);
+        String line;
+        boolean firstLine = true;
+        while ((line = reader.readLine()) != null) {
+            String code = line.split("[,;\\t]", 2)[0].trim().replace("\"", "");
+            if (firstLine && code.toLowerCase().contains("code")) {
+                // Header row, e.g. "studentCode,fullName"
+                firstLine = false;
+                continue;
+            }
+            firstLine = false;
+            studentCodes.add(code);
+        }
+        BulkImportStatus status = bulkUserImportService.start(studentCodes, sendEmails);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Bulk import started", status));
+    }
+    
+    /**
+     * GET /auth/users/bulk-import/{jobId} - Progress and throughput of a bulk import
+     */
+    @GetMapping("/bulk-import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BulkImportStatus>> getBulkImportStatus(@PathVariable String jobId) {
+        BulkImportStatus status = bulkUserImportService.getStatus(jobId);
+        return ResponseEntity.ok(ApiResponse.success("Bulk import status", status));
+    }
+    
     /**
      * Request DTO for updating user roles
      */
@@ -0,0 +1,200 @@
+package ptit.drl.auth.client;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent single-student lookups into one POST /students/batch call.
+ * The first caller in a window waits batch-window-ms for others to join, then sends
+ * the batch; a full batch is sent immediately by the caller that filled it. A caller with
+ * no other lookup in flight sends at once, so an isolated lookup pays no window.
+ * No extra threads: the request threads themselves take turns sending batches.
+ * Same loader as evaluation-service's ptit.drl.evaluation.client.StudentBatchLoader (the services share
+ * no module; only the StudentResponse construction differs) - change both together.
+ */
+@Component
+public class StudentBatchLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentBatchLoader.class);
+
+    private static final String NOT_FOUND_MESSAGE = "Student not found";
+
+    private final StudentServiceClient studentServiceClient;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final DistributionSummary batchSizeSummary;
+
+    private final Object lock = new Object();
+    private Batch openBatch;
+
+    // Callers currently inside load(); the window is only worth waiting when others are around
+    private final AtomicInteger activeLookups = new AtomicInteger();
+
+    public StudentBatchLoader(StudentServiceClient studentServiceClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${student.batch.window-ms:5}") long windowMillis,
+                              @Value("${student.batch.max-size:100}") int maxBatchSize,
+                              @Value("${student.batch.timeout-ms:5000}") long timeoutMillis) {
+        this.studentServiceClient = studentServiceClient;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timeoutMillis = timeoutMillis;
+        this.batchSizeSummary = DistributionSummary.builder("student.batch.size")
+                .description("Student codes per coalesced POST /students/batch call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get one student, sharing the remote call with concurrent lookups.
+     * @return same shape as StudentServiceClient.getStudentByCode (success=false when not found)
+     */
+    public StudentServiceClient.StudentResponse load(String studentCode) {
+        if (windowMillis <= 0) {
+            return studentServiceClient.getStudentByCode(studentCode);
+        }
+
+        activeLookups.incrementAndGet();
+        try {
+            return coalesce(studentCode);
+        } finally {
+            activeLookups.decrementAndGet();
+        }
+    }
+
+    private StudentServiceClient.StudentResponse coalesce(String studentCode) {
+        Batch batch;
+        CompletableFuture<StudentServiceClient.StudentResponse> future;
+        boolean leader = false;
+        boolean full = false;
+        synchronized (lock) {
+            if (openBatch == null) {
+                openBatch = new Batch();
+                leader = true;
+            }
+            batch = openBatch;
+            future = batch.futures.computeIfAbsent(studentCode, code -> new CompletableFuture<>());
+            if (batch.futures.size() >= maxBatchSize) {
+                openBatch = null;
+                full = true;
+            }
+        }
+
+        if (full) {
+            execute(batch);
+        } else if (leader) {
+            if (activeLookups.get() > 1) {
+                sleepWindow();
+            }
+            boolean stillOpen;
+            synchronized (lock) {
+                stillOpen = openBatch == batch;
+                if (stillOpen) {
+                    openBatch = null;
+                }
+            }
+            // If not still open, the batch filled up and was sent by the caller that filled it
+            if (stillOpen) {
+                execute(batch);
+            }
+        }
+
+        return await(future, studentCode);
+    }
+
+    /**
+     * Get many students in as few remote calls as possible
+     * @return studentCode -> student, unknown codes are absent
+     */
+    public Map<String, StudentServiceClient.StudentDTO> loadAll(Collection<String> studentCodes) {
+        List<String> codes = new ArrayList<>(new LinkedHashSet<>(studentCodes));
+        Map<String, StudentServiceClient.StudentDTO> result = new LinkedHashMap<>();
+        for (int from = 0; from < codes.size(); from += maxBatchSize) {
+            List<String> chunk = codes.subList(from, Math.min(from + maxBatchSize, codes.size()));
+            result.putAll(fetch(chunk));
+        }
+        return result;
+    }
+
+    private void execute(Batch batch) {
+        List<String> codes = new ArrayList<>(batch.futures.keySet());
+        try {
+            Map<String, StudentServiceClient.StudentDTO> students = fetch(codes);
+            batch.futures.forEach((code, future) -> {
+                StudentServiceClient.StudentDTO student = students.get(code);
+                StudentServiceClient.StudentResponse response = new StudentServiceClient.StudentResponse();
+                response.setSuccess(student != null);
+                response.setMessage(student != null ? "Student found" : NOT_FOUND_MESSAGE);
+                response.setData(student);
+                future.complete(response);
+            });
+        } catch (Exception e) {
+            logger.warn("Batch student lookup failed for {} codes: {}", codes.size(), e.getMessage());
+            batch.futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private Map<String, StudentServiceClient.StudentDTO> fetch(List<String> codes) {
+        batchSizeSummary.record(codes.size());
+        StudentServiceClient.StudentListResponse response = studentServiceClient.getStudentsByCodes(
+                new StudentServiceClient.BatchStudentRequest(codes));
+
+        Map<String, StudentServiceClient.StudentDTO> students = new HashMap<>();
+        if (response != null && response.isSuccess() && response.getData() != null) {
+            for (StudentServiceClient.StudentDTO student : response.getData()) {
+                students.put(student.getStudentCode(), student);
+            }
+        }
+        return students;
+    }
+
+    private void sleepWindow() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(windowMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private StudentServiceClient.StudentResponse await(
+            CompletableFuture<StudentServiceClient.StudentResponse> future, String studentCode) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to load student " + studentCode, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out loading student " + studentCode, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading student " + studentCode, e);
+        }
+    }
+
+    /**
+     * Pending lookups sharing one remote call
+     */
+    private static class Batch {
+        private final Map<String, CompletableFuture<StudentServiceClient.StudentResponse>> futures =
+                new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,62 @@
+package ptit.drl.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executors for background work kept off the request threads
+ */
+@Configuration
+public class AsyncConfig {
+    
+    /**
+     * Small bounded pool for refreshing cached student profiles from student-service.
+     * Overflow is dropped (the next login retries), so a slow student-service never backs up logins.
+     */
+    @Bean(name = "studentSyncExecutor")
+    public Executor studentSyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("student-sync-");
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Bounded pool for BCrypt encode/matches, so a login storm cannot occupy every request thread
+     * with hashing. When threads and queue are full, PasswordHasher rejects with 429.
+     */
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${security.password.hash-threads:0}") int threads,
+            @Value("${security.password.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Runs bulk user import jobs one or two at a time
+     */
+    @Bean(name = "bulkImportExecutor")
+    public Executor bulkImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("bulk-import-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,6 +1,7 @@
 package ptit.drl.auth.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -11,6 +12,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import ptit.drl.auth.filter.InternalServiceTokenFilter;
 import ptit.drl.auth.filter.JwtAuthenticationFilter;
 
 /**
@@ -24,9 +26,13 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    @Autowired
+    private InternalServiceTokenFilter internalServiceTokenFilter;
+    
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        // Existing hashes keep working after a change: the cost is stored in each hash
+        return new BCryptPasswordEncoder(strength);
     }
     
     @Bean
@@ -46,11 +52,15 @@ public class SecurityConfig {
                 .requestMatchers("/class-users/**").permitAll()
                 // Actuator endpoints
                 .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                // Internal lookups for evaluation-service (shared service token, see InternalServiceTokenFilter)
+                .requestMatchers("/auth/users/ids", "/auth/users/ids/**", "/auth/users/student/**", "/auth/users/role/**")
+                    .hasAnyRole(InternalServiceTokenFilter.ROLE, "ADMIN")
                 // Swagger/OpenAPI endpoints
                 .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs", "/v3/api-docs/**").permitAll()
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
+            .addFilterBefore(internalServiceTokenFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
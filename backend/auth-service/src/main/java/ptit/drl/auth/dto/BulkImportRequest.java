@@ -0,0 +1,33 @@
+package ptit.drl.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Bulk student account import (JSON form of POST /auth/users/bulk-import)
+ */
+public class BulkImportRequest {
+    
+    @NotEmpty(message = "Student codes are required")
+    private List<String> studentCodes;
+    
+    private boolean sendEmails = true;
+    
+    // Getters and Setters
+    public List<String> getStudentCodes() {
+        return studentCodes;
+    }
+    
+    public void setStudentCodes(List<String> studentCodes) {
+        this.studentCodes = studentCodes;
+    }
+    
+    public boolean isSendEmails() {
+        return sendEmails;
+    }
+    
+    public void setSendEmails(boolean sendEmails) {
+        this.sendEmails = sendEmails;
+    }
+}
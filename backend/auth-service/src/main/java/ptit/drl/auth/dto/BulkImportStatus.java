@@ -0,0 +1,137 @@
+package ptit.drl.auth.dto;
+
+import java.util.List;
+
+/**
+ * Progress of a bulk student account import job
+ * status: QUEUED, RUNNING, COMPLETED, FAILED
+ */
+public class BulkImportStatus {
+    private String jobId;
+    private String status;
+    private int total;
+    private int processed;
+    private int created;
+    private int updated;
+    private int skipped;
+    private int notFound;
+    private int failed;
+    private int emailsQueued;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private List<String> notFoundCodes;
+    private String error;
+    
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    
+    public int getProcessed() {
+        return processed;
+    }
+    
+    public void setProcessed(int processed) {
+        this.processed = processed;
+    }
+    
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+    
+    public int getSkipped() {
+        return skipped;
+    }
+    
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+    
+    public int getNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(int notFound) {
+        this.notFound = notFound;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public int getEmailsQueued() {
+        return emailsQueued;
+    }
+    
+    public void setEmailsQueued(int emailsQueued) {
+        this.emailsQueued = emailsQueued;
+    }
+    
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+    
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+    
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+    
+    public List<String> getNotFoundCodes() {
+        return notFoundCodes;
+    }
+    
+    public void setNotFoundCodes(List<String> notFoundCodes) {
+        this.notFoundCodes = notFoundCodes;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
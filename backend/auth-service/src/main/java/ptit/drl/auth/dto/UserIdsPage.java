@@ -0,0 +1,47 @@
+package ptit.drl.auth.dto;
+
+import java.util.List;
+
+/**
+ * One page of active user IDs, ordered by id (keyset pagination)
+ * Pass nextAfterId back as afterId to get the following page; null when there is none.
+ */
+public class UserIdsPage {
+    private List<Long> ids;
+    private Long nextAfterId;
+    private boolean hasNext;
+    
+    // Constructors
+    public UserIdsPage() {}
+    
+    public UserIdsPage(List<Long> ids, Long nextAfterId) {
+        this.ids = ids;
+        this.nextAfterId = nextAfterId;
+        this.hasNext = nextAfterId != null;
+    }
+    
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+    
+    public void setNextAfterId(Long nextAfterId) {
+        this.nextAfterId = nextAfterId;
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -33,6 +33,9 @@ public class User extends BaseEntity {
     @Column(name = "class_code", length = 20)
     private String classCode; // Class code from student record (e.g., "D21DCCN01-N")
     
+    @Column(name = "student_synced_at")
+    private java.time.LocalDateTime studentSyncedAt; // Last refresh of classCode from student-service
+    
     // Digital signature fields
     @Column(name = "signature_image_url", length = 500)
     private String signatureImageUrl;
@@ -161,5 +164,13 @@ public class User extends BaseEntity {
     public void setSignatureHash(String signatureHash) {
         this.signatureHash = signatureHash;
     }
+    
+    public java.time.LocalDateTime getStudentSyncedAt() {
+        return studentSyncedAt;
+    }
+    
+    public void setStudentSyncedAt(java.time.LocalDateTime studentSyncedAt) {
+        this.studentSyncedAt = studentSyncedAt;
+    }
 }
 
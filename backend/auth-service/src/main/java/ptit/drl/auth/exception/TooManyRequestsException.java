@@ -0,0 +1,15 @@
+package ptit.drl.auth.exception;
+
+/**
+ * Exception thrown when the service is temporarily saturated (e.g. password hashing pool full)
+ */
+public class TooManyRequestsException extends RuntimeException {
+    
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+    
+    public TooManyRequestsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
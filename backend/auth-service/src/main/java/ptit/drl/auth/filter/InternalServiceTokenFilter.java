@@ -0,0 +1,62 @@
+package ptit.drl.auth.filter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Service-to-service authentication for the internal /auth/users/... lookups.
+ * A request carrying the shared token (internal.service-token) in X-Internal-Token is
+ * authenticated as ROLE_INTERNAL_SERVICE. There is no default token: when INTERNAL_SERVICE_TOKEN
+ * is unset the filter stays disabled and only ADMIN can call those lookups.
+ */
+@Component
+public class InternalServiceTokenFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Internal-Token";
+    public static final String ROLE = "INTERNAL_SERVICE";
+
+    private static final Logger logger = LoggerFactory.getLogger(InternalServiceTokenFilter.class);
+
+    @Value("${internal.service-token:}")
+    private String serviceToken;
+
+    @PostConstruct
+    void checkToken() {
+        if (!StringUtils.hasText(serviceToken)) {
+            logger.warn("internal.service-token is not set: service-to-service lookups are disabled");
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String presented = request.getHeader(HEADER);
+        if (StringUtils.hasText(serviceToken) && StringUtils.hasText(presented)
+                && MessageDigest.isEqual(serviceToken.getBytes(StandardCharsets.UTF_8),
+                                         presented.getBytes(StandardCharsets.UTF_8))) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    "internal-service", null, List.of(new SimpleGrantedAuthority("ROLE_" + ROLE)));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -12,10 +12,12 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import ptit.drl.auth.util.JwtClaims;
 import ptit.drl.auth.util.JwtTokenProvider;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -35,11 +37,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         String token = getTokenFromRequest(request);
         
-        if (token != null && jwtTokenProvider.validateToken(token)) {
+        // Single signature verification per request
+        Optional<JwtClaims> verified = jwtTokenProvider.parseAndVerify(token);
+        if (verified.isPresent()) {
             try {
-                Long userId = jwtTokenProvider.getUserIdFromToken(token);
-                String username = jwtTokenProvider.getUsernameFromToken(token);
-                Set<String> roles = jwtTokenProvider.getRolesFromToken(token);
+                JwtClaims claims = verified.get();
+                Long userId = claims.userId();
+                String username = claims.username();
+                Set<String> roles = claims.roles();
                 
                 if (userId != null && username != null) {
                     // Convert roles to Spring Security authorities
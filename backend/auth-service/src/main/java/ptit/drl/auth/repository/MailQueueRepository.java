@@ -0,0 +1,135 @@
+package ptit.drl.auth.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * JDBC access to mail_queue for EmailService (enqueue) and MailQueueSender (claim, ack, retry)
+ */
+@Repository
+public class MailQueueRepository {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO mail_queue (to_email, subject, body) VALUES (?, ?, ?)";
+
+    // Claimed rows are leased by pushing next_attempt_at forward, so a crashed sender's batch
+    // becomes due again and concurrent instances never pick the same row (SKIP LOCKED)
+    private static final String CLAIM_SQL =
+        "UPDATE mail_queue SET next_attempt_at = ? " +
+        "WHERE id IN (SELECT id FROM mail_queue WHERE status = 'PENDING' AND next_attempt_at <= ? " +
+        "ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+        "RETURNING id, to_email, subject, body, attempts, created_at";
+
+    private static final String RETRY_SQL =
+        "UPDATE mail_queue SET attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private static final String FAIL_SQL =
+        "UPDATE mail_queue SET status = 'FAILED', attempts = ?, body = NULL, last_error = ? WHERE id = ?";
+
+    /**
+     * Email to send
+     */
+    public record Mail(String toEmail, String subject, String body) {}
+
+    /**
+     * Claimed row of mail_queue
+     */
+    public record QueuedMail(long id, String toEmail, String subject, String body, int attempts, Instant createdAt) {}
+
+    /**
+     * Retry / failure update for one row
+     */
+    public record Attempt(long id, int attempts, Instant nextAttemptAt, String error) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MailQueueRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Queue emails in one JDBC batch (joins the caller's transaction if there is one)
+     */
+    public void enqueueAll(List<Mail> mails) {
+        if (mails.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, mails.stream()
+                .map(mail -> new Object[] {mail.toEmail(), mail.subject(), mail.body()})
+                .toList());
+    }
+
+    /**
+     * Claim up to limit due emails for leaseUntil
+     */
+    public List<QueuedMail> claimDue(Instant now, Instant leaseUntil, int limit) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new QueuedMail(
+                        rs.getLong("id"),
+                        rs.getString("to_email"),
+                        rs.getString("subject"),
+                        rs.getString("body"),
+                        rs.getInt("attempts"),
+                        rs.getTimestamp("created_at").toInstant()),
+                Timestamp.from(leaseUntil), Timestamp.from(now), limit);
+    }
+
+    /**
+     * Delete sent emails in one JDBC batch
+     */
+    public void deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM mail_queue WHERE id = ?", ids.stream()
+                .map(id -> new Object[] {id})
+                .toList());
+    }
+
+    /**
+     * Schedule another attempt for each row
+     */
+    public void scheduleRetries(List<Attempt> attempts) {
+        if (attempts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(RETRY_SQL, attempts.stream()
+                .map(attempt -> new Object[] {
+                        attempt.attempts(), Timestamp.from(attempt.nextAttemptAt()), attempt.error(), attempt.id()})
+                .toList());
+    }
+
+    /**
+     * Give up on rows that used all attempts; the body (may contain a password) is cleared
+     */
+    public void markFailed(List<Attempt> attempts) {
+        if (attempts.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(FAIL_SQL, attempts.stream()
+                .map(attempt -> new Object[] {attempt.attempts(), attempt.error(), attempt.id()})
+                .toList());
+    }
+
+    /**
+     * Number of emails waiting to be sent
+     */
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM mail_queue WHERE status = 'PENDING'", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * created_at of the oldest pending email, null when the queue is empty
+     */
+    public Instant oldestPendingCreatedAt() {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM mail_queue WHERE status = 'PENDING'", Timestamp.class);
+        return oldest != null ? oldest.toInstant() : null;
+    }
+}
@@ -0,0 +1,96 @@
+package ptit.drl.auth.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to refresh_tokens for RefreshTokenStore (batched write-behind, startup load, sweep)
+ */
+@Repository
+public class RefreshTokenRepository {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO refresh_tokens (token_id, user_id, expires_at) VALUES (?, ?, ?) " +
+        "ON CONFLICT (token_id) DO UPDATE SET expires_at = EXCLUDED.expires_at";
+
+    private static final String DELETE_SQL = "DELETE FROM refresh_tokens WHERE token_id = ?";
+
+    /**
+     * Row of refresh_tokens
+     */
+    public record Row(String tokenId, long userId, Instant expiresAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RefreshTokenRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert or update (expires_at) tokens in one JDBC batch
+     */
+    public void upsertAll(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows.stream()
+                .map(row -> new Object[] {row.tokenId(), row.userId(), Timestamp.from(row.expiresAt())})
+                .toList());
+    }
+
+    /**
+     * Delete tokens in one JDBC batch
+     */
+    public void deleteAll(List<String> tokenIds) {
+        if (tokenIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, tokenIds.stream()
+                .map(tokenId -> new Object[] {tokenId})
+                .toList());
+    }
+
+    /**
+     * Delete all tokens of a user
+     */
+    public int deleteByUserId(long userId) {
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE user_id = ?", userId);
+    }
+
+    /**
+     * Look up one token (used only when it is not in memory, e.g. issued by another instance)
+     */
+    public Optional<Row> findById(String tokenId) {
+        return jdbcTemplate.query(
+                "SELECT token_id, user_id, expires_at FROM refresh_tokens WHERE token_id = ?",
+                (rs, rowNum) -> new Row(rs.getString(1), rs.getLong(2), rs.getTimestamp(3).toInstant()),
+                tokenId).stream().findFirst();
+    }
+
+    /**
+     * Stream all tokens that are not expired yet
+     */
+    public void forEachActive(Instant now, Consumer<Row> consumer) {
+        jdbcTemplate.query(
+                "SELECT token_id, user_id, expires_at FROM refresh_tokens WHERE expires_at > ?",
+                rs -> {
+                    Row row = new Row(rs.getString(1), rs.getLong(2), rs.getTimestamp(3).toInstant());
+                    consumer.accept(row);
+                },
+                Timestamp.from(now));
+    }
+
+    /**
+     * Delete expired tokens
+     * @return number of rows deleted
+     */
+    public int deleteExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM refresh_tokens WHERE expires_at <= ?", Timestamp.from(now));
+    }
+}
@@ -0,0 +1,124 @@
+package ptit.drl.auth.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JDBC batch access to users / user_roles for bulk student provisioning (BulkUserImportService).
+ * One round trip per statement per chunk instead of one JPA load + save per student.
+ */
+@Repository
+public class UserBulkRepository {
+
+    // No conflict target: a row clashing on username or email is skipped (update count 0)
+    private static final String INSERT_USER_SQL =
+        "INSERT INTO users (username, email, password_hash, full_name, is_active, student_code, class_code, " +
+        "student_synced_at, created_at, updated_at) " +
+        "VALUES (:username, :email, :passwordHash, :fullName, true, :studentCode, :classCode, :syncedAt, :now, :now) " +
+        "ON CONFLICT DO NOTHING";
+
+    private static final String UPDATE_PROFILE_SQL =
+        "UPDATE users SET full_name = :fullName, class_code = :classCode, student_synced_at = :syncedAt, " +
+        "updated_at = :now WHERE username = :username";
+
+    // Joining roles makes a missing role a no-op instead of a FK violation
+    private static final String ADD_ROLE_SQL =
+        "INSERT INTO user_roles (user_id, role_name) " +
+        "SELECT u.id, r.name FROM users u JOIN roles r ON r.name = :roleName " +
+        "WHERE u.username IN (:usernames) " +
+        "ON CONFLICT DO NOTHING";
+
+    /**
+     * Existing account matched by username or email
+     */
+    public record ExistingUser(String username, String email, String classCode) {}
+
+    /**
+     * Student account to create or refresh
+     */
+    public record UserRow(String username, String email, String passwordHash, String fullName,
+                          String studentCode, String classCode) {}
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserBulkRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Find accounts whose username or email is in the given sets (idx_users_username, idx_users_email)
+     */
+    public List<ExistingUser> findExisting(Collection<String> usernames, Collection<String> emails) {
+        if (usernames.isEmpty() && emails.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usernames", usernames.isEmpty() ? List.of("") : usernames)
+                .addValue("emails", emails.isEmpty() ? List.of("") : emails);
+        return jdbcTemplate.query(
+                "SELECT username, email, class_code FROM users " +
+                "WHERE username IN (:usernames) OR email IN (:emails)",
+                params,
+                (rs, rowNum) -> new ExistingUser(rs.getString(1), rs.getString(2), rs.getString(3)));
+    }
+
+    /**
+     * Insert new accounts in one JDBC batch, skipping rows that already exist
+     * @return update count per row (1 = created, 0 = skipped because of a concurrent insert)
+     */
+    public int[] insertUsers(List<UserRow> rows, LocalDateTime now) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        MapSqlParameterSource[] batch = rows.stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("username", row.username())
+                        .addValue("email", row.email())
+                        .addValue("passwordHash", row.passwordHash())
+                        .addValue("fullName", row.fullName())
+                        .addValue("studentCode", row.studentCode())
+                        .addValue("classCode", row.classCode())
+                        .addValue("syncedAt", row.classCode() != null ? timestamp : null)
+                        .addValue("now", timestamp))
+                .toArray(MapSqlParameterSource[]::new);
+        return jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch);
+    }
+
+    /**
+     * Refresh full name / class code of existing accounts in one JDBC batch (password is left untouched)
+     */
+    public void updateProfiles(List<UserRow> rows, LocalDateTime now) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp timestamp = Timestamp.valueOf(now);
+        MapSqlParameterSource[] batch = rows.stream()
+                .map(row -> new MapSqlParameterSource()
+                        .addValue("username", row.username())
+                        .addValue("fullName", row.fullName())
+                        .addValue("classCode", row.classCode())
+                        .addValue("syncedAt", timestamp)
+                        .addValue("now", timestamp))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPDATE_PROFILE_SQL, batch);
+    }
+
+    /**
+     * Grant a role to all given usernames with a single statement
+     */
+    public int addRole(Collection<String> usernames, String roleName) {
+        if (usernames.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(ADD_ROLE_SQL, new MapSqlParameterSource()
+                .addValue("roleName", roleName)
+                .addValue("usernames", usernames));
+    }
+}
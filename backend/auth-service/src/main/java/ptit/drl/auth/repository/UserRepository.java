@@ -1,13 +1,17 @@
 package ptit.drl.auth.repository;
 
 import ptit.drl.auth.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +43,28 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @Query("SELECT u FROM User u WHERE u.studentCode = :studentCode")
     Optional<User> findByStudentCode(@Param("studentCode") String studentCode);
     
+    // Background refresh of the cached student profile (does not touch the loaded entity)
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.classCode = :classCode, u.studentSyncedAt = :syncedAt WHERE u.id = :id")
+    int updateStudentProfile(@Param("id") Long id,
+                             @Param("classCode") String classCode,
+                             @Param("syncedAt") LocalDateTime syncedAt);
+    
+    // Users of a class having one of the given role names, oldest first (idx_users_class_code + idx_user_roles_role)
+    @Query("SELECT u FROM User u JOIN u.roles r WHERE u.classCode = :classCode AND r.name IN :roleNames ORDER BY u.id")
+    List<User> findByClassCodeAndRoleNames(@Param("classCode") String classCode,
+                                           @Param("roleNames") List<String> roleNames,
+                                           Pageable pageable);
+    
+    // Active user IDs only (no entity loading)
+    @Query("SELECT u.id FROM User u WHERE u.isActive = true ORDER BY u.id")
+    List<Long> findActiveUserIds();
+    
+    // Next page of active user IDs after the given id (keyset pagination on the primary key)
+    @Query("SELECT u.id FROM User u WHERE u.isActive = true AND u.id > :afterId ORDER BY u.id")
+    List<Long> findActiveUserIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
     // Find user IDs by role (for notifications)
     @Query("SELECT DISTINCT u.id FROM User u JOIN u.roles r WHERE r.name = :roleName AND u.isActive = true")
     List<Long> findUserIdsByRole(@Param("roleName") String roleName);
@@ -1,13 +1,18 @@
 package ptit.drl.auth.service;
 
 import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ptit.drl.auth.dto.*;
 import ptit.drl.auth.entity.User;
 import ptit.drl.auth.entity.Role;
@@ -17,19 +22,25 @@ import ptit.drl.auth.exception.ResourceNotFoundException;
 import ptit.drl.auth.mapper.UserMapper;
 import ptit.drl.auth.repository.UserRepository;
 import ptit.drl.auth.repository.RoleRepository;
+import ptit.drl.auth.util.JwtClaims;
 import ptit.drl.auth.util.JwtTokenProvider;
 import ptit.drl.auth.client.StudentServiceClient;
 
 import jakarta.persistence.criteria.Predicate;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Service for authentication and authorization
  * Uses Feign Client to communicate with student-service for student validation
+ * Methods that hash or verify passwords run without a transaction (BCrypt must not hold a
+ * DB connection): they read in short repository calls and write in writeTransaction().
  */
 @Service
 @Transactional
@@ -42,7 +53,7 @@ public class AuthService {
     private RoleRepository roleRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
     
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
@@ -53,10 +64,26 @@ public class AuthService {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private ClassUsersService classUsersService;
+    
+    @Autowired
+    private StudentProfileSync studentProfileSync;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
     /**
      * Register a new user
      * Validates studentCode exists via student-service if provided
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserDTO register(RegisterRequest request) {
         // Check if username exists
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -118,25 +145,31 @@ public class AuthService {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(passwordHasher.encode(request.getPassword()));
         user.setFullName(request.getFullName());
         user.setStudentCode(request.getStudentCode());
         user.setClassCode(classCode);
+        if (classCode != null) {
+            user.setStudentSyncedAt(LocalDateTime.now());
+        }
         user.setIsActive(true);
         
-        // Assign default role (STUDENT)
-        Role studentRole = roleRepository.findById("STUDENT")
-                .orElseThrow(() -> new ResourceNotFoundException("Role", "name", "STUDENT"));
-        user.addRole(studentRole);
-        
-        User saved = userRepository.save(user);
-        return UserMapper.toDTO(saved);
+        return writeTransaction().execute(status -> {
+            // Assign default role (STUDENT)
+            Role studentRole = roleRepository.findById("STUDENT")
+                    .orElseThrow(() -> new ResourceNotFoundException("Role", "name", "STUDENT"));
+            user.addRole(studentRole);
+            
+            User saved = userRepository.save(user);
+            return UserMapper.toDTO(saved);
+        });
     }
     
     /**
      * Request password - Send password to student email
      * Extracts studentCode from email (format: studentCode@student.ptithcm.edu.vn)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void requestPassword(RequestPasswordRequest request) {
         // Extract studentCode from email (e.g., n21dccn001@student.ptithcm.edu.vn -> n21dccn001)
         String email = request.getEmail();
@@ -145,91 +178,108 @@ public class AuthService {
         
         // Try to get student data from student-service (optional - not required)
         // If student doesn't exist, we'll still create the user account
-        StudentServiceClient.StudentDTO studentData = null;
-        try {
-            StudentServiceClient.StudentResponse studentResponse = 
-                studentServiceClient.getStudentByCode(studentCode);
-            if (studentResponse != null && studentResponse.isSuccess() && studentResponse.getData() != null) {
-                studentData = studentResponse.getData();
-            }
-            // If student not found, studentData remains null - we'll still create the user
-        } catch (Exception e) {
-            // Log but don't throw - we'll create user anyway if email format is valid
-            // studentData remains null
-        }
+        StudentServiceClient.StudentDTO studentData = findStudentData(studentCode);
         
         // Normalize username to lowercase (e.g., n21dccn001)
         String username = studentCodeFromEmail.toLowerCase();
         
-        // Check if user already exists (by email or username)
-        User existingUser = userRepository.findByEmail(email)
-                .orElse(userRepository.findByUsernameIgnoreCase(username).orElse(null));
-        String password;
-        
-        if (existingUser != null) {
-            // User exists, generate new password
-            password = generateRandomPassword();
-            existingUser.setPasswordHash(passwordEncoder.encode(password));
-            // Update fullName and classCode from student data if available
-            if (studentData != null) {
-                if (studentData.getFullName() != null) {
-                    existingUser.setFullName(studentData.getFullName());
+        // New password for both an existing and a new account; hashed before the transaction starts
+        String password = generateRandomPassword();
+        String passwordHash = passwordHasher.encode(password);
+        
+        writeTransaction().executeWithoutResult(status -> {
+            // Check if user already exists (by email or username)
+            User existingUser = userRepository.findByEmail(email)
+                    .orElse(userRepository.findByUsernameIgnoreCase(username).orElse(null));
+            
+            if (existingUser != null) {
+                // Class monitor of the old class may change below
+                classUsersService.invalidate(existingUser.getClassCode());
+                
+                // User exists, set the new password
+                existingUser.setPasswordHash(passwordHash);
+                // Update fullName and classCode from student data if available
+                if (studentData != null) {
+                    if (studentData.getFullName() != null) {
+                        existingUser.setFullName(studentData.getFullName());
+                    }
+                    if (studentData.getClassCode() != null) {
+                        existingUser.setClassCode(studentData.getClassCode());
+                        existingUser.setStudentSyncedAt(LocalDateTime.now());
+                    }
                 }
-                if (studentData.getClassCode() != null) {
-                    existingUser.setClassCode(studentData.getClassCode());
+                
+                // Auto-assign CLASS_MONITOR role if student position is CLASS_MONITOR
+                if (studentData != null && "CLASS_MONITOR".equalsIgnoreCase(studentData.getPosition())) {
+                    Role classMonitorRole = roleRepository.findById("CLASS_MONITOR")
+                            .orElse(null);
+                    if (classMonitorRole != null && !existingUser.getRoles().contains(classMonitorRole)) {
+                        existingUser.addRole(classMonitorRole);
+                    }
                 }
-            }
-            
-            // Auto-assign CLASS_MONITOR role if student position is CLASS_MONITOR
-            if (studentData != null && "CLASS_MONITOR".equalsIgnoreCase(studentData.getPosition())) {
-                Role classMonitorRole = roleRepository.findById("CLASS_MONITOR")
-                        .orElse(null);
-                if (classMonitorRole != null && !existingUser.getRoles().contains(classMonitorRole)) {
-                    existingUser.addRole(classMonitorRole);
+                
+                userRepository.save(existingUser);
+                classUsersService.invalidate(existingUser.getClassCode());
+            } else {
+                // Create new user - only when requesting password for the first time
+                User user = new User();
+                user.setUsername(username); // Use lowercase studentCode as username (e.g., n21dccn001)
+                user.setEmail(email);
+                user.setPasswordHash(passwordHash);
+                // Set fullName from student data
+                user.setFullName(studentData != null && studentData.getFullName() != null 
+                        ? studentData.getFullName() 
+                        : studentCode);
+                user.setStudentCode(studentCode);
+                user.setClassCode(studentData != null ? studentData.getClassCode() : null);
+                if (user.getClassCode() != null) {
+                    user.setStudentSyncedAt(LocalDateTime.now());
                 }
-            }
-            
-            userRepository.save(existingUser);
-        } else {
-            // Create new user - only when requesting password for the first time
-            password = generateRandomPassword();
-            User user = new User();
-            user.setUsername(username); // Use lowercase studentCode as username (e.g., n21dccn001)
-            user.setEmail(email);
-            user.setPasswordHash(passwordEncoder.encode(password));
-            // Set fullName from student data
-            user.setFullName(studentData != null && studentData.getFullName() != null 
-                    ? studentData.getFullName() 
-                    : studentCode);
-            user.setStudentCode(studentCode);
-            user.setClassCode(studentData != null ? studentData.getClassCode() : null);
-            user.setIsActive(true);
-            
-            // Assign default role (STUDENT)
-            Role studentRole = roleRepository.findById("STUDENT")
-                    .orElseThrow(() -> new ResourceNotFoundException("Role", "name", "STUDENT"));
-            user.addRole(studentRole);
-            
-            // Auto-assign CLASS_MONITOR role if student position is CLASS_MONITOR
-            if (studentData != null && "CLASS_MONITOR".equalsIgnoreCase(studentData.getPosition())) {
-                Role classMonitorRole = roleRepository.findById("CLASS_MONITOR")
-                        .orElse(null);
-                if (classMonitorRole != null) {
-                    user.addRole(classMonitorRole);
+                user.setIsActive(true);
+                
+                // Assign default role (STUDENT)
+                Role studentRole = roleRepository.findById("STUDENT")
+                        .orElseThrow(() -> new ResourceNotFoundException("Role", "name", "STUDENT"));
+                user.addRole(studentRole);
+                
+                // Auto-assign CLASS_MONITOR role if student position is CLASS_MONITOR
+                if (studentData != null && "CLASS_MONITOR".equalsIgnoreCase(studentData.getPosition())) {
+                    Role classMonitorRole = roleRepository.findById("CLASS_MONITOR")
+                            .orElse(null);
+                    if (classMonitorRole != null) {
+                        user.addRole(classMonitorRole);
+                    }
                 }
+                
+                userRepository.save(user);
+                classUsersService.invalidate(user.getClassCode());
             }
             
-            userRepository.save(user);
+            // Queue the password email in the same transaction as the new hash
+            emailService.sendPasswordEmail(email, studentCode, password);
+        });
+    }
+    
+    /**
+     * Student data from student-service, or null if unknown / unavailable
+     */
+    private StudentServiceClient.StudentDTO findStudentData(String studentCode) {
+        try {
+            StudentServiceClient.StudentResponse studentResponse = 
+                studentServiceClient.getStudentByCode(studentCode);
+            if (studentResponse != null && studentResponse.isSuccess() && studentResponse.getData() != null) {
+                return studentResponse.getData();
+            }
+        } catch (Exception e) {
+            // Log but don't throw - we'll create user anyway if email format is valid
         }
-        
-        // Send password via email
-        emailService.sendPasswordEmail(email, studentCode, password);
+        return null;
     }
     
     /**
-     * Generate random password (8-12 characters, alphanumeric)
+     * Generate random password (8-12 characters, alphanumeric); also used by BulkUserImportService
      */
-    private String generateRandomPassword() {
+    static String generateRandomPassword() {
         String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
         StringBuilder password = new StringBuilder();
         java.util.Random random = new java.util.Random();
@@ -260,8 +310,22 @@ public class AuthService {
     /**
      * Authenticate user and generate tokens
      * Now supports both email and username login (case-insensitive for username)
+     * The user (with roles and permissions) is read in one short query; the password check runs without a transaction
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponse login(LoginRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            AuthResponse response = doLogin(request);
+            outcome = "success";
+            return response;
+        } finally {
+            sample.stop(latencyTimer("auth.login.duration", outcome));
+        }
+    }
+    
+    private AuthResponse doLogin(LoginRequest request) {
         String loginInput = request.getUsername().trim();
         User user = null;
         
@@ -282,7 +346,7 @@ public class AuthService {
         }
         
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
             throw new AuthenticationException("Invalid username or password");
         }
         
@@ -296,24 +360,13 @@ public class AuthService {
                 .map(ptit.drl.auth.entity.Permission::getName)
                 .collect(Collectors.toSet());
         
-        // Fetch classCode from student-service if user has studentCode
-        if (user.getStudentCode() != null && !user.getStudentCode().isEmpty()) {
-            try {
-                StudentServiceClient.StudentResponse studentResponse = 
-                    studentServiceClient.getStudentByCode(user.getStudentCode());
-                if (studentResponse != null && studentResponse.isSuccess() && 
-                    studentResponse.getData() != null && studentResponse.getData().getClassCode() != null) {
-                    user.setClassCode(studentResponse.getData().getClassCode());
-                }
-            } catch (Exception e) {
-                // Failed to fetch classCode - continue without it
-            }
-        }
+        // classCode comes from users.class_code; refreshed from student-service in the background when stale
+        studentProfileSync.refreshIfStale(user);
         
         // Generate tokens
         String accessToken = jwtTokenProvider.generateAccessToken(
                 user.getId(), user.getUsername(), roles, permissions);
-        String refreshToken = jwtTokenProvider.generateRefreshToken(user.getId());
+        String refreshToken = issueRefreshToken(user.getId());
         
         // Create response
         AuthResponse response = new AuthResponse();
@@ -330,13 +383,30 @@ public class AuthService {
      * Refresh access token
      */
     public AuthResponse refreshToken(String refreshToken) {
-        // Validate refresh token
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            AuthResponse response = doRefreshToken(refreshToken);
+            outcome = "success";
+            return response;
+        } finally {
+            sample.stop(latencyTimer("auth.refresh.duration", outcome));
+        }
+    }
+    
+    private AuthResponse doRefreshToken(String refreshToken) {
+        // Validate refresh token (one verification) and check it was not revoked (in-memory lookup)
+        JwtClaims claims = jwtTokenProvider.parseAndVerify(refreshToken)
+                .orElseThrow(() -> new AuthenticationException("Invalid or expired refresh token"));
+        // Access tokens are signed with the same key; only a refresh token may be exchanged
+        if (!claims.isRefreshToken()) {
             throw new AuthenticationException("Invalid or expired refresh token");
         }
-        
-        // Get user ID from token
-        Long userId = jwtTokenProvider.getUserIdFromToken(refreshToken);
+        Long userId = claims.userId();
+        // Retires the presented token (one grace reuse allowed); further reuse revokes all of the user's tokens
+        if (!refreshTokenStore.rotate(claims.tokenId(), userId)) {
+            throw new AuthenticationException("Refresh token has been revoked");
+        }
         
         // Find user (optimized with fetch join)
         User user = userRepository.findByIdWithRoles(userId)
@@ -357,28 +427,20 @@ public class AuthService {
                 .map(ptit.drl.auth.entity.Permission::getName)
                 .collect(Collectors.toSet());
         
-        // Fetch classCode from student-service if user has studentCode
-        if (user.getStudentCode() != null && !user.getStudentCode().isEmpty()) {
-            try {
-                StudentServiceClient.StudentResponse studentResponse = 
-                    studentServiceClient.getStudentByCode(user.getStudentCode());
-                if (studentResponse != null && studentResponse.isSuccess() && 
-                    studentResponse.getData() != null && studentResponse.getData().getClassCode() != null) {
-                    user.setClassCode(studentResponse.getData().getClassCode());
-                }
-            } catch (Exception e) {
-                // Failed to fetch classCode - continue without it
-            }
-        }
+        // classCode comes from users.class_code; refreshed from student-service in the background when stale
+        studentProfileSync.refreshIfStale(user);
         
         // Generate new access token
         String newAccessToken = jwtTokenProvider.generateAccessToken(
                 user.getId(), user.getUsername(), roles, permissions);
         
-        // Create response (refresh token stays the same)
+        // New refresh token; the presented one was rotated out above
+        String newRefreshToken = issueRefreshToken(user.getId());
+        
+        // Create response
         AuthResponse response = new AuthResponse();
         response.setAccessToken(newAccessToken);
-        response.setRefreshToken(refreshToken); // Keep same refresh token
+        response.setRefreshToken(newRefreshToken);
         response.setExpiresIn(jwtTokenProvider.getAccessTokenExpiration());
         response.setRefreshExpiresIn(jwtTokenProvider.getRefreshTokenExpiration());
         response.setUser(UserMapper.toDTO(user));
@@ -386,6 +448,42 @@ public class AuthService {
         return response;
     }
     
+    /**
+     * Logout: revoke the refresh token (ignored if missing or invalid)
+     */
+    public void logout(String refreshToken) {
+        jwtTokenProvider.parseAndVerify(refreshToken)
+                .ifPresent(claims -> refreshTokenStore.revoke(claims.tokenId()));
+    }
+    
+    /**
+     * Create a refresh token and register it in the store
+     */
+    private String issueRefreshToken(Long userId) {
+        String tokenId = UUID.randomUUID().toString();
+        String token = jwtTokenProvider.generateRefreshToken(userId, tokenId);
+        refreshTokenStore.register(tokenId, userId,
+                Instant.now().plusSeconds(jwtTokenProvider.getRefreshTokenExpiration()));
+        return token;
+    }
+    
+    /**
+     * Short read-write transaction for the methods that run outside one (password hashing)
+     */
+    private TransactionTemplate writeTransaction() {
+        return new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Latency timer with p50/p95/p99 for the login and refresh paths
+     */
+    private Timer latencyTimer(String name, String outcome) {
+        return Timer.builder(name)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+    
     /**
      * Get current user information
      */
@@ -395,19 +493,8 @@ public class AuthService {
         User user = userRepository.findByIdWithRoles(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
-        // Fetch classCode from student-service if user has studentCode
-        if (user.getStudentCode() != null && !user.getStudentCode().isEmpty()) {
-            try {
-                StudentServiceClient.StudentResponse studentResponse = 
-                    studentServiceClient.getStudentByCode(user.getStudentCode());
-                if (studentResponse != null && studentResponse.isSuccess() && 
-                    studentResponse.getData() != null && studentResponse.getData().getClassCode() != null) {
-                    user.setClassCode(studentResponse.getData().getClassCode());
-                }
-            } catch (Exception e) {
-                // Failed to fetch classCode - continue without it
-            }
-        }
+        // classCode comes from users.class_code; refreshed from student-service in the background when stale
+        studentProfileSync.refreshIfStale(user);
         
         return UserMapper.toDTO(user);
     }
@@ -426,11 +513,21 @@ public class AuthService {
         return user != null ? user.getId() : null;
     }
     
+    @Transactional(readOnly = true)
     public java.util.List<Long> getAllActiveUserIds() {
-        return userRepository.findAll().stream()
-                .filter(User::getIsActive)
-                .map(User::getId)
-                .collect(Collectors.toList());
+        return userRepository.findActiveUserIds();
+    }
+    
+    /**
+     * Get one page of active user IDs after the given id (for notification fan-out)
+     * @param afterId last id of the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public UserIdsPage getActiveUserIdsPage(Long afterId, int size) {
+        List<Long> ids = userRepository.findActiveUserIdsAfter(
+                afterId != null ? afterId : 0L, PageRequest.of(0, size));
+        Long nextAfterId = ids.size() == size ? ids.get(ids.size() - 1) : null;
+        return new UserIdsPage(ids, nextAfterId);
     }
     
     /**
@@ -451,19 +548,26 @@ public class AuthService {
     
     /**
      * Change user password
+     * Verify and hash outside a transaction, then store the hash in a short one
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void changePassword(Long userId, String currentPassword, String newPassword) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         
         // Verify current password
-        if (!passwordEncoder.matches(currentPassword, user.getPasswordHash())) {
+        if (!passwordHasher.matches(currentPassword, user.getPasswordHash())) {
             throw new AuthenticationException("Current password is incorrect");
         }
         
         // Update password
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        String passwordHash = passwordHasher.encode(newPassword);
+        writeTransaction().executeWithoutResult(status -> {
+            User current = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+            current.setPasswordHash(passwordHash);
+            userRepository.save(current);
+        });
     }
     
     /**
@@ -553,6 +657,7 @@ public class AuthService {
         }
         
         User saved = userRepository.save(user);
+        classUsersService.invalidate(saved.getClassCode());
         return UserMapper.toDTO(saved);
     }
     
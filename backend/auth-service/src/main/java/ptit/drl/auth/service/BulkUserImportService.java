@@ -0,0 +1,396 @@
+package ptit.drl.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ptit.drl.auth.client.StudentServiceClient;
+import ptit.drl.auth.dto.BulkImportStatus;
+import ptit.drl.auth.exception.ResourceNotFoundException;
+import ptit.drl.auth.exception.TooManyRequestsException;
+import ptit.drl.auth.exception.ValidationException;
+import ptit.drl.auth.repository.UserBulkRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk provisioning of student accounts (semester onboarding).
+ * Codes are processed in chunks of bulk-import.chunk-size: one POST /students/batch per chunk,
+ * one lookup of existing accounts, passwords hashed in parallel on the password hash pool
+ * (outside the transaction), then one JDBC batch insert / update and one role insert per role,
+ * committed per chunk together with the password emails (mail_queue, sent by MailQueueSender).
+ * Existing accounts only get full name / class code refreshed; their password is not reset.
+ * Jobs run in the background; progress is polled with getStatus.
+ */
+@Service
+public class BulkUserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserImportService.class);
+
+    private static final String STUDENT_ROLE = "STUDENT";
+    private static final String CLASS_MONITOR_ROLE = "CLASS_MONITOR";
+    private static final int MAX_STUDENT_BATCH = 500;
+    private static final int MAX_REPORTED_NOT_FOUND = 200;
+
+    private final StudentServiceClient studentServiceClient;
+    private final UserBulkRepository userBulkRepository;
+    private final PasswordHasher passwordHasher;
+    private final EmailService emailService;
+    private final ClassUsersService classUsersService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final int chunkSize;
+    private final int maxCodes;
+    private final String emailDomain;
+
+    private final Cache<String, Job> jobs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(24))
+            .maximumSize(100)
+            .build();
+
+    private final Timer chunkTimer;
+    private final Counter createdCounter;
+    private final Counter updatedCounter;
+    private final Counter skippedCounter;
+    private final Counter notFoundCounter;
+    private final Counter failedCounter;
+
+    public BulkUserImportService(StudentServiceClient studentServiceClient,
+                                 UserBulkRepository userBulkRepository,
+                                 PasswordHasher passwordHasher,
+                                 EmailService emailService,
+                                 ClassUsersService classUsersService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier("bulkImportExecutor") Executor executor,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${bulk-import.chunk-size:500}") int chunkSize,
+                                 @Value("${bulk-import.max-codes:20000}") int maxCodes,
+                                 @Value("${bulk-import.email-domain:student.ptithcm.edu.vn}") String emailDomain) {
+        this.studentServiceClient = studentServiceClient;
+        this.userBulkRepository = userBulkRepository;
+        this.passwordHasher = passwordHasher;
+        this.emailService = emailService;
+        this.classUsersService = classUsersService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_STUDENT_BATCH));
+        this.maxCodes = maxCodes;
+        this.emailDomain = emailDomain;
+        this.chunkTimer = Timer.builder("auth.bulk-import.chunk.duration")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.createdCounter = rowCounter(meterRegistry, "created");
+        this.updatedCounter = rowCounter(meterRegistry, "updated");
+        this.skippedCounter = rowCounter(meterRegistry, "skipped");
+        this.notFoundCounter = rowCounter(meterRegistry, "not_found");
+        this.failedCounter = rowCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Start an import job in the background
+     * @param studentCodes student codes (case-insensitive, duplicates and blanks ignored)
+     * @param sendEmails email the generated password to each newly created account
+     * @return initial job status (poll getStatus with its jobId)
+     */
+    public BulkImportStatus start(Collection<String> studentCodes, boolean sendEmails) {
+        Set<String> codes = new LinkedHashSet<>();
+        for (String code : studentCodes) {
+            if (code != null && !code.isBlank()) {
+                codes.add(code.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        if (codes.isEmpty()) {
+            throw new ValidationException("No student codes to import");
+        }
+        if (codes.size() > maxCodes) {
+            throw new ValidationException("Too many student codes: " + codes.size() + " (max " + maxCodes + ")");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), codes.size());
+        jobs.put(job.id, job);
+        List<String> codeList = new ArrayList<>(codes);
+        try {
+            executor.execute(() -> run(job, codeList, sendEmails));
+        } catch (TaskRejectedException | RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            throw new TooManyRequestsException("Too many bulk imports in progress, please try again later", e);
+        }
+        logger.info("Bulk import {} queued with {} student codes", job.id, codes.size());
+        return job.snapshot();
+    }
+
+    /**
+     * Progress of a job started in the last 24 hours
+     */
+    public BulkImportStatus getStatus(String jobId) {
+        Job job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", "id", jobId);
+        }
+        return job.snapshot();
+    }
+
+    private void run(Job job, List<String> codes, boolean sendEmails) {
+        job.start();
+        try {
+            for (int from = 0; from < codes.size(); from += chunkSize) {
+                List<String> chunk = codes.subList(from, Math.min(from + chunkSize, codes.size()));
+                try {
+                    chunkTimer.record(() -> importChunk(job, chunk, sendEmails));
+                } catch (Exception e) {
+                    // One bad chunk (e.g. student-service down) must not abort the whole import
+                    logger.error("Bulk import {}: chunk of {} codes starting at {} failed: {}",
+                            job.id, chunk.size(), from, e.getMessage());
+                    job.failed.addAndGet(chunk.size());
+                    failedCounter.increment(chunk.size());
+                }
+                job.processed.addAndGet(chunk.size());
+            }
+            job.finish(null);
+        } catch (Exception e) {
+            job.finish(e.getMessage());
+            logger.error("Bulk import {} failed", job.id, e);
+        }
+        BulkImportStatus status = job.snapshot();
+        logger.info("Bulk import {} {}: {} created, {} updated, {} skipped, {} not found, {} failed in {} ms ({} rows/s)",
+                job.id, status.getStatus(), status.getCreated(), status.getUpdated(), status.getSkipped(),
+                status.getNotFound(), status.getFailed(), status.getElapsedMs(), String.format("%.1f", status.getRowsPerSecond()));
+    }
+
+    private void importChunk(Job job, List<String> codes, boolean sendEmails) {
+        // 1. Student data in one call
+        Map<String, StudentServiceClient.StudentDTO> students = fetchStudents(codes);
+        List<String> missing = new ArrayList<>();
+        for (String code : codes) {
+            if (!students.containsKey(code)) {
+                missing.add(code);
+            }
+        }
+        job.addNotFound(missing);
+        notFoundCounter.increment(missing.size());
+
+        // 2. Split into existing accounts and new ones
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (String code : students.keySet()) {
+            String username = code.toLowerCase(Locale.ROOT);
+            usernames.add(username);
+            emails.add(username + "@" + emailDomain);
+        }
+        Map<String, UserBulkRepository.ExistingUser> existingByKey = new HashMap<>();
+        for (UserBulkRepository.ExistingUser existing : userBulkRepository.findExisting(usernames, emails)) {
+            existingByKey.put(existing.username().toLowerCase(Locale.ROOT), existing);
+            existingByKey.put(existing.email().toLowerCase(Locale.ROOT), existing);
+        }
+
+        List<UserBulkRepository.UserRow> updates = new ArrayList<>();
+        List<StudentServiceClient.StudentDTO> toCreate = new ArrayList<>();
+        Set<String> monitorUsernames = new HashSet<>();
+        Set<String> affectedClasses = new HashSet<>();
+        for (StudentServiceClient.StudentDTO student : students.values()) {
+            String username = student.getStudentCode().toLowerCase(Locale.ROOT);
+            UserBulkRepository.ExistingUser existing = existingByKey.get(username);
+            if (existing == null) {
+                existing = existingByKey.get(username + "@" + emailDomain);
+            }
+            if (existing != null) {
+                updates.add(toRow(existing.username(), existing.email(), null, student));
+                affectedClasses.add(existing.classCode());
+                username = existing.username();
+            } else {
+                toCreate.add(student);
+            }
+            if (CLASS_MONITOR_ROLE.equalsIgnoreCase(student.getPosition())) {
+                monitorUsernames.add(username);
+            }
+            affectedClasses.add(student.getClassCode());
+        }
+
+        // 3. BCrypt in parallel on the bounded pool, before taking a DB connection
+        List<String> passwords = new ArrayList<>(toCreate.size());
+        for (int i = 0; i < toCreate.size(); i++) {
+            passwords.add(AuthService.generateRandomPassword());
+        }
+        List<String> hashes = passwordHasher.encodeAll(passwords);
+        List<UserBulkRepository.UserRow> inserts = new ArrayList<>(toCreate.size());
+        for (int i = 0; i < toCreate.size(); i++) {
+            String username = toCreate.get(i).getStudentCode().toLowerCase(Locale.ROOT);
+            inserts.add(toRow(username, username + "@" + emailDomain, hashes.get(i), toCreate.get(i)));
+        }
+
+        // 4. Batched writes, one transaction per chunk
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> createdIndexes = transactionTemplate.execute(status -> {
+            int[] counts = userBulkRepository.insertUsers(inserts, now);
+            List<Integer> created = new ArrayList<>();
+            List<String> createdUsernames = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                // 0 = account created concurrently (e.g. by request-password); leave it alone
+                if (counts[i] != 0) {
+                    created.add(i);
+                    createdUsernames.add(inserts.get(i).username());
+                }
+            }
+            userBulkRepository.updateProfiles(updates, now);
+            userBulkRepository.addRole(createdUsernames, STUDENT_ROLE);
+            userBulkRepository.addRole(monitorUsernames, CLASS_MONITOR_ROLE);
+            affectedClasses.forEach(classUsersService::invalidate);
+
+            // 5. Password emails go into mail_queue in the same transaction: sent only if the accounts commit
+            if (sendEmails) {
+                List<EmailService.PasswordEmail> mails = new ArrayList<>(created.size());
+                for (int index : created) {
+                    UserBulkRepository.UserRow row = inserts.get(index);
+                    mails.add(new EmailService.PasswordEmail(row.email(), row.studentCode(), passwords.get(index)));
+                }
+                emailService.sendPasswordEmails(mails);
+            }
+            return created;
+        });
+
+        // Inserts that hit ON CONFLICT were neither created nor updated
+        int created = createdIndexes.size();
+        int skipped = inserts.size() - created;
+        job.created.addAndGet(created);
+        job.updated.addAndGet(updates.size());
+        job.skipped.addAndGet(skipped);
+        if (sendEmails) {
+            job.emailsQueued.addAndGet(created);
+        }
+        createdCounter.increment(created);
+        updatedCounter.increment(updates.size());
+        skippedCounter.increment(skipped);
+    }
+
+    /**
+     * Throws when student-service does not answer successfully, so the chunk is counted as failed
+     * instead of every code being reported as not found
+     */
+    private Map<String, StudentServiceClient.StudentDTO> fetchStudents(List<String> codes) {
+        StudentServiceClient.StudentListResponse response =
+                studentServiceClient.getStudentsByCodes(new StudentServiceClient.BatchStudentRequest(codes));
+        if (response == null || !response.isSuccess() || response.getData() == null) {
+            throw new IllegalStateException("student-service batch lookup failed"
+                    + (response != null && response.getMessage() != null ? ": " + response.getMessage() : ""));
+        }
+        Map<String, StudentServiceClient.StudentDTO> students = new HashMap<>();
+        for (StudentServiceClient.StudentDTO student : response.getData()) {
+            if (student.getStudentCode() != null) {
+                students.put(student.getStudentCode().toUpperCase(Locale.ROOT), student);
+            }
+        }
+        return students;
+    }
+
+    private static UserBulkRepository.UserRow toRow(String username, String email, String passwordHash,
+                                                    StudentServiceClient.StudentDTO student) {
+        String studentCode = student.getStudentCode().toUpperCase(Locale.ROOT);
+        String fullName = student.getFullName() != null ? student.getFullName() : studentCode;
+        return new UserBulkRepository.UserRow(username, email, passwordHash, fullName,
+                studentCode, student.getClassCode());
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.bulk-import.rows")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mutable progress of one job; counters are updated by the import thread and read by pollers
+     */
+    private static final class Job {
+        private final String id;
+        private final int total;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger created = new AtomicInteger();
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger emailsQueued = new AtomicInteger();
+        private final AtomicInteger notFound = new AtomicInteger();
+        private final List<String> notFoundCodes = new ArrayList<>();
+        private volatile String status = "QUEUED";
+        private volatile long startedAtNanos;
+        private volatile long finishedAtNanos;
+        private volatile String error;
+
+        private Job(String id, int total) {
+            this.id = id;
+            this.total = total;
+        }
+
+        void start() {
+            startedAtNanos = System.nanoTime();
+            status = "RUNNING";
+        }
+
+        void finish(String errorMessage) {
+            finishedAtNanos = System.nanoTime();
+            error = errorMessage;
+            status = errorMessage == null ? "COMPLETED" : "FAILED";
+        }
+
+        void addNotFound(List<String> codes) {
+            notFound.addAndGet(codes.size());
+            synchronized (notFoundCodes) {
+                for (String code : codes) {
+                    if (notFoundCodes.size() >= MAX_REPORTED_NOT_FOUND) {
+                        break;
+                    }
+                    notFoundCodes.add(code);
+                }
+            }
+        }
+
+        BulkImportStatus snapshot() {
+            BulkImportStatus snapshot = new BulkImportStatus();
+            snapshot.setJobId(id);
+            snapshot.setStatus(status);
+            snapshot.setTotal(total);
+            snapshot.setProcessed(processed.get());
+            snapshot.setCreated(created.get());
+            snapshot.setUpdated(updated.get());
+            snapshot.setSkipped(skipped.get());
+            snapshot.setNotFound(notFound.get());
+            snapshot.setFailed(failed.get());
+            snapshot.setEmailsQueued(emailsQueued.get());
+            synchronized (notFoundCodes) {
+                snapshot.setNotFoundCodes(new ArrayList<>(notFoundCodes));
+            }
+            snapshot.setError(error);
+
+            long started = startedAtNanos;
+            if (started != 0) {
+                long end = finishedAtNanos != 0 ? finishedAtNanos : System.nanoTime();
+                long elapsedMs = Duration.ofNanos(end - started).toMillis();
+                snapshot.setElapsedMs(elapsedMs);
+                snapshot.setRowsPerSecond(elapsedMs > 0 ? processed.get() * 1000.0 / elapsedMs : 0);
+            }
+            return snapshot;
+        }
+    }
+}
@@ -1,22 +1,55 @@
 package ptit.drl.auth.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ptit.drl.auth.dto.UserInfoDTO;
 import ptit.drl.auth.entity.User;
 import ptit.drl.auth.repository.UserRepository;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.util.List;
 
 /**
- * Service for getting class-related users
+ * Service for getting class-related users.
+ * Advisor and class monitor of a class are looked up with indexed queries and cached per class
+ * (metrics: cache=classKeyUsers); AuthService and SignatureService invalidate on user writes.
  */
 @Service
 public class ClassUsersService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ClassUsersService.class);
+
+    private static final List<String> ADVISOR_ROLES = List.of("ADVISOR", "ROLE_ADVISOR");
+    private static final List<String> CLASS_MONITOR_ROLES = List.of("CLASS_MONITOR", "ROLE_CLASS_MONITOR");
+
+    /**
+     * Key users of a class; either may be null
+     */
+    private record ClassKeyUsers(UserInfoDTO advisor, UserInfoDTO monitor) {}
+
     private final UserRepository userRepository;
+    private final Cache<String, ClassKeyUsers> keyUsersCache;
 
-    public ClassUsersService(UserRepository userRepository) {
+    public ClassUsersService(UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${class-users.cache.max-size:2000}") long maxSize,
+                             @Value("${class-users.cache.ttl-minutes:10}") long ttlMinutes) {
         this.userRepository = userRepository;
+        this.keyUsersCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, keyUsersCache, "classKeyUsers");
     }
 
     /**
@@ -24,35 +57,7 @@ public class ClassUsersService {
      * Assumes advisor has ADVISOR role and classCode matches
      */
     public UserInfoDTO getClassAdvisor(String classCode) {
-        System.out.println("[CLASS-USERS] Finding advisor for class: " + classCode);
-        
-        // Find user with ADVISOR role and matching classCode
-        Optional<User> advisor = userRepository.findAll().stream()
-            .filter(user -> {
-                boolean hasClassCode = user.getClassCode() != null && user.getClassCode().equals(classCode);
-                System.out.println("[CLASS-USERS] User: " + user.getUsername() + ", classCode: " + user.getClassCode() + ", matches: " + hasClassCode);
-                return hasClassCode;
-            })
-            .filter(user -> {
-                boolean hasRole = user.getRoles().stream()
-                    .anyMatch(role -> {
-                        boolean matches = role.getName().equals("ADVISOR") || role.getName().equals("ROLE_ADVISOR");
-                        System.out.println("[CLASS-USERS] User: " + user.getUsername() + ", role: " + role.getName() + ", isAdvisor: " + matches);
-                        return matches;
-                    });
-                return hasRole;
-            })
-            .findFirst();
-        
-        if (advisor.isPresent()) {
-            System.out.println("[CLASS-USERS] Found advisor: " + advisor.get().getUsername());
-            UserInfoDTO dto = mapToUserInfoDTO(advisor.get());
-            System.out.println("[CLASS-USERS] Advisor DTO: username=" + dto.getUsername() + ", signatureUrl=" + dto.getSignatureImageUrl());
-            return dto;
-        }
-        
-        System.out.println("[CLASS-USERS] No advisor found for class: " + classCode);
-        return null;
+        return getKeyUsers(classCode).advisor();
     }
 
     /**
@@ -60,46 +65,59 @@ public class ClassUsersService {
      * Assumes class monitor has CLASS_MONITOR role
      */
     public UserInfoDTO getClassMonitor(String classCode) {
-        System.out.println("[CLASS-USERS] Finding class monitor for class: " + classCode);
-        
-        // Find user with CLASS_MONITOR role and matching classCode
-        Optional<User> monitor = userRepository.findAll().stream()
-            .filter(user -> user.getClassCode() != null && user.getClassCode().equals(classCode))
-            .filter(user -> user.getRoles().stream()
-                .anyMatch(role -> role.getName().equals("CLASS_MONITOR") || role.getName().equals("ROLE_CLASS_MONITOR")))
-            .findFirst();
-        
-        if (monitor.isPresent()) {
-            System.out.println("[CLASS-USERS] Found monitor: " + monitor.get().getUsername());
-            UserInfoDTO dto = mapToUserInfoDTO(monitor.get());
-            System.out.println("[CLASS-USERS] Monitor DTO: username=" + dto.getUsername() + ", signatureUrl=" + dto.getSignatureImageUrl());
-            return dto;
-        }
-        
-        System.out.println("[CLASS-USERS] No class monitor found for class: " + classCode);
-        return null;
+        return getKeyUsers(classCode).monitor();
     }
-    
+
     /**
      * Get student user by student code
      */
     public UserInfoDTO getStudentByCode(String studentCode) {
-        System.out.println("[CLASS-USERS] Finding student with code: " + studentCode);
-        
-        // Find user with matching studentCode
-        Optional<User> student = userRepository.findAll().stream()
-            .filter(user -> user.getStudentCode() != null && user.getStudentCode().equals(studentCode))
-            .findFirst();
-        
-        if (student.isPresent()) {
-            System.out.println("[CLASS-USERS] Found student: " + student.get().getUsername());
-            UserInfoDTO dto = mapToUserInfoDTO(student.get());
-            System.out.println("[CLASS-USERS] Student DTO: username=" + dto.getUsername() + ", signatureUrl=" + dto.getSignatureImageUrl());
-            return dto;
+        // idx_users_student_code
+        return userRepository.findByStudentCode(studentCode)
+                .map(this::mapToUserInfoDTO)
+                .orElse(null);
+    }
+
+    /**
+     * Drop cached key users of a class now and again after the current transaction commits
+     */
+    public void invalidate(String classCode) {
+        if (classCode == null) {
+            return;
+        }
+        keyUsersCache.invalidate(classCode);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keyUsersCache.invalidate(classCode);
+                }
+            });
+        }
+    }
+
+    private ClassKeyUsers getKeyUsers(String classCode) {
+        if (classCode == null) {
+            return new ClassKeyUsers(null, null);
         }
-        
-        System.out.println("[CLASS-USERS] No student found with code: " + studentCode);
-        return null;
+        return keyUsersCache.get(classCode, this::loadKeyUsers);
+    }
+
+    private ClassKeyUsers loadKeyUsers(String classCode) {
+        UserInfoDTO advisor = findFirstByRole(classCode, ADVISOR_ROLES);
+        UserInfoDTO monitor = findFirstByRole(classCode, CLASS_MONITOR_ROLES);
+        logger.debug("Loaded key users for class {}: advisor={}, monitor={}",
+                classCode,
+                advisor != null ? advisor.getUsername() : null,
+                monitor != null ? monitor.getUsername() : null);
+        return new ClassKeyUsers(advisor, monitor);
+    }
+
+    private UserInfoDTO findFirstByRole(String classCode, List<String> roleNames) {
+        return userRepository.findByClassCodeAndRoleNames(classCode, roleNames, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(this::mapToUserInfoDTO)
+                .orElse(null);
     }
 
     private UserInfoDTO mapToUserInfoDTO(User user) {
@@ -0,0 +1,257 @@
+package ptit.drl.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import ptit.drl.auth.repository.MailQueueRepository;
+import ptit.drl.auth.util.MailBodyCipher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers mail_queue in the background.
+ * Each poll claims up to mail.queue.batch-size due emails and hands them to one
+ * JavaMailSender.send(...) call, which sends the whole batch over a single SMTP connection.
+ * Sent rows are deleted; failed ones are retried with exponential backoff up to
+ * mail.queue.max-attempts, then kept as FAILED. Claims are leased, so several instances can poll.
+ * Bodies are decrypted only in memory, right before sending (see MailBodyCipher).
+ * Metrics: auth.mail.queue.depth, auth.mail.queue.oldest.age (seconds), auth.mail.delivery.latency
+ * (queued -> sent), auth.mail.batch.duration, auth.mail.sent{result=sent|retried|failed}.
+ */
+@Component
+public class MailQueueSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailQueueSender.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MailQueueRepository mailQueueRepository;
+    private final MailBodyCipher mailBodyCipher;
+    private final JavaMailSender mailSender;
+    private final boolean mailConfigured;
+    private final String fromEmail;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+    private final Timer deliveryLatency;
+    private final Timer batchTimer;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public MailQueueSender(MailQueueRepository mailQueueRepository,
+                           MailBodyCipher mailBodyCipher,
+                           ObjectProvider<JavaMailSender> mailSender,
+                           MeterRegistry meterRegistry,
+                           @Value("${spring.mail.from:noreply@ptithcm.edu.vn}") String fromEmail,
+                           @Value("${spring.mail.username:}") String mailUsername,
+                           @Value("${mail.queue.batch-size:50}") int batchSize,
+                           @Value("${mail.queue.max-attempts:5}") int maxAttempts,
+                           @Value("${mail.queue.backoff-initial-ms:30000}") long initialBackoffMs,
+                           @Value("${mail.queue.backoff-max-ms:3600000}") long maxBackoffMs,
+                           @Value("${mail.queue.lease-ms:300000}") long leaseMs) {
+        this.mailQueueRepository = mailQueueRepository;
+        this.mailBodyCipher = mailBodyCipher;
+        this.mailSender = mailSender.getIfAvailable();
+        this.mailConfigured = this.mailSender != null && StringUtils.hasText(mailUsername);
+        this.fromEmail = fromEmail;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.lease = Duration.ofMillis(leaseMs);
+
+        Gauge.builder("auth.mail.queue.depth", queueDepth, AtomicLong::get)
+                .description("Emails waiting in mail_queue")
+                .register(meterRegistry);
+        Gauge.builder("auth.mail.queue.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest pending email")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.deliveryLatency = Timer.builder("auth.mail.delivery.latency")
+                .description("Time from queueing to successful send")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("auth.mail.batch.duration")
+                .register(meterRegistry);
+        this.sentCounter = resultCounter(meterRegistry, "sent");
+        this.retriedCounter = resultCounter(meterRegistry, "retried");
+        this.failedCounter = resultCounter(meterRegistry, "failed");
+    }
+
+    /**
+     * Send due emails until the queue is drained or a batch comes back short
+     */
+    @Scheduled(fixedDelayString = "${mail.queue.poll-interval-ms:2000}")
+    public void drain() {
+        try {
+            int claimed;
+            do {
+                Instant now = Instant.now();
+                List<MailQueueRepository.QueuedMail> batch = mailQueueRepository.claimDue(now, now.plus(lease), batchSize);
+                claimed = batch.size();
+                if (claimed > 0) {
+                    batchTimer.record(() -> sendBatch(batch));
+                }
+            } while (claimed == batchSize);
+        } catch (Exception e) {
+            logger.warn("Mail queue poll failed: {}", e.getMessage());
+        } finally {
+            refreshGauges();
+        }
+    }
+
+    private void sendBatch(List<MailQueueRepository.QueuedMail> batch) {
+        // Decrypt in memory; a body that cannot be decrypted (key changed) will never send
+        List<MailQueueRepository.QueuedMail> sendable = new ArrayList<>(batch.size());
+        List<MailQueueRepository.Attempt> undecryptable = new ArrayList<>();
+        for (MailQueueRepository.QueuedMail mail : batch) {
+            try {
+                sendable.add(new MailQueueRepository.QueuedMail(mail.id(), mail.toEmail(), mail.subject(),
+                        mailBodyCipher.decrypt(mail.body()), mail.attempts(), mail.createdAt()));
+            } catch (IllegalStateException e) {
+                logger.error("Giving up on email {} to {}: {}", mail.id(), mail.toEmail(), e.getMessage());
+                undecryptable.add(new MailQueueRepository.Attempt(
+                        mail.id(), mail.attempts() + 1, null, truncate(e.getMessage())));
+            }
+        }
+        mailQueueRepository.markFailed(undecryptable);
+        failedCounter.increment(undecryptable.size());
+        if (sendable.isEmpty()) {
+            return;
+        }
+
+        if (!mailConfigured) {
+            sendable.forEach(this::logInsteadOfSending);
+            mailQueueRepository.deleteAll(sendable.stream().map(MailQueueRepository.QueuedMail::id).toList());
+            return;
+        }
+
+        SimpleMailMessage[] messages = new SimpleMailMessage[sendable.size()];
+        for (int i = 0; i < sendable.size(); i++) {
+            MailQueueRepository.QueuedMail mail = sendable.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(mail.toEmail());
+            message.setSubject(mail.subject());
+            message.setText(mail.body());
+            messages[i] = message;
+        }
+
+        // One send call = one SMTP connection for the whole batch
+        Map<Object, Exception> failures = Map.of();
+        Exception batchFailure = null;
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) {
+                batchFailure = e;
+            }
+        } catch (MailException e) {
+            // e.g. authentication or connection failure: nothing was sent
+            batchFailure = e;
+        }
+
+        Instant now = Instant.now();
+        List<Long> sent = new ArrayList<>();
+        List<MailQueueRepository.Attempt> retries = new ArrayList<>();
+        List<MailQueueRepository.Attempt> failed = new ArrayList<>();
+        for (int i = 0; i < sendable.size(); i++) {
+            MailQueueRepository.QueuedMail mail = sendable.get(i);
+            Exception error = batchFailure != null ? batchFailure : failures.get(messages[i]);
+            if (error == null) {
+                sent.add(mail.id());
+                deliveryLatency.record(Duration.between(mail.createdAt(), now));
+                continue;
+            }
+            int attempts = mail.attempts() + 1;
+            MailQueueRepository.Attempt attempt =
+                    new MailQueueRepository.Attempt(mail.id(), attempts, now.plus(backoff(attempts)), truncate(error.getMessage()));
+            if (attempts >= maxAttempts) {
+                failed.add(attempt);
+                logger.error("Giving up on email {} to {} after {} attempts: {}",
+                        mail.id(), mail.toEmail(), attempts, error.getMessage());
+            } else {
+                retries.add(attempt);
+            }
+        }
+
+        mailQueueRepository.deleteAll(sent);
+        mailQueueRepository.scheduleRetries(retries);
+        mailQueueRepository.markFailed(failed);
+        sentCounter.increment(sent.size());
+        retriedCounter.increment(retries.size());
+        failedCounter.increment(failed.size());
+        if (!retries.isEmpty() || !failed.isEmpty()) {
+            logger.warn("Mail batch: {} sent, {} to retry, {} failed", sent.size(), retries.size(), failed.size());
+        } else {
+            logger.debug("Mail batch: {} sent", sent.size());
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        // initial, 2x, 4x, ... capped at maxBackoff
+        long factor = 1L << Math.min(attempts - 1, 20);
+        Duration delay = initialBackoff.multipliedBy(factor);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void logInsteadOfSending(MailQueueRepository.QueuedMail mail) {
+        // Development mode: log the email instead of sending it
+        logger.warn("========================================");
+        logger.warn("EMAIL NOT CONFIGURED - DEVELOPMENT MODE");
+        logger.warn("========================================");
+        logger.warn("To: {}", mail.toEmail());
+        logger.warn("Subject: {}", mail.subject());
+        logger.warn("{}", mail.body());
+        logger.warn("========================================");
+        logger.warn("In production, configure MAIL_USERNAME and MAIL_PASSWORD");
+        logger.warn("========================================");
+    }
+
+    private void refreshGauges() {
+        try {
+            queueDepth.set(mailQueueRepository.countPending());
+            Instant oldest = mailQueueRepository.oldestPendingCreatedAt();
+            oldestAgeSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, Instant.now()).toSeconds()) : 0);
+        } catch (Exception e) {
+            logger.debug("Failed to refresh mail queue gauges: {}", e.getMessage());
+        }
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.mail.sent")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
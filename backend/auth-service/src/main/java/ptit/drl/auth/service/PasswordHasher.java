@@ -0,0 +1,166 @@
+package ptit.drl.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import ptit.drl.auth.exception.TooManyRequestsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs PasswordEncoder.encode / matches on the bounded passwordHashExecutor.
+ * When all hash threads are busy and the queue is full (or a task waits longer than
+ * security.password.timeout-ms) the request fails fast with TooManyRequestsException (429)
+ * instead of tying up request threads with BCrypt work.
+ * Metrics: auth.password.hash.duration{operation}, auth.password.hash.queue, auth.password.hash.rejected.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final String BUSY_MESSAGE = "Server is busy, please try again in a moment";
+
+    private static final long BULK_RETRY_MILLIS = 20;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Qualifier("passwordHashExecutor") ThreadPoolTaskExecutor executor,
+                          MeterRegistry meterRegistry,
+                          @Value("${security.password.timeout-ms:5000}") long timeoutMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.timeoutMillis = timeoutMillis;
+        this.encodeTimer = Timer.builder("auth.password.hash.duration")
+                .tag("operation", "encode")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash.duration")
+                .tag("operation", "matches")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hash.rejected")
+                .description("Hash requests rejected because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("Hash tasks waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hash a raw password
+     */
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Check a raw password against a stored hash
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Boolean matches = submit(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+        return Boolean.TRUE.equals(matches);
+    }
+
+    /**
+     * Hash many passwords in parallel (bulk provisioning).
+     * At most one task per hash thread is in flight, so the queue stays free for logins;
+     * when the pool is saturated this waits instead of rejecting.
+     * @return hashes in the same order as the input
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        int window = Math.max(1, executor.getMaxPoolSize());
+        for (int from = 0; from < rawPasswords.size(); from += window) {
+            List<Future<String>> futures = new ArrayList<>();
+            for (String rawPassword : rawPasswords.subList(from, Math.min(from + window, rawPasswords.size()))) {
+                futures.add(submitWhenFree(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword))));
+            }
+            for (Future<String> future : futures) {
+                hashes.add(await(future));
+            }
+        }
+        return hashes;
+    }
+
+    private <T> Future<T> submitWhenFree(Callable<T> task) {
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (TaskRejectedException e) {
+                try {
+                    Thread.sleep(BULK_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for password hash pool", interrupted);
+                }
+            }
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException(BUSY_MESSAGE, e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            logger.warn("Password hash waited more than {}ms, rejecting request", timeoutMillis);
+            throw new TooManyRequestsException(BUSY_MESSAGE, e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ptit.drl.auth.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ptit.drl.auth.repository.RefreshTokenRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issued refresh tokens (jti -> user, expiry), kept in memory for constant-time checks on
+ * /auth/refresh and written behind to refresh_tokens.
+ * Writes only record the latest pending change per token; a scheduled flush sends them as
+ * JDBC batches and a sweeper drops expired tokens from memory and the table. Tokens missing
+ * from memory (issued by another instance) fall back to one table lookup; a logout on another
+ * instance is seen here once the entry expires or the service restarts.
+ * Tokens issued before jti was added carry no id and are rejected.
+ * Rotation: a rotated token may be presented once more within the grace window (concurrent
+ * refresh from two tabs); any further use is treated as theft and revokes every refresh token
+ * of the user. Rotated tokens are kept in memory for jwt.refresh-store.reuse-detection-seconds
+ * (not in the table), so reuse is detected on the instance that rotated, within that window.
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    /**
+     * @param graceEnd end of the grace window once rotated, null while the token is current
+     * @param graceUsed whether the single reuse allowed in the grace window was spent
+     */
+    private record Entry(long userId, Instant expiresAt, Instant graceEnd, boolean graceUsed) {
+        Entry(long userId, Instant expiresAt) {
+            this(userId, expiresAt, null, false);
+        }
+
+        boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+
+        boolean isRotated() {
+            return graceEnd != null;
+        }
+
+        // Expiry written to the table: a rotated token is unusable elsewhere after the grace window
+        Instant storedExpiresAt() {
+            return isRotated() && graceEnd.isBefore(expiresAt) ? graceEnd : expiresAt;
+        }
+    }
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration rotationGrace;
+    private final Duration reuseDetection;
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+
+    // Pending write per token id: Entry = upsert, DELETED = delete
+    private final Map<String, Entry> pendingWrites = new ConcurrentHashMap<>();
+    private static final Entry DELETED = new Entry(-1, Instant.EPOCH);
+
+    public RefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                             @Value("${jwt.refresh-store.rotation-grace-seconds:30}") long rotationGraceSeconds,
+                             @Value("${jwt.refresh-store.reuse-detection-seconds:3600}") long reuseDetectionSeconds) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.rotationGrace = Duration.ofSeconds(rotationGraceSeconds);
+        this.reuseDetection = Duration.ofSeconds(Math.max(reuseDetectionSeconds, rotationGraceSeconds));
+    }
+
+    @PostConstruct
+    void load() {
+        refreshTokenRepository.forEachActive(Instant.now(),
+                row -> tokens.put(row.tokenId(), new Entry(row.userId(), row.expiresAt())));
+        logger.info("Loaded {} active refresh tokens", tokens.size());
+    }
+
+    /**
+     * Register a newly issued refresh token
+     */
+    public void register(String tokenId, Long userId, Instant expiresAt) {
+        Entry entry = new Entry(userId, expiresAt);
+        tokens.put(tokenId, entry);
+        pendingWrites.put(tokenId, entry);
+    }
+
+    /**
+     * Check a refresh token presented to /auth/refresh and rotate it out.
+     * A current token is accepted and retired; a rotated one is accepted once more within the
+     * grace window so concurrent refreshes (e.g. two browser tabs) do not log the user out.
+     * Any other use of a rotated token revokes all refresh tokens of the user.
+     * @param tokenId jti claim; tokens without one (issued before the store existed) are rejected
+     * @return true if the refresh may go ahead
+     */
+    public boolean rotate(String tokenId, Long userId) {
+        if (tokenId == null || userId == null) {
+            return false;
+        }
+        if (!tokens.containsKey(tokenId) && loadMissing(tokenId) == null) {
+            return false;
+        }
+        Instant now = Instant.now();
+        boolean[] accepted = {false};
+        boolean[] reused = {false};
+        Entry updated = tokens.computeIfPresent(tokenId, (id, entry) -> {
+            if (entry.userId() != userId || entry.isExpired(now)) {
+                return entry;
+            }
+            if (!entry.isRotated()) {
+                accepted[0] = true;
+                Instant keepUntil = now.plus(reuseDetection);
+                return new Entry(entry.userId(),
+                        entry.expiresAt().isAfter(keepUntil) ? keepUntil : entry.expiresAt(),
+                        now.plus(rotationGrace), false);
+            }
+            if (!entry.graceUsed() && entry.graceEnd().isAfter(now)) {
+                accepted[0] = true;
+                return new Entry(entry.userId(), entry.expiresAt(), entry.graceEnd(), true);
+            }
+            reused[0] = true;
+            return entry;
+        });
+
+        if (reused[0]) {
+            logger.warn("Rotated refresh token reused, revoking all refresh tokens of user {}", userId);
+            revokeAll(userId);
+            return false;
+        }
+        if (accepted[0]) {
+            pendingWrites.put(tokenId, updated);
+        }
+        return accepted[0];
+    }
+
+    /**
+     * Revoke a token immediately (logout)
+     */
+    public void revoke(String tokenId) {
+        if (tokenId == null) {
+            return;
+        }
+        tokens.remove(tokenId);
+        pendingWrites.put(tokenId, DELETED);
+    }
+
+    /**
+     * Revoke every refresh token of a user (token reuse); also deletes the rows of tokens
+     * issued by other instances
+     */
+    public void revokeAll(long userId) {
+        tokens.forEach((tokenId, entry) -> {
+            if (entry.userId() == userId) {
+                revoke(tokenId);
+            }
+        });
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Write pending changes to refresh_tokens in batches
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-store.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        Map<String, Entry> batch = new HashMap<>();
+        for (String tokenId : new ArrayList<>(pendingWrites.keySet())) {
+            Entry entry = pendingWrites.remove(tokenId);
+            if (entry != null) {
+                batch.put(tokenId, entry);
+            }
+        }
+
+        List<RefreshTokenRepository.Row> upserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        batch.forEach((tokenId, entry) -> {
+            if (entry == DELETED) {
+                deletes.add(tokenId);
+            } else {
+                upserts.add(new RefreshTokenRepository.Row(tokenId, entry.userId(), entry.storedExpiresAt()));
+            }
+        });
+
+        try {
+            refreshTokenRepository.upsertAll(upserts);
+            refreshTokenRepository.deleteAll(deletes);
+        } catch (Exception e) {
+            // Put the batch back unless a newer change for the same token arrived meanwhile
+            batch.forEach(pendingWrites::putIfAbsent);
+            logger.warn("Failed to flush {} refresh token changes, will retry: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop expired tokens from memory and from the table
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-store.sweep-interval-ms:600000}")
+    public void sweepExpired() {
+        Instant now = Instant.now();
+        int before = tokens.size();
+        tokens.values().removeIf(entry -> entry.isExpired(now));
+        int deleted = refreshTokenRepository.deleteExpired(now);
+        logger.debug("Refresh token sweep: {} removed from memory, {} rows deleted", before - tokens.size(), deleted);
+    }
+
+    private Entry loadMissing(String tokenId) {
+        if (pendingWrites.get(tokenId) == DELETED) {
+            // Revoked here, delete not flushed yet
+            return null;
+        }
+        return refreshTokenRepository.findById(tokenId)
+                .map(row -> {
+                    Entry entry = new Entry(row.userId(), row.expiresAt());
+                    tokens.putIfAbsent(tokenId, entry);
+                    return entry;
+                })
+                .orElse(null);
+    }
+}
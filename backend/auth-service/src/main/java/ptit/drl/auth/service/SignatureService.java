@@ -30,6 +30,9 @@ public class SignatureService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ClassUsersService classUsersService;
+    
     /**
      * Upload signature image file
      */
@@ -63,6 +66,7 @@ public class SignatureService {
         user.setSignatureUploadedAt(LocalDateTime.now());
         user.setSignatureHash(hash);
         userRepository.save(user);
+        classUsersService.invalidate(user.getClassCode());
         
         return mapToDTO(user);
     }
@@ -120,6 +124,7 @@ public class SignatureService {
         user.setSignatureUploadedAt(LocalDateTime.now());
         user.setSignatureHash(hash);
         userRepository.save(user);
+        classUsersService.invalidate(user.getClassCode());
         
         return mapToDTO(user);
     }
@@ -155,6 +160,7 @@ public class SignatureService {
         user.setSignatureUploadedAt(null);
         user.setSignatureHash(null);
         userRepository.save(user);
+        classUsersService.invalidate(user.getClassCode());
     }
     
     /**
@@ -0,0 +1,109 @@
+package ptit.drl.auth.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import ptit.drl.auth.client.StudentBatchLoader;
+import ptit.drl.auth.client.StudentServiceClient;
+import ptit.drl.auth.entity.User;
+import ptit.drl.auth.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps users.class_code (cached from student-service) fresh without putting
+ * student-service on the login / refresh path: callers read the stored value and,
+ * when it is older than student.profile-sync.ttl-hours, a refresh is queued on a small
+ * background pool. One refresh per user is in flight at a time.
+ */
+@Component
+public class StudentProfileSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentProfileSync.class);
+
+    private final StudentBatchLoader studentBatchLoader;
+    private final UserRepository userRepository;
+    private final ClassUsersService classUsersService;
+    private final Executor executor;
+    private final Duration ttl;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public StudentProfileSync(StudentBatchLoader studentBatchLoader,
+                              UserRepository userRepository,
+                              ClassUsersService classUsersService,
+                              @Qualifier("studentSyncExecutor") Executor executor,
+                              @Value("${student.profile-sync.ttl-hours:24}") long ttlHours) {
+        this.studentBatchLoader = studentBatchLoader;
+        this.userRepository = userRepository;
+        this.classUsersService = classUsersService;
+        this.executor = executor;
+        this.ttl = Duration.ofHours(ttlHours);
+    }
+
+    /**
+     * Queue a background refresh if the user's cached student profile is stale.
+     * Never blocks and never throws.
+     */
+    public void refreshIfStale(User user) {
+        String studentCode = user.getStudentCode();
+        if (studentCode == null || studentCode.isEmpty()) {
+            return;
+        }
+        LocalDateTime syncedAt = user.getStudentSyncedAt();
+        if (syncedAt != null && syncedAt.isAfter(LocalDateTime.now().minus(ttl))) {
+            return;
+        }
+
+        Long userId = user.getId();
+        String currentClassCode = user.getClassCode();
+        if (!inFlight.add(userId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh(userId, studentCode, currentClassCode);
+                } finally {
+                    inFlight.remove(userId);
+                }
+            });
+        } catch (TaskRejectedException | RejectedExecutionException e) {
+            inFlight.remove(userId);
+            logger.debug("Student profile refresh queue full, skipping user {}", userId);
+        }
+    }
+
+    private void refresh(Long userId, String studentCode, String currentClassCode) {
+        StudentServiceClient.StudentResponse response;
+        try {
+            response = studentBatchLoader.load(studentCode);
+        } catch (Exception e) {
+            // student-service unavailable: keep the stored value, retry on a later login
+            logger.warn("Failed to refresh student profile for user {}: {}", userId, e.getMessage());
+            return;
+        }
+
+        String classCode = currentClassCode;
+        if (response != null && response.isSuccess() && response.getData() != null
+                && response.getData().getClassCode() != null) {
+            classCode = response.getData().getClassCode();
+        }
+        userRepository.updateStudentProfile(userId, classCode, LocalDateTime.now());
+
+        if (!Objects.equals(classCode, currentClassCode)) {
+            logger.info("Class code of user {} changed from {} to {}", userId, currentClassCode, classCode);
+            classUsersService.invalidate(currentClassCode);
+            classUsersService.invalidate(classCode);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ptit.drl.auth.util;
+
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * Typed view of verified JWT claims, produced by JwtTokenProvider.parseAndVerify
+ * @param type "refresh" for refresh tokens, null for access tokens
+ * @param tokenId jti of refresh tokens (null for access tokens)
+ */
+public record JwtClaims(
+        Long userId,
+        String username,
+        Set<String> roles,
+        Set<String> permissions,
+        String type,
+        String tokenId,
+        Date expiration
+) {
+    
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+}
@@ -1,6 +1,8 @@
 package ptit.drl.auth.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,12 +10,12 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Utility class for JWT token generation and parsing
@@ -21,17 +23,24 @@ import java.util.stream.Collectors;
 @Component
 public class JwtTokenProvider {
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final Long accessTokenExpiration;
     
-    @Value("${jwt.access-token-expiration}")
-    private Long accessTokenExpiration;
+    private final Long refreshTokenExpiration;
     
-    @Value("${jwt.refresh-token-expiration}")
-    private Long refreshTokenExpiration;
+    // Built once; both are immutable and thread-safe
+    private final SecretKey signingKey;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser jwtParser;
+    
+    public JwtTokenProvider(@Value("${jwt.secret}") String jwtSecret,
+                            @Value("${jwt.access-token-expiration}") Long accessTokenExpiration,
+                            @Value("${jwt.refresh-token-expiration}") Long refreshTokenExpiration) {
+        this.accessTokenExpiration = accessTokenExpiration;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
     
     /**
@@ -48,110 +57,79 @@ public class JwtTokenProvider {
                 .claim("permissions", permissions)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
     /**
      * Generate refresh token
+     * @param tokenId jti, the key of the token in RefreshTokenStore
      */
-    public String generateRefreshToken(Long userId) {
+    public String generateRefreshToken(Long userId, String tokenId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshTokenExpiration * 1000);
         
         return Jwts.builder()
+                .id(tokenId)
                 .subject(String.valueOf(userId))
                 .claim("type", "refresh")
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
     /**
-     * Get user ID from token
-     */
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return Long.parseLong(claims.getSubject());
-    }
-    
-    /**
-     * Get username from token
+     * Verify signature and expiry once and return the typed claims
+     * @return claims view, or empty if the token is invalid or expired
      */
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.get("username", String.class);
+    public Optional<JwtClaims> parseAndVerify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            return Optional.of(new JwtClaims(
+                    Long.parseLong(claims.getSubject()),
+                    claims.get("username", String.class),
+                    toStringSet(claims.get("roles")),
+                    toStringSet(claims.get("permissions")),
+                    claims.get("type", String.class),
+                    claims.getId(),
+                    claims.getExpiration()));
+        } catch (JwtException | IllegalArgumentException e) {
+            // IllegalArgumentException also covers a non-numeric subject
+            return Optional.empty();
+        }
     }
     
     /**
-     * Get roles from token
+     * Get user ID from token
      */
-    @SuppressWarnings("unchecked")
-    public Set<String> getRolesFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        Object rolesObj = claims.get("roles");
-        if (rolesObj == null) {
-            return Collections.emptySet();
-        }
-        
-        if (rolesObj instanceof Set) {
-            return (Set<String>) rolesObj;
-        }
-        
-        // Handle case where roles might be a List
-        if (rolesObj instanceof List) {
-            return new HashSet<>((List<String>) rolesObj);
-        }
-        
-        return Collections.emptySet();
+    public Long getUserIdFromToken(String token) {
+        return parseAndVerify(token)
+                .map(JwtClaims::userId)
+                .orElseThrow(() -> new JwtException("Invalid or expired token"));
     }
     
     /**
      * Validate token
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return parseAndVerify(token).isPresent();
     }
     
-    /**
-     * Check if token is expired
-     */
-    public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            return claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            return true;
+    private static Set<String> toStringSet(Object value) {
+        if (!(value instanceof Collection<?> collection)) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (Object item : collection) {
+            if (item != null) {
+                result.add(item.toString());
+            }
         }
+        return Collections.unmodifiableSet(result);
     }
     
     public Long getAccessTokenExpiration() {
@@ -0,0 +1,95 @@
+package ptit.drl.auth.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * AES-GCM encryption of mail_queue.body, so generated passwords are never stored in clear text.
+ * Key: mail.queue.encryption-key (base64, 32 bytes); falls back to a key derived from jwt.secret.
+ * Stored format: "v1:" + base64(iv | ciphertext+tag). Bodies without the prefix (queued before
+ * encryption) are returned as they are.
+ */
+@Component
+public class MailBodyCipher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailBodyCipher.class);
+
+    private static final String PREFIX = "v1:";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    public MailBodyCipher(@Value("${mail.queue.encryption-key:}") String encryptionKey,
+                          @Value("${jwt.secret}") String jwtSecret) {
+        byte[] keyBytes;
+        if (StringUtils.hasText(encryptionKey)) {
+            keyBytes = Base64.getDecoder().decode(encryptionKey.trim());
+            if (keyBytes.length != 32) {
+                throw new IllegalStateException("mail.queue.encryption-key must be 32 bytes (base64)");
+            }
+        } else {
+            logger.info("mail.queue.encryption-key not set, deriving the mail queue key from jwt.secret");
+            keyBytes = sha256(("mail-queue:" + jwtSecret).getBytes(StandardCharsets.UTF_8));
+        }
+        this.key = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    public String encrypt(String plaintext) {
+        if (plaintext == null) {
+            return null;
+        }
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            return PREFIX + Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt mail body", e);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException when the body was encrypted with another key or was tampered with
+     */
+    public String decrypt(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) {
+            return stored;
+        }
+        try {
+            byte[] data = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, data, 0, IV_LENGTH));
+            return new String(cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to decrypt mail body", e);
+        }
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (GeneralSecurityException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- V16: Track when the cached student profile (class_code) was last refreshed from student-service
+-- Login, refresh and /auth/me read class_code from users only; stale rows are refreshed in the background.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS student_synced_at TIMESTAMP;
+
+COMMENT ON COLUMN users.student_synced_at IS 'Last time class_code was refreshed from student-service (NULL = never)';
@@ -0,0 +1,15 @@
+-- V17: Refresh token store (token id = JWT jti)
+-- Rows are written behind by RefreshTokenStore; a row exists while the token is usable.
+-- Logout deletes the row, rotation shortens expires_at to a small grace window.
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    token_id VARCHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens(user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires ON refresh_tokens(expires_at);
+
+COMMENT ON TABLE refresh_tokens IS 'Issued refresh tokens; loaded into memory at startup for constant-time revocation checks';
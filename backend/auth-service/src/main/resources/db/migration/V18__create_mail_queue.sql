@@ -0,0 +1,20 @@
+-- V18: Outgoing mail queue
+-- EmailService inserts rows (inside the caller's transaction); MailQueueSender claims due rows in
+-- batches, sends them over one SMTP connection and deletes them once sent. Failed sends are retried
+-- with exponential backoff; after the last attempt the row is kept as FAILED with its body cleared.
+
+CREATE TABLE IF NOT EXISTS mail_queue (
+    id BIGSERIAL PRIMARY KEY,
+    to_email VARCHAR(100) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, FAILED
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_mail_queue_pending ON mail_queue(next_attempt_at, id) WHERE status = 'PENDING';
+
+COMMENT ON TABLE mail_queue IS 'Outgoing emails waiting for MailQueueSender; sent rows are deleted';
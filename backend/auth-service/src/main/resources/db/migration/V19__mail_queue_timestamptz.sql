@@ -0,0 +1,11 @@
+-- V19: mail_queue timestamps as TIMESTAMPTZ
+-- The defaults (CURRENT_TIMESTAMP, database time zone) and the values MailQueueSender binds
+-- (java.time.Instant, JVM time zone) were compared as local timestamps, so rows became due early
+-- or late whenever the two time zones differ. With TIMESTAMPTZ both sides are absolute instants.
+-- Existing values are interpreted in the session time zone, as the defaults were written.
+
+ALTER TABLE mail_queue
+    ALTER COLUMN next_attempt_at TYPE TIMESTAMPTZ,
+    ALTER COLUMN created_at TYPE TIMESTAMPTZ;
+
+COMMENT ON COLUMN mail_queue.body IS 'AES-GCM encrypted by MailBodyCipher (v1: prefix); cleared when the row is marked FAILED';
@@ -0,0 +1,9 @@
+-- V20: refresh_tokens timestamps as TIMESTAMPTZ
+-- RefreshTokenRepository binds java.time.Instant (JVM time zone) while the created_at default
+-- uses the database time zone; as TIMESTAMP the expiry checks and the sweep were off by the
+-- difference between the two (same skew V19 fixed for mail_queue).
+-- Existing values are interpreted in the session time zone.
+
+ALTER TABLE refresh_tokens
+    ALTER COLUMN expires_at TYPE TIMESTAMPTZ,
+    ALTER COLUMN created_at TYPE TIMESTAMPTZ;
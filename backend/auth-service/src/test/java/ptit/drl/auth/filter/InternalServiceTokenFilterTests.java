@@ -0,0 +1,72 @@
+package ptit.drl.auth.filter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class InternalServiceTokenFilterTests {
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void matchingTokenAuthenticatesAsInternalService() throws Exception {
+		MockFilterChain chain = filter("s3cret", "s3cret");
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		assertNotNull(authentication);
+		assertEquals("ROLE_" + InternalServiceTokenFilter.ROLE,
+				authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).findFirst().orElse(null));
+		assertNotNull(chain.getRequest(), "request must continue down the chain");
+	}
+
+	@Test
+	void wrongTokenIsIgnored() throws Exception {
+		MockFilterChain chain = filter("s3cret", "guess");
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		assertNotNull(chain.getRequest());
+	}
+
+	@Test
+	void missingHeaderIsIgnored() throws Exception {
+		filter("s3cret", null);
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	@Test
+	void filterIsDisabledWithoutConfiguredToken() throws Exception {
+		filter("", "");
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+		filter("", "change-this-internal-service-token");
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	private static MockFilterChain filter(String configuredToken, String presentedToken) throws Exception {
+		InternalServiceTokenFilter filter = new InternalServiceTokenFilter();
+		ReflectionTestUtils.setField(filter, "serviceToken", configuredToken);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/users/ids");
+		if (presentedToken != null) {
+			request.addHeader(InternalServiceTokenFilter.HEADER, presentedToken);
+		}
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		return chain;
+	}
+
+}
@@ -0,0 +1,113 @@
+package ptit.drl.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import ptit.drl.auth.client.StudentServiceClient;
+import ptit.drl.auth.dto.BulkImportStatus;
+import ptit.drl.auth.repository.UserBulkRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkUserImportServiceTests {
+
+	private static final String DOMAIN = "student.test";
+
+	private final StudentServiceClient studentServiceClient = mock(StudentServiceClient.class);
+	private final UserBulkRepository userBulkRepository = mock(UserBulkRepository.class);
+	private final PasswordHasher passwordHasher = mock(PasswordHasher.class);
+	private final EmailService emailService = mock(EmailService.class);
+
+	private final BulkUserImportService service = new BulkUserImportService(
+			studentServiceClient, userBulkRepository, passwordHasher, emailService,
+			mock(ClassUsersService.class), mock(PlatformTransactionManager.class),
+			Runnable::run, new SimpleMeterRegistry(), 500, 20000, DOMAIN);
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void reportsCreatedUpdatedConflictingAndMissingCodesSeparately() {
+		// N001 has an account, N002 is new, N003 was created concurrently (insert conflict), N004 is unknown
+		when(studentServiceClient.getStudentsByCodes(any()))
+				.thenReturn(students(student("N001"), student("N002"), student("N003")));
+		when(userBulkRepository.findExisting(anyCollection(), anyCollection()))
+				.thenReturn(List.of(new UserBulkRepository.ExistingUser("n001", "n001@" + DOMAIN, "D21CQCN01")));
+		when(passwordHasher.encodeAll(anyList()))
+				.thenAnswer(invocation -> new ArrayList<>(Collections.nCopies(
+						invocation.<List<String>>getArgument(0).size(), "hash")));
+		when(userBulkRepository.insertUsers(anyList(), any())).thenAnswer(invocation -> {
+			List<UserBulkRepository.UserRow> rows = invocation.getArgument(0);
+			int[] counts = new int[rows.size()];
+			for (int i = 0; i < rows.size(); i++) {
+				counts[i] = rows.get(i).username().equals("n003") ? 0 : 1;
+			}
+			return counts;
+		});
+
+		BulkImportStatus status = importCodes(List.of("n001", "N002", "n003", "N004", " n002 "));
+
+		assertEquals("COMPLETED", status.getStatus());
+		assertEquals(4, status.getTotal());
+		assertEquals(4, status.getProcessed());
+		assertEquals(1, status.getCreated());
+		assertEquals(1, status.getUpdated());
+		assertEquals(1, status.getSkipped());
+		assertEquals(1, status.getNotFound());
+		assertEquals(List.of("N004"), status.getNotFoundCodes());
+		assertEquals(0, status.getFailed());
+		assertEquals(1, status.getEmailsQueued());
+
+		ArgumentCaptor<List<EmailService.PasswordEmail>> mails = ArgumentCaptor.forClass(List.class);
+		verify(emailService).sendPasswordEmails(mails.capture());
+		assertEquals(1, mails.getValue().size());
+		assertEquals("n002@" + DOMAIN, mails.getValue().get(0).toEmail());
+	}
+
+	@Test
+	void studentServiceFailureCountsChunkAsFailedNotMissing() {
+		StudentServiceClient.StudentListResponse failure = new StudentServiceClient.StudentListResponse();
+		failure.setSuccess(false);
+		failure.setMessage("unavailable");
+		when(studentServiceClient.getStudentsByCodes(any())).thenReturn(failure);
+
+		BulkImportStatus status = importCodes(List.of("N001", "N002"));
+
+		assertEquals("COMPLETED", status.getStatus());
+		assertEquals(2, status.getFailed());
+		assertEquals(0, status.getNotFound());
+		assertEquals(0, status.getCreated());
+		verify(userBulkRepository, never()).insertUsers(anyList(), any());
+	}
+
+	private BulkImportStatus importCodes(List<String> codes) {
+		String jobId = service.start(codes, true).getJobId();
+		return service.getStatus(jobId);
+	}
+
+	private static StudentServiceClient.StudentListResponse students(StudentServiceClient.StudentDTO... students) {
+		StudentServiceClient.StudentListResponse response = new StudentServiceClient.StudentListResponse();
+		response.setSuccess(true);
+		response.setData(List.of(students));
+		return response;
+	}
+
+	private static StudentServiceClient.StudentDTO student(String code) {
+		StudentServiceClient.StudentDTO student = new StudentServiceClient.StudentDTO();
+		student.setStudentCode(code);
+		student.setFullName("Student " + code);
+		student.setClassCode("D21CQCN01");
+		return student;
+	}
+
+}
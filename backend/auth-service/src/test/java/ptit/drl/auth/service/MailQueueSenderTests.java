@@ -0,0 +1,211 @@
+package ptit.drl.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+import ptit.drl.auth.repository.MailQueueRepository;
+import ptit.drl.auth.util.MailBodyCipher;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MailQueueSenderTests {
+
+	private static final long INITIAL_BACKOFF_MS = 1000;
+	private static final long MAX_BACKOFF_MS = 5000;
+	private static final int MAX_ATTEMPTS = 5;
+
+	private final MailQueueRepository repository = mock(MailQueueRepository.class);
+	private final MailBodyCipher cipher = new MailBodyCipher("", "test-secret");
+	private final StubMailSender mailSender = new StubMailSender();
+	private MailQueueSender sender;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		ObjectProvider<JavaMailSender> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable()).thenReturn(mailSender);
+		sender = new MailQueueSender(repository, cipher, provider, new SimpleMeterRegistry(),
+				"noreply@test", "smtp-user", 10, MAX_ATTEMPTS, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS, 60000);
+	}
+
+	@Test
+	void sendsDecryptedBodiesAndDeletesSentRows() {
+		queue(mail(1, 0, cipher.encrypt("Mật khẩu: abc123")));
+
+		sender.drain();
+
+		assertEquals(1, mailSender.sent.size());
+		assertEquals("Mật khẩu: abc123", mailSender.sent.get(0).getText());
+		verify(repository).deleteAll(List.of(1L));
+		assertTrue(captureRetries().isEmpty());
+	}
+
+	@Test
+	void connectionFailureRetriesWithExponentialBackoffThenGivesUp() {
+		mailSender.failure = new MailAuthenticationException("535 authentication failed");
+		queue(mail(1, 0, "a"), mail(2, 3, "b"), mail(3, MAX_ATTEMPTS - 1, "c"));
+
+		Instant before = Instant.now();
+		sender.drain();
+		Instant after = Instant.now();
+
+		List<MailQueueRepository.Attempt> retries = captureRetries();
+		assertEquals(2, retries.size());
+		assertAttempt(retries.get(0), 1, 1, before, after, Duration.ofMillis(INITIAL_BACKOFF_MS));
+		// 4th attempt: 1s * 2^3 = 8s, capped at 5s
+		assertAttempt(retries.get(1), 2, 4, before, after, Duration.ofMillis(MAX_BACKOFF_MS));
+
+		List<MailQueueRepository.Attempt> failed = captureFailed();
+		assertEquals(1, failed.size());
+		assertEquals(3, failed.get(0).id());
+		assertEquals(MAX_ATTEMPTS, failed.get(0).attempts());
+		assertTrue(failed.get(0).error().contains("535"));
+	}
+
+	@Test
+	void partialFailureRetriesOnlyRejectedRecipients() {
+		mailSender.rejectTo = "user2@test";
+		queue(mail(1, 0, "a"), mail(2, 0, "b"));
+
+		sender.drain();
+
+		verify(repository).deleteAll(List.of(1L));
+		List<MailQueueRepository.Attempt> retries = captureRetries();
+		assertEquals(1, retries.size());
+		assertEquals(2, retries.get(0).id());
+		assertEquals(1, retries.get(0).attempts());
+	}
+
+	@Test
+	void undecryptableBodyIsMarkedFailedWithoutSending() {
+		String foreign = new MailBodyCipher("", "another-secret").encrypt("x");
+		queue(mail(1, 0, foreign));
+
+		sender.drain();
+
+		assertTrue(mailSender.sent.isEmpty());
+		List<MailQueueRepository.Attempt> failed = captureFailed();
+		assertEquals(1, failed.size());
+		assertEquals(1, failed.get(0).id());
+	}
+
+	private void queue(MailQueueRepository.QueuedMail... mails) {
+		when(repository.claimDue(any(), any(), anyInt())).thenReturn(List.of(mails), List.of());
+	}
+
+	private static MailQueueRepository.QueuedMail mail(long id, int attempts, String body) {
+		return new MailQueueRepository.QueuedMail(id, "user" + id + "@test", "Subject", body, attempts,
+				Instant.now().minusSeconds(5));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<MailQueueRepository.Attempt> captureRetries() {
+		ArgumentCaptor<List<MailQueueRepository.Attempt>> captor = ArgumentCaptor.forClass(List.class);
+		verify(repository).scheduleRetries(captor.capture());
+		return captor.getValue();
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<MailQueueRepository.Attempt> captureFailed() {
+		ArgumentCaptor<List<MailQueueRepository.Attempt>> captor = ArgumentCaptor.forClass(List.class);
+		verify(repository, atLeastOnce()).markFailed(captor.capture());
+		return captor.getAllValues().stream().flatMap(List::stream).toList();
+	}
+
+	private static void assertAttempt(MailQueueRepository.Attempt attempt, long id, int attempts,
+									  Instant before, Instant after, Duration backoff) {
+		assertEquals(id, attempt.id());
+		assertEquals(attempts, attempt.attempts());
+		assertTrue(!attempt.nextAttemptAt().isBefore(before.plus(backoff))
+				&& !attempt.nextAttemptAt().isAfter(after.plus(backoff)),
+				"next attempt of email " + id + " should be " + backoff + " later");
+	}
+
+	/**
+	 * In-process SMTP stand-in: records messages, fails the whole batch or single recipients
+	 */
+	private static final class StubMailSender implements JavaMailSender {
+
+		private final List<SimpleMailMessage> sent = new ArrayList<>();
+		private RuntimeException failure;
+		private String rejectTo;
+
+		@Override
+		public void send(SimpleMailMessage... messages) {
+			if (failure != null) {
+				throw failure;
+			}
+			Map<Object, Exception> rejected = new LinkedHashMap<>();
+			for (SimpleMailMessage message : messages) {
+				if (message.getTo() != null && Arrays.asList(message.getTo()).contains(rejectTo)) {
+					rejected.put(message, new IllegalStateException("550 mailbox unavailable"));
+				} else {
+					sent.add(message);
+				}
+			}
+			if (!rejected.isEmpty()) {
+				throw new MailSendException(rejected);
+			}
+		}
+
+		@Override
+		public void send(SimpleMailMessage message) {
+			send(new SimpleMailMessage[] {message});
+		}
+
+		@Override
+		public MimeMessage createMimeMessage() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public MimeMessage createMimeMessage(InputStream contentStream) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void send(MimeMessage mimeMessage) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void send(MimeMessage... mimeMessages) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void send(MimeMessagePreparator mimeMessagePreparator) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void send(MimeMessagePreparator... mimeMessagePreparators) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
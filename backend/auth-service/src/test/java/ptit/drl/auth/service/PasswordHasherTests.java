@@ -0,0 +1,91 @@
+package ptit.drl.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import ptit.drl.auth.dto.ApiResponse;
+import ptit.drl.auth.exception.GlobalExceptionHandler;
+import ptit.drl.auth.exception.TooManyRequestsException;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private ThreadPoolTaskExecutor executor;
+
+	@AfterEach
+	void shutdown() {
+		release.countDown();
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void encodesAndMatches() {
+		PasswordHasher hasher = hasher(1, 4, 5000);
+
+		String hash = hasher.encode("secret");
+
+		assertTrue(hasher.matches("secret", hash));
+		assertEquals(2, hasher.encodeAll(List.of("a", "b")).size());
+	}
+
+	@Test
+	void rejectsWith429WhenPoolAndQueueAreFull() throws Exception {
+		PasswordHasher hasher = hasher(1, 0, 5000);
+		occupyHashThread();
+
+		TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+				() -> hasher.matches("secret", "$2a$04$invalidinvalidinvalidinvalidinvalidinvalidinvalidinva"));
+
+		ResponseEntity<ApiResponse<Void>> response = new GlobalExceptionHandler().handleTooManyRequestsException(ex);
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+		assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+		assertEquals(1.0, meterRegistry.get("auth.password.hash.rejected").counter().count());
+	}
+
+	@Test
+	void rejectsWith429WhenQueuedTaskWaitsTooLong() throws Exception {
+		PasswordHasher hasher = hasher(1, 1, 50);
+		occupyHashThread();
+
+		assertThrows(TooManyRequestsException.class, () -> hasher.encode("secret"));
+		assertEquals(1.0, meterRegistry.get("auth.password.hash.rejected").counter().count());
+	}
+
+	private PasswordHasher hasher(int threads, int queueCapacity, long timeoutMillis) {
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(threads);
+		executor.setMaxPoolSize(threads);
+		executor.setQueueCapacity(queueCapacity);
+		executor.initialize();
+		return new PasswordHasher(new BCryptPasswordEncoder(4), executor, meterRegistry, timeoutMillis);
+	}
+
+	private void occupyHashThread() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+	}
+
+}
@@ -0,0 +1,100 @@
+package ptit.drl.auth.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ptit.drl.auth.repository.RefreshTokenRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class RefreshTokenStoreTests {
+
+	private static final long USER_ID = 7L;
+
+	private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+	private final Instant expiresAt = Instant.now().plus(Duration.ofDays(1));
+
+	@Test
+	void rotatedTokenIsAcceptedOnceMoreInGraceWindow() {
+		RefreshTokenStore store = new RefreshTokenStore(repository, 30, 3600);
+		store.register("a", USER_ID, expiresAt);
+
+		assertTrue(store.rotate("a", USER_ID));
+		assertTrue(store.rotate("a", USER_ID));
+		verify(repository, never()).deleteByUserId(anyLong());
+	}
+
+	@Test
+	void furtherReuseRevokesAllTokensOfUser() {
+		RefreshTokenStore store = new RefreshTokenStore(repository, 30, 3600);
+		store.register("a", USER_ID, expiresAt);
+		store.register("b", USER_ID, expiresAt);
+		store.register("other-user", USER_ID + 1, expiresAt);
+
+		assertTrue(store.rotate("a", USER_ID));
+		assertTrue(store.rotate("a", USER_ID));
+		assertFalse(store.rotate("a", USER_ID));
+
+		verify(repository).deleteByUserId(USER_ID);
+		assertFalse(store.rotate("b", USER_ID), "sibling token must be revoked");
+		assertTrue(store.rotate("other-user", USER_ID + 1), "other users are not affected");
+	}
+
+	@Test
+	void reuseAfterGraceWindowRevokesAllTokensOfUser() {
+		RefreshTokenStore store = new RefreshTokenStore(repository, 0, 3600);
+		store.register("a", USER_ID, expiresAt);
+
+		assertTrue(store.rotate("a", USER_ID));
+		assertFalse(store.rotate("a", USER_ID));
+
+		verify(repository).deleteByUserId(USER_ID);
+	}
+
+	@Test
+	void rejectsUnknownForeignAndMissingTokens() {
+		RefreshTokenStore store = new RefreshTokenStore(repository, 30, 3600);
+		store.register("a", USER_ID, expiresAt);
+
+		assertFalse(store.rotate(null, USER_ID));
+		assertFalse(store.rotate("unknown", USER_ID));
+		assertFalse(store.rotate("a", USER_ID + 1));
+		assertTrue(store.rotate("a", USER_ID), "a rejected foreign use does not consume the token");
+		verify(repository, never()).deleteByUserId(anyLong());
+	}
+
+	@Test
+	void revokedTokenIsRejected() {
+		RefreshTokenStore store = new RefreshTokenStore(repository, 30, 3600);
+		store.register("a", USER_ID, expiresAt);
+
+		store.revoke("a");
+
+		assertFalse(store.rotate("a", USER_ID));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushStoresGraceExpiryOfRotatedToken() {
+		RefreshTokenStore store = new RefreshTokenStore(repository, 30, 3600);
+		store.register("a", USER_ID, expiresAt);
+		store.rotate("a", USER_ID);
+
+		store.flush();
+
+		ArgumentCaptor<List<RefreshTokenRepository.Row>> rows = ArgumentCaptor.forClass(List.class);
+		verify(repository).upsertAll(rows.capture());
+		assertEquals(1, rows.getValue().size());
+		assertTrue(rows.getValue().get(0).expiresAt().isBefore(Instant.now().plusSeconds(31)));
+	}
+
+}
@@ -0,0 +1,93 @@
+package ptit.drl.auth.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import ptit.drl.auth.client.StudentBatchLoader;
+import ptit.drl.auth.client.StudentServiceClient;
+import ptit.drl.auth.entity.User;
+import ptit.drl.auth.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentProfileSyncTests {
+
+	private final StudentBatchLoader studentBatchLoader = mock(StudentBatchLoader.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final ClassUsersService classUsersService = mock(ClassUsersService.class);
+
+	@Test
+	void freshProfileIsNotRefreshed() {
+		StudentProfileSync sync = sync(Runnable::run);
+
+		sync.refreshIfStale(user("D21CQCN01", LocalDateTime.now().minusHours(1)));
+
+		verify(studentBatchLoader, never()).load(anyString());
+	}
+
+	@Test
+	void staleProfileIsRefreshedAndClassCachesInvalidated() {
+		when(studentBatchLoader.load("N21DCCN001")).thenReturn(response("D21CQCN02"));
+		StudentProfileSync sync = sync(Runnable::run);
+
+		sync.refreshIfStale(user("D21CQCN01", LocalDateTime.now().minusDays(2)));
+
+		verify(userRepository).updateStudentProfile(eq(5L), eq("D21CQCN02"), any(LocalDateTime.class));
+		verify(classUsersService).invalidate("D21CQCN01");
+		verify(classUsersService).invalidate("D21CQCN02");
+	}
+
+	@Test
+	void studentServiceFailureKeepsStoredClassCode() {
+		when(studentBatchLoader.load(anyString())).thenThrow(new IllegalStateException("student-service down"));
+		StudentProfileSync sync = sync(Runnable::run);
+
+		sync.refreshIfStale(user("D21CQCN01", null));
+
+		verify(userRepository, never()).updateStudentProfile(anyLong(), any(), any());
+	}
+
+	@Test
+	void fullRefreshQueueNeverFailsTheCaller() {
+		StudentProfileSync sync = sync(task -> {
+			throw new TaskRejectedException("queue full");
+		});
+
+		sync.refreshIfStale(user("D21CQCN01", null));
+
+		verify(studentBatchLoader, never()).load(anyString());
+	}
+
+	private StudentProfileSync sync(Executor executor) {
+		return new StudentProfileSync(studentBatchLoader, userRepository, classUsersService, executor, 24);
+	}
+
+	private static User user(String classCode, LocalDateTime syncedAt) {
+		User user = new User();
+		user.setId(5L);
+		user.setStudentCode("N21DCCN001");
+		user.setClassCode(classCode);
+		user.setStudentSyncedAt(syncedAt);
+		return user;
+	}
+
+	private static StudentServiceClient.StudentResponse response(String classCode) {
+		StudentServiceClient.StudentDTO student = new StudentServiceClient.StudentDTO();
+		student.setStudentCode("N21DCCN001");
+		student.setClassCode(classCode);
+		StudentServiceClient.StudentResponse response = new StudentServiceClient.StudentResponse();
+		response.setSuccess(true);
+		response.setData(student);
+		return response;
+	}
+
+}
@@ -5,19 +5,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import ptit.drl.evaluation.client.AuthServiceClient;
+import ptit.drl.evaluation.client.StudentProfileCache;
 import ptit.drl.evaluation.config.SecurityConfig;
 import ptit.drl.evaluation.dto.*;
+import ptit.drl.evaluation.service.EvaluationScopeBackfill;
 import ptit.drl.evaluation.service.EvaluationService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -28,35 +33,117 @@ import java.util.stream.Collectors;
 @RequestMapping("/evaluations")
 public class EvaluationController {
     
+    private static final int MAX_PAGE_SIZE = 1000; // List rows are light (no details); reports page asks for 1000
+    
+    private static final List<String> REVIEWER_AUTHORITIES = List.of(
+        "ROLE_CLASS_MONITOR", "ROLE_ADVISOR",
+        "ROLE_FACULTY_INSTRUCTOR", "ROLE_INSTITUTE_COUNCIL", "ROLE_ADMIN");
+    
+    // Reviewers who may list any class (faculty instructors have no stored faculty to clamp to)
+    private static final List<String> UNSCOPED_AUTHORITIES = List.of(
+        "ROLE_FACULTY_INSTRUCTOR", "ROLE_INSTITUTE_COUNCIL", "ROLE_ADMIN");
+    
     @Autowired
     private EvaluationService evaluationService;
     
+    @Autowired
+    private StudentProfileCache studentProfileCache;
+    
+    @Autowired(required = false)
+    private AuthServiceClient authServiceClient;
+    
+    @Autowired
+    private EvaluationScopeBackfill evaluationScopeBackfill;
+    
     /**
-     * GET /evaluations - Get all evaluations (with filters and pagination)
-     * Query params: studentCode, semester, status, page, size
+     * GET /evaluations - Get evaluations (database-side filters and pagination)
+     * Query params: studentCode, studentCodes, classCode, facultyCode, status (repeatable or comma-separated),
+     *               semester, academicYear, rubricId, page, size
+     * List rows do not include details/history - use GET /evaluations/{id} for those
+     * A STUDENT only gets their own evaluations; CLASS_MONITOR / ADVISOR must pass classCode of
+     * their own class; faculty instructors, the institute council and admins can list any scope
      */
     @GetMapping
+    @PreAuthorize("hasAnyRole('STUDENT', 'CLASS_MONITOR', 'ADVISOR', " +
+                  "'FACULTY_INSTRUCTOR', 'INSTITUTE_COUNCIL', 'ADMIN')")
     public ResponseEntity<ApiResponse<Page<EvaluationDTO>>> getEvaluations(
             @RequestParam(required = false) String studentCode,
+            @RequestParam(required = false) List<String> studentCodes,
+            @RequestParam(required = false) String classCode,
+            @RequestParam(required = false) String facultyCode,
+            @RequestParam(required = false) List<String> status,
             @RequestParam(required = false) String semester,
+            @RequestParam(required = false) String academicYear,
+            @RequestParam(required = false) Long rubricId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
-        Pageable pageable = PageRequest.of(page, size);
-        
-        // For now, only support filter by student
-        // TODO: Add more filters later
-        if (studentCode != null) {
-            List<EvaluationDTO> evaluations = evaluationService.getEvaluationsByStudent(
-                studentCode, semester);
-            return ResponseEntity.ok(
-                ApiResponse.success("Evaluations retrieved successfully", 
-                    convertListToPage(evaluations, pageable)));
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!isReviewer(authentication)) {
+            // Student accounts use the lowercase student code as username
+            studentCode = authentication.getName().toUpperCase(Locale.ROOT);
+            studentCodes = null;
+        } else if (!hasAnyAuthority(authentication, UNSCOPED_AUTHORITIES)) {
+            // Class monitors and advisors only see their own class
+            if (!belongsToClass(authentication, classCode)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("classCode must be your own class"));
+            }
+            facultyCode = null;
         }
         
-        // TODO: Get all evaluations with pagination
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+            Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+        Page<EvaluationDTO> evaluations = evaluationService.searchEvaluations(
+            studentCode, studentCodes, classCode, facultyCode, status, semester, academicYear, rubricId, pageable);
+        
         return ResponseEntity.ok(
-            ApiResponse.success("Feature not implemented yet", Page.empty(pageable)));
+            ApiResponse.success("Evaluations retrieved successfully", evaluations));
+    }
+    
+    /**
+     * Scoped queues filter on the evaluation's class / faculty: fill rows created before V18 first
+     * (outside the read transaction, it may call student-service)
+     */
+    private void resolvePendingScope(String classCode, String facultyCode) {
+        if ((classCode != null && !classCode.isBlank()) || (facultyCode != null && !facultyCode.isBlank())) {
+            evaluationScopeBackfill.resolvePending();
+        }
+    }
+    
+    /**
+     * Caller has a reviewer or admin role (not only STUDENT)
+     */
+    private boolean isReviewer(Authentication authentication) {
+        return hasAnyAuthority(authentication, REVIEWER_AUTHORITIES);
+    }
+    
+    private boolean hasAnyAuthority(Authentication authentication, List<String> authorities) {
+        return authentication != null && authentication.getAuthorities().stream()
+                .map(auth -> auth.getAuthority())
+                .anyMatch(authorities::contains);
+    }
+    
+    /**
+     * Caller is a CLASS_MONITOR or ADVISOR of the class (users.class_code in auth-service)
+     */
+    private boolean belongsToClass(Authentication authentication, String classCode) {
+        if (classCode == null || classCode.isBlank() || authServiceClient == null
+                || !(authentication.getDetails() instanceof Long userId)) {
+            return false;
+        }
+        for (String role : List.of("CLASS_MONITOR", "ADVISOR")) {
+            if (!hasAnyAuthority(authentication, List.of("ROLE_" + role))) {
+                continue;
+            }
+            AuthServiceClient.UserIdsResponse response =
+                authServiceClient.getUserIdsByRoleAndClassCode(role, classCode);
+            if (response != null && response.isSuccess() && response.getData() != null
+                    && response.getData().contains(userId)) {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
@@ -304,17 +391,43 @@ public class EvaluationController {
     
     /**
      * GET /evaluations/pending - Get pending evaluations for approval
-     * Query params: level (CLASS, FACULTY), page, size
+     * Query params: level (CLASS, FACULTY), classCode, facultyCode, page, size
+     * classCode/facultyCode restrict the queue to one class/faculty (reviewer's scope)
      */
     @GetMapping("/pending")
     public ResponseEntity<ApiResponse<Page<EvaluationDTO>>> getPendingEvaluations(
             @RequestParam(required = false) String level,
+            @RequestParam(required = false) String classCode,
+            @RequestParam(required = false) String facultyCode,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         
+        resolvePendingScope(classCode, facultyCode);
         Pageable pageable = PageRequest.of(page, size);
         Page<EvaluationDTO> evaluations = evaluationService.getPendingEvaluations(
-            level, pageable);
+            level, classCode, facultyCode, pageable);
+        
+        return ResponseEntity.ok(
+            ApiResponse.success("Pending evaluations retrieved", evaluations));
+    }
+    
+    /**
+     * GET /evaluations/pending/cursor - Pending evaluations with keyset pagination
+     * Query params: level (required: CLASS, ADVISOR, FACULTY), classCode, facultyCode,
+     *               cursor (nextCursor of the previous page), size
+     * Ordered by submittedAt, id; deep pages cost the same as the first one
+     */
+    @GetMapping("/pending/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<EvaluationDTO>>> getPendingEvaluationsByCursor(
+            @RequestParam String level,
+            @RequestParam(required = false) String classCode,
+            @RequestParam(required = false) String facultyCode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        resolvePendingScope(classCode, facultyCode);
+        CursorPage<EvaluationDTO> evaluations = evaluationService.getPendingEvaluationsByCursor(
+            level, classCode, facultyCode, cursor, Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
         
         return ResponseEntity.ok(
             ApiResponse.success("Pending evaluations retrieved", evaluations));
@@ -358,6 +471,29 @@ public class EvaluationController {
             ApiResponse.success("Evaluation deleted successfully", null));
     }
     
+    /**
+     * DELETE /evaluations/student-cache/{studentCode} - Invalidate cached student profile
+     * Called after a student's profile (name, class, faculty) changes in student-service
+     */
+    @DeleteMapping("/student-cache/{studentCode}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> invalidateStudentCache(@PathVariable String studentCode) {
+        studentProfileCache.invalidate(studentCode);
+        return ResponseEntity.ok(
+            ApiResponse.success("Student cache invalidated", null));
+    }
+    
+    /**
+     * DELETE /evaluations/student-cache - Invalidate all cached student profiles
+     */
+    @DeleteMapping("/student-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> invalidateAllStudentCache() {
+        studentProfileCache.invalidateAll();
+        return ResponseEntity.ok(
+            ApiResponse.success("Student cache invalidated", null));
+    }
+    
     /**
      * Helper method to convert list to page (temporary)
      */
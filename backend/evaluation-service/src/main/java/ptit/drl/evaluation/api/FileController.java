@@ -4,23 +4,27 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import ptit.drl.evaluation.dto.ApiResponse;
 import ptit.drl.evaluation.dto.FileUploadResponse;
 import ptit.drl.evaluation.entity.EvidenceFile;
+import ptit.drl.evaluation.exception.ResourceNotFoundException;
+import ptit.drl.evaluation.service.EvidenceDerivativeService;
 import ptit.drl.evaluation.service.FileService;
 
 import java.io.IOException;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +36,22 @@ public class FileController {
     
     private static final Logger logger = LoggerFactory.getLogger(FileController.class);
     
+    // Evidence is per-user data: cache in the browser only, never in shared proxies
+    private static final CacheControl EVIDENCE_CACHE_CONTROL =
+        CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+    
+    // ?size= answered with the original because the derivative is not generated yet:
+    // the same URL serves the thumbnail/preview later, so the browser must revalidate
+    private static final CacheControl PENDING_DERIVATIVE_CACHE_CONTROL =
+        CacheControl.noCache().cachePrivate();
+    
+    // Tomcat sendfile request attributes (same ones DefaultServlet uses)
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    
     @Autowired
     private FileService fileService;
     
@@ -106,71 +126,91 @@ public class FileController {
     
     /**
      * GET /files/evidence/{evaluationId}/{criteriaId}/{filename} - Download file
+     * Stored names are immutable UUIDs, so responses carry a strong ETag (content SHA-256),
+     * Last-Modified and a long-lived private immutable Cache-Control; If-None-Match /
+     * If-Modified-Since get 304. Range requests get 206 (handled by Spring for Resource bodies);
+     * full downloads of larger files use Tomcat sendfile (FileChannel.transferTo, zero-copy).
+     * ?size=thumb|preview serves the generated JPEG of an image (the original until it exists,
+     * with no-cache instead of immutable so the derivative replaces it once generated).
      */
     @GetMapping("/evidence/{evaluationId}/{criteriaId}/{filename}")
     public ResponseEntity<Resource> downloadFile(
             @PathVariable Long evaluationId,
             @PathVariable Long criteriaId,
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @RequestParam(defaultValue = "original") String size,
+            HttpServletRequest request,
+            ServletWebRequest webRequest) {
         
-        logger.info("Download file request: evaluationId={}, criteriaId={}, filename={}", 
+        logger.debug("Download file request: evaluationId={}, criteriaId={}, filename={}", 
                 evaluationId, criteriaId, filename);
         
         try {
-            EvidenceFile file = fileService.getFileByStoredFileName(filename);
-            logger.info("File found in DB: id={}, evaluationId={}, criteriaId={}, filePath={}", 
-                    file.getId(), file.getEvaluationId(), file.getCriteriaId(), file.getFilePath());
+            FileService.StoredFile original = fileService.getStoredFile(filename);
             
             // Verify the file belongs to the specified criteria
             // Note: evaluationId in URL might be 0 (placeholder) even if file has evaluationId set
             // We allow access if criteriaId matches, regardless of evaluationId mismatch
             // This handles cases where files were linked to evaluations after upload
-            if (!file.getCriteriaId().equals(criteriaId)) {
+            if (!original.criteriaId().equals(criteriaId)) {
                 logger.warn("File access denied: criteriaId mismatch. File criteriaId={}, request criteriaId={}", 
-                        file.getCriteriaId(), criteriaId);
+                        original.criteriaId(), criteriaId);
                 return ResponseEntity.notFound().build();
             }
             
-            // Log evaluationId info for debugging (but don't block access)
-            Long fileEvaluationId = file.getEvaluationId();
-            boolean evaluationMatches = (fileEvaluationId == null && evaluationId == 0) ||
-                                       (fileEvaluationId != null && fileEvaluationId.equals(evaluationId));
-            logger.debug("Evaluation info: fileEvaluationId={}, requestEvaluationId={}, matches={}", 
-                    fileEvaluationId, evaluationId, evaluationMatches);
-            
-            Path filePath = fileService.getFilePath(file);
-            logger.debug("Resolved file path: {}", filePath);
-            
-            Resource resource = new UrlResource(filePath.toUri());
+            EvidenceDerivativeService.Variant variant = EvidenceDerivativeService.Variant.fromParam(size);
+            FileService.StoredFile file = fileService.resolveVariant(original, variant);
+            boolean derivativePending = variant != EvidenceDerivativeService.Variant.ORIGINAL
+                    && file == original
+                    && original.fileType() != null && original.fileType().startsWith("image/");
             
-            if (!resource.exists()) {
-                logger.error("File not found on disk: {}", filePath);
-                return ResponseEntity.notFound().build();
-            }
-            
-            if (!resource.isReadable()) {
-                logger.error("File not readable: {}", filePath);
-                return ResponseEntity.notFound().build();
+            // Sets ETag / Last-Modified; on a match the status is already 304 and nothing else is written
+            String etag = "\"" + file.contentHash() + "\"";
+            if (webRequest.checkNotModified(etag, file.lastModified())) {
+                return null;
             }
             
             // Determine content type
-            String contentType = file.getFileType();
+            String contentType = file.fileType();
             if (contentType == null) {
                 contentType = "application/octet-stream";
             }
             
-            logger.info("Serving file: {}", filename);
-            return ResponseEntity.ok()
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(contentType))
+                .cacheControl(derivativePending ? PENDING_DERIVATIVE_CACHE_CONTROL : EVIDENCE_CACHE_CONTROL)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
                 .header(HttpHeaders.CONTENT_DISPOSITION, 
-                    "inline; filename=\"" + file.getFileName() + "\"")
-                .body(resource);
+                    "inline; filename=\"" + file.fileName() + "\"");
+            
+            if (canSendfile(request, file)) {
+                // Tomcat writes the file straight from the page cache to the socket after the headers
+                request.setAttribute(SENDFILE_FILENAME_ATTR, file.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START_ATTR, 0L);
+                request.setAttribute(SENDFILE_END_ATTR, file.size());
+                return response.contentLength(file.size()).build();
+            }
+            
+            return response.body(new FileSystemResource(file.path()));
+        } catch (ResourceNotFoundException e) {
+            logger.debug("File not found: {}", filename);
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             logger.error("Error serving file: filename={}, error={}", filename, e.getMessage(), e);
             return ResponseEntity.notFound().build();
         }
     }
     
+    /**
+     * Full GET of a file big enough to be worth it, on a connector that supports sendfile
+     */
+    private boolean canSendfile(HttpServletRequest request, FileService.StoredFile file) {
+        return "GET".equals(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && file.size() >= SENDFILE_MIN_SIZE
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR));
+    }
+    
     /**
      * GET /files/evaluation/{evaluationId} - Get all files for an evaluation
      */
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,6 +24,16 @@ public interface AuthServiceClient {
     @GetMapping("/users/ids")
     UserIdsResponse getAllUserIds();
     
+    /**
+     * Get one page of active user IDs ordered by id (for notification fan-out)
+     * @param afterId nextAfterId of the previous page, null for the first page
+     * @param size Page size
+     * @return User IDs page response
+     */
+    @GetMapping("/users/ids/page")
+    UserIdsPageResponse getActiveUserIdsPage(@RequestParam(value = "afterId", required = false) Long afterId,
+                                             @RequestParam("size") int size);
+    
     /**
      * Get user ID by student code
      * @param studentCode Student code (e.g., N21DCCN001)
@@ -114,6 +125,83 @@ public interface AuthServiceClient {
         }
     }
     
+    /**
+     * Response wrapper for a page of user IDs
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    class UserIdsPageResponse {
+        @JsonProperty("success")
+        private boolean success;
+        
+        @JsonProperty("message")
+        private String message;
+        
+        @JsonProperty("data")
+        private UserIdsPage data;
+        
+        // Constructors
+        public UserIdsPageResponse() {
+        }
+        
+        // Getters and Setters
+        public boolean isSuccess() {
+            return success;
+        }
+        
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        public void setMessage(String message) {
+            this.message = message;
+        }
+        
+        public UserIdsPage getData() {
+            return data;
+        }
+        
+        public void setData(UserIdsPage data) {
+            this.data = data;
+        }
+    }
+    
+    /**
+     * Active user IDs page; nextAfterId is null on the last page
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    class UserIdsPage {
+        @JsonProperty("ids")
+        private List<Long> ids;
+        
+        @JsonProperty("nextAfterId")
+        private Long nextAfterId;
+        
+        // Constructors
+        public UserIdsPage() {
+        }
+        
+        // Getters and Setters
+        public List<Long> getIds() {
+            return ids;
+        }
+        
+        public void setIds(List<Long> ids) {
+            this.ids = ids;
+        }
+        
+        public Long getNextAfterId() {
+            return nextAfterId;
+        }
+        
+        public void setNextAfterId(Long nextAfterId) {
+            this.nextAfterId = nextAfterId;
+        }
+    }
+    
     /**
      * Response wrapper for user ID
      */
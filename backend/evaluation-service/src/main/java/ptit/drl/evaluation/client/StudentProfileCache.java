@@ -0,0 +1,118 @@
+package ptit.drl.evaluation.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process cache in front of StudentServiceClient.
+ * Bounded (W-TinyLFU eviction) with a TTL, so the approval workflow does not pay one
+ * student-service round-trip per lookup of the same student.
+ * Only successful lookups are cached; not-found and errors always go to student-service.
+ * Misses go through StudentBatchLoader, so concurrent misses share one batch call.
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size (cache=studentProfiles).
+ */
+@Component
+public class StudentProfileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentProfileCache.class);
+
+    private final StudentServiceClient studentServiceClient;
+    private final StudentBatchLoader studentBatchLoader;
+    private final Cache<String, StudentServiceClient.StudentResponse> cache;
+
+    public StudentProfileCache(StudentServiceClient studentServiceClient,
+                               StudentBatchLoader studentBatchLoader,
+                               MeterRegistry meterRegistry,
+                               @Value("${student.cache.max-size:5000}") long maxSize,
+                               @Value("${student.cache.ttl-minutes:10}") long ttlMinutes) {
+        this.studentServiceClient = studentServiceClient;
+        this.studentBatchLoader = studentBatchLoader;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "studentProfiles");
+    }
+
+    /**
+     * Get student by code, from cache when available
+     * @return same response as StudentServiceClient.getStudentByCode
+     */
+    public StudentServiceClient.StudentResponse getStudentByCode(String studentCode) {
+        if (studentCode == null) {
+            return studentServiceClient.getStudentByCode(studentCode);
+        }
+
+        StudentServiceClient.StudentResponse cached = cache.getIfPresent(studentCode);
+        if (cached != null) {
+            return cached;
+        }
+
+        StudentServiceClient.StudentResponse response = studentBatchLoader.load(studentCode);
+        if (response != null && response.isSuccess() && response.getData() != null) {
+            cache.put(studentCode, response);
+        }
+        return response;
+    }
+    
+    /**
+     * Get many students by code: cached entries first, the rest in batched calls
+     * @return studentCode -> student, unknown codes are absent
+     */
+    public Map<String, StudentServiceClient.StudentDTO> getStudentsByCodes(Collection<String> studentCodes) {
+        Map<String, StudentServiceClient.StudentDTO> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String code : new LinkedHashSet<>(studentCodes)) {
+            if (code == null) {
+                continue;
+            }
+            StudentServiceClient.StudentResponse cached = cache.getIfPresent(code);
+            if (cached != null) {
+                result.put(code, cached.getData());
+            } else {
+                missing.add(code);
+            }
+        }
+        
+        if (!missing.isEmpty()) {
+            studentBatchLoader.loadAll(missing).forEach((code, student) -> {
+                cache.put(code, new StudentServiceClient.StudentResponse(true, "Student found", student));
+                result.put(code, student);
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Drop one student from the cache (profile changed in student-service)
+     */
+    public void invalidate(String studentCode) {
+        if (studentCode != null) {
+            cache.invalidate(studentCode);
+            logger.debug("Invalidated cached student profile: {}", studentCode);
+        }
+    }
+
+    /**
+     * Drop all cached student profiles
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        logger.info("Invalidated all cached student profiles");
+    }
+}
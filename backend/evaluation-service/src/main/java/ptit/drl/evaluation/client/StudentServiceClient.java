@@ -5,6 +5,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,6 +26,15 @@ public interface StudentServiceClient {
     @GetMapping("/{studentCode}")
     StudentResponse getStudentByCode(@PathVariable String studentCode);
     
+    /**
+     * Get many students by code in one call (unknown codes are omitted)
+     * Prefer StudentBatchLoader for single lookups so concurrent calls are coalesced.
+     * @param request Student codes (max 500)
+     * @return List of StudentDTO wrapped in ApiResponse
+     */
+    @PostMapping("/batch")
+    StudentListResponse getStudentsByCodes(@RequestBody BatchStudentRequest request);
+    
     
     /**
      * Response wrapper for student data
@@ -226,5 +237,66 @@ public interface StudentServiceClient {
             this.facultyName = facultyName;
         }
     }
+    
+    /**
+     * Request body for POST /students/batch
+     */
+    class BatchStudentRequest {
+        @JsonProperty("studentCodes")
+        private List<String> studentCodes;
+        
+        public BatchStudentRequest() {
+        }
+        
+        public BatchStudentRequest(List<String> studentCodes) {
+            this.studentCodes = studentCodes;
+        }
+        
+        public List<String> getStudentCodes() {
+            return studentCodes;
+        }
+        
+        public void setStudentCodes(List<String> studentCodes) {
+            this.studentCodes = studentCodes;
+        }
+    }
+    
+    /**
+     * Response wrapper for a list of students (POST /students/batch)
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    class StudentListResponse {
+        @JsonProperty("success")
+        private boolean success;
+        
+        @JsonProperty("message")
+        private String message;
+        
+        @JsonProperty("data")
+        private List<StudentDTO> data;
+        
+        public boolean isSuccess() {
+            return success;
+        }
+        
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        public void setMessage(String message) {
+            this.message = message;
+        }
+        
+        public List<StudentDTO> getData() {
+            return data;
+        }
+        
+        public void setData(List<StudentDTO> data) {
+            this.data = data;
+        }
+    }
 }
-
@@ -1,5 +1,6 @@
 package ptit.drl.evaluation.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -8,7 +9,7 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.util.concurrent.Executor;
 
 /**
- * Async Configuration for async validation processing
+ * Async Configuration for async validation processing and notification dispatch
  */
 @Configuration
 @EnableAsync
@@ -24,5 +25,40 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+    
+    /**
+     * Dedicated pool for notification outbox dispatch.
+     * Kept small and bounded: dispatch is I/O bound (auth/student-service calls) and
+     * must not compete with request threads; overflow is picked up by the periodic poll.
+     */
+    @Bean(name = "notificationDispatchExecutor")
+    public Executor notificationDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("notification-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Bounded pool for evidence thumbnail / preview generation.
+     * Image decoding is CPU and memory heavy, so only a couple run at once; when the queue is
+     * full the upload is left for EvidenceDerivativeService's backfill instead of blocking.
+     */
+    @Bean(name = "derivativeExecutor")
+    public Executor derivativeExecutor(
+            @Value("${file.derivatives.threads:2}") int threads,
+            @Value("${file.derivatives.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("evidence-derivative-");
+        executor.initialize();
+        return executor;
+    }
 }
-
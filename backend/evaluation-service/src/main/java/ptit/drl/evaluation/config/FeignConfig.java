@@ -1,8 +1,10 @@
 package ptit.drl.evaluation.config;
 
+import feign.RequestInterceptor;
 import feign.Response;
 import feign.codec.ErrorDecoder;
 import feign.codec.ErrorDecoder.Default;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
@@ -10,7 +12,7 @@ import ptit.drl.evaluation.exception.ResourceNotFoundException;
 
 /**
  * Feign Client Configuration
- * Handles errors from Feign client calls
+ * Handles errors from Feign client calls and authenticates calls to auth-service
  */
 @Configuration
 public class FeignConfig {
@@ -20,6 +22,19 @@ public class FeignConfig {
         return new CustomErrorDecoder();
     }
     
+    /**
+     * Shared service token for auth-service's internal /auth/users/... lookups
+     * (checked there by InternalServiceTokenFilter)
+     */
+    @Bean
+    public RequestInterceptor internalServiceTokenInterceptor(@Value("${internal.service-token:}") String serviceToken) {
+        return template -> {
+            if (!serviceToken.isBlank() && "auth-service".equals(template.feignTarget().name())) {
+                template.header("X-Internal-Token", serviceToken);
+            }
+        };
+    }
+    
     /**
      * Custom error decoder to handle Feign exceptions
      */
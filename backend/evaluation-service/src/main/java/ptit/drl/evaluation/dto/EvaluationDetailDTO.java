@@ -1,5 +1,7 @@
 package ptit.drl.evaluation.dto;
 
+import java.util.Map;
+
 /**
  * DTO for EvaluationDetail (criteria score)
  */
@@ -13,6 +15,8 @@ public class EvaluationDetailDTO {
     private Double maxScore;
     private String evidence;
     private String note;
+    private Map<String, Double> classMonitorSubCriteriaScores; // subCriteriaId -> điểm lớp trưởng, null if none
+    private Map<String, Double> advisorSubCriteriaScores; // subCriteriaId -> điểm cố vấn, null if none
     
     // Constructors
     public EvaluationDetailDTO() {}
@@ -100,5 +104,20 @@ public class EvaluationDetailDTO {
     public void setNote(String note) {
         this.note = note;
     }
+    
+    public Map<String, Double> getClassMonitorSubCriteriaScores() {
+        return classMonitorSubCriteriaScores;
+    }
+    
+    public void setClassMonitorSubCriteriaScores(Map<String, Double> classMonitorSubCriteriaScores) {
+        this.classMonitorSubCriteriaScores = classMonitorSubCriteriaScores;
+    }
+    
+    public Map<String, Double> getAdvisorSubCriteriaScores() {
+        return advisorSubCriteriaScores;
+    }
+    
+    public void setAdvisorSubCriteriaScores(Map<String, Double> advisorSubCriteriaScores) {
+        this.advisorSubCriteriaScores = advisorSubCriteriaScores;
+    }
 }
-
@@ -0,0 +1,94 @@
+package ptit.drl.evaluation.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable copy of a Rubric with its criteria (ordered by orderIndex) and parsed sub-criteria.
+ * Held by RubricSnapshotCache and shared between threads, so it never references JPA entities.
+ */
+public record RubricSnapshot(
+        Long id,
+        String name,
+        String description,
+        Double maxPoints,
+        String academicYear,
+        boolean active,
+        String targetClasses,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        List<CriteriaSnapshot> criteria) {
+
+    public RubricSnapshot {
+        criteria = List.copyOf(criteria);
+    }
+
+    /**
+     * Find a criteria of this rubric by id
+     */
+    public Optional<CriteriaSnapshot> findCriteria(Long criteriaId) {
+        if (criteriaId == null) {
+            return Optional.empty();
+        }
+        return criteria.stream()
+                .filter(c -> c.id().equals(criteriaId))
+                .findFirst();
+    }
+
+    /**
+     * Convert to RubricDTO (same shape as RubricMapper.toDTO)
+     */
+    public RubricDTO toDTO() {
+        RubricDTO dto = new RubricDTO();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setDescription(description);
+        dto.setMaxScore(maxPoints);
+        dto.setAcademicYear(academicYear);
+        dto.setIsActive(active);
+        dto.setTargetClasses(targetClasses);
+        dto.setCreatedAt(createdAt);
+        dto.setUpdatedAt(updatedAt);
+        dto.setCriteriaCount(criteria.size());
+        dto.setCriteria(criteria.stream()
+                .map(c -> c.toDTO(id, name))
+                .toList());
+        return dto;
+    }
+
+    /**
+     * Criteria with sub-criteria parsed from its description
+     */
+    public record CriteriaSnapshot(
+            Long id,
+            String name,
+            String description,
+            Double maxPoints,
+            Integer orderIndex,
+            List<SubCriteriaSnapshot> subCriteria) {
+
+        public CriteriaSnapshot {
+            subCriteria = List.copyOf(subCriteria);
+        }
+
+        public CriteriaDTO toDTO(Long rubricId, String rubricName) {
+            CriteriaDTO dto = new CriteriaDTO();
+            dto.setId(id);
+            dto.setName(name);
+            dto.setDescription(description);
+            dto.setMaxScore(maxPoints);
+            dto.setOrderIndex(orderIndex);
+            dto.setRubricId(rubricId);
+            dto.setRubricName(rubricName);
+            return dto;
+        }
+    }
+
+    /**
+     * Sub-criteria line, e.g. "1.1. Name: Description (Điểm: 3)"
+     * @param maxPoints null when the line has no (Điểm: X) part
+     */
+    public record SubCriteriaSnapshot(String id, String name, String description, Double maxPoints) {
+    }
+}
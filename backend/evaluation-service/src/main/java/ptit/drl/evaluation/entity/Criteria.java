@@ -1,9 +1,11 @@
 package ptit.drl.evaluation.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "criteria")
+@BatchSize(size = 20) // Lazy criteria references are initialized in one IN query
 public class Criteria extends BaseEntity {
     
     @Column(name = "name", nullable = false, length = 200)
@@ -16,13 +16,22 @@ import java.util.List;
     @Index(name = "idx_evaluation_status", columnList = "status"),
     @Index(name = "idx_evaluation_academic_year", columnList = "academic_year"),
     @Index(name = "idx_evaluation_student_semester", columnList = "student_code,semester"),
-    @Index(name = "idx_evaluation_rubric", columnList = "rubric_id")
+    @Index(name = "idx_evaluation_rubric", columnList = "rubric_id"),
+    @Index(name = "idx_evaluation_status_submitted_id", columnList = "status,submitted_at,id"),
+    @Index(name = "idx_evaluation_class_status_submitted", columnList = "class_code,status,submitted_at,id"),
+    @Index(name = "idx_evaluation_faculty_status_submitted", columnList = "faculty_code,status,submitted_at,id")
 })
 public class Evaluation extends BaseEntity {
     
     @Column(name = "student_code", nullable = false, length = 20)
     private String studentCode; // Reference to student in student-service (no FK)
     
+    @Column(name = "class_code", length = 50)
+    private String classCode; // Snapshot from student-service at creation (for class-scoped queues)
+    
+    @Column(name = "faculty_code", length = 20)
+    private String facultyCode; // Snapshot from student-service at creation
+    
     @Column(name = "semester", nullable = false, length = 20)
     private String semester; // Học kỳ, e.g., "2024-2025-HK1"
     
@@ -210,5 +219,20 @@ public class Evaluation extends BaseEntity {
     public void setCreatedBy(Long createdBy) {
         this.createdBy = createdBy;
     }
+    
+    public String getClassCode() {
+        return classCode;
+    }
+    
+    public void setClassCode(String classCode) {
+        this.classCode = classCode;
+    }
+    
+    public String getFacultyCode() {
+        return facultyCode;
+    }
+    
+    public void setFacultyCode(String facultyCode) {
+        this.facultyCode = facultyCode;
+    }
 }
-
@@ -0,0 +1,77 @@
+package ptit.drl.evaluation.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reviewer score for one sub-criteria (e.g. "1.1") of an evaluation detail (table from V12).
+ * Read-only in JPA: rows are written with batched upserts by SubCriteriaScoreBulkRepository.
+ */
+@Entity
+@Immutable
+@Table(name = "evaluation_sub_criteria_scores")
+public class EvaluationSubCriteriaScore {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "evaluation_id", nullable = false)
+    private Long evaluationId;
+
+    @Column(name = "criteria_id", nullable = false)
+    private Long criteriaId;
+
+    @Column(name = "sub_criteria_id", nullable = false, length = 20)
+    private String subCriteriaId;
+
+    @Column(name = "class_monitor_score")
+    private Double classMonitorScore; // Điểm lớp trưởng chấm cho tiêu chí phụ
+
+    @Column(name = "advisor_score")
+    private Double advisorScore; // Điểm cố vấn chấm cho tiêu chí phụ
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public EvaluationSubCriteriaScore() {}
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getEvaluationId() {
+        return evaluationId;
+    }
+
+    public Long getCriteriaId() {
+        return criteriaId;
+    }
+
+    public String getSubCriteriaId() {
+        return subCriteriaId;
+    }
+
+    public Double getClassMonitorScore() {
+        return classMonitorScore;
+    }
+
+    public Double getAdvisorScore() {
+        return advisorScore;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "evidence_files", indexes = {
     @Index(name = "idx_evidence_evaluation_criteria", columnList = "evaluation_id,criteria_id"),
-    @Index(name = "idx_evidence_evaluation", columnList = "evaluation_id")
+    @Index(name = "idx_evidence_evaluation", columnList = "evaluation_id"),
+    @Index(name = "idx_evidence_stored_file_name", columnList = "stored_file_name")
 })
 public class EvidenceFile {
     
@@ -50,6 +51,12 @@ public class EvidenceFile {
     @Column(name = "uploaded_by")
     private Long uploadedBy; // user_id who uploaded
     
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 hex of the file bytes, used as ETag
+    
+    @Column(name = "derivatives_at")
+    private LocalDateTime derivativesAt; // when thumbnail/preview generation ran (images only)
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -166,6 +173,22 @@ public class EvidenceFile {
         this.uploadedBy = uploadedBy;
     }
     
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
+    public LocalDateTime getDerivativesAt() {
+        return derivativesAt;
+    }
+    
+    public void setDerivativesAt(LocalDateTime derivativesAt) {
+        this.derivativesAt = derivativesAt;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
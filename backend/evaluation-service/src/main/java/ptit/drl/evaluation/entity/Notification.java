@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 @Table(name = "notifications", indexes = {
     @Index(name = "idx_notification_user", columnList = "user_id"),
     @Index(name = "idx_notification_read", columnList = "is_read"),
-    @Index(name = "idx_notification_created", columnList = "created_at")
+    @Index(name = "idx_notification_created", columnList = "created_at"),
+    @Index(name = "idx_notification_type_related_user", columnList = "type,related_type,related_id,user_id")
 })
 public class Notification {
     
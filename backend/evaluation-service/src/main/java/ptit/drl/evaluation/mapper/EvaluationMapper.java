@@ -3,8 +3,13 @@ package ptit.drl.evaluation.mapper;
 import ptit.drl.evaluation.dto.*;
 import ptit.drl.evaluation.entity.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -13,10 +18,21 @@ import java.util.stream.Collectors;
  */
 public class EvaluationMapper {
     
+    // Shared, thread-safe; only needed for JSON comments (legacy rows, score adjustments)
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    
     /**
      * Convert Evaluation entity to EvaluationDTO
      */
     public static EvaluationDTO toDTO(Evaluation evaluation) {
+        return toDTO(evaluation, Collections.emptyList());
+    }
+    
+    /**
+     * Convert Evaluation entity to EvaluationDTO, including reviewer sub-criteria scores
+     * @param subCriteriaScores all sub-criteria score rows of this evaluation
+     */
+    public static EvaluationDTO toDTO(Evaluation evaluation, List<EvaluationSubCriteriaScore> subCriteriaScores) {
         if (evaluation == null) {
             return null;
         }
@@ -54,8 +70,11 @@ public class EvaluationMapper {
         // Map details (handle lazy loading)
         try {
             if (evaluation.getDetails() != null && !evaluation.getDetails().isEmpty()) {
+                Map<Long, List<EvaluationSubCriteriaScore>> subScoresByCriteria = subCriteriaScores.stream()
+                        .collect(Collectors.groupingBy(EvaluationSubCriteriaScore::getCriteriaId));
                 List<EvaluationDetailDTO> detailDTOs = evaluation.getDetails().stream()
-                        .map(EvaluationMapper::toDetailDTO)
+                        .map(detail -> toDetailDTO(detail,
+                            subScoresByCriteria.getOrDefault(detail.getCriteriaId(), Collections.emptyList())))
                         .collect(Collectors.toList());
                 dto.setDetails(detailDTOs);
             } else {
@@ -82,10 +101,57 @@ public class EvaluationMapper {
         return dto;
     }
     
+    /**
+     * Convert Evaluation entity to a list-row EvaluationDTO
+     * Only scalar fields and rubric; details/history are not touched (no lazy loading)
+     */
+    public static EvaluationDTO toSummaryDTO(Evaluation evaluation) {
+        if (evaluation == null) {
+            return null;
+        }
+        
+        EvaluationDTO dto = new EvaluationDTO();
+        dto.setId(evaluation.getId());
+        dto.setStudentCode(evaluation.getStudentCode());
+        dto.setSemester(evaluation.getSemester());
+        dto.setAcademicYear(evaluation.getAcademicYear());
+        dto.setStatus(evaluation.getStatus() != null ? evaluation.getStatus().name() : null);
+        dto.setTotalScore(evaluation.getTotalPoints());
+        dto.setRejectionReason(evaluation.getRejectionReason());
+        dto.setLastRejectionLevel(evaluation.getLastRejectionLevel());
+        dto.setResubmissionCount(evaluation.getResubmissionCount());
+        dto.setSubmittedAt(evaluation.getSubmittedAt());
+        dto.setApprovedAt(evaluation.getApprovedAt());
+        dto.setCreatedAt(evaluation.getCreatedAt());
+        dto.setUpdatedAt(evaluation.getUpdatedAt());
+        dto.setCreatedBy(evaluation.getCreatedBy());
+        dto.setIsCreatedByAdmin(evaluation.getCreatedBy() != null);
+        
+        if (evaluation.getRubric() != null) {
+            Rubric rubric = evaluation.getRubric();
+            dto.setRubricId(rubric.getId());
+            dto.setRubricName(rubric.getName());
+            dto.setMaxScore(rubric.getMaxPoints());
+        }
+        
+        dto.setDetails(new ArrayList<>());
+        dto.setApprovalHistory(new ArrayList<>());
+        return dto;
+    }
+    
     /**
      * Convert EvaluationDetail to EvaluationDetailDTO
      */
     public static EvaluationDetailDTO toDetailDTO(EvaluationDetail detail) {
+        return toDetailDTO(detail, Collections.emptyList());
+    }
+    
+    /**
+     * Convert EvaluationDetail to EvaluationDetailDTO
+     * @param subCriteriaScores reviewer sub-criteria scores of this detail's criteria
+     */
+    public static EvaluationDetailDTO toDetailDTO(EvaluationDetail detail,
+                                                  List<EvaluationSubCriteriaScore> subCriteriaScores) {
         if (detail == null) {
             return null;
         }
@@ -97,49 +163,12 @@ public class EvaluationMapper {
         // Map comment to both evidence and note (for backward compatibility)
         String comment = detail.getComment();
         
-        // Check if comment is JSON (contains scores)
-        String evidenceForResponse = null;
+        String evidenceForResponse;
         if (comment != null && comment.trim().startsWith("{")) {
-            // It's JSON, try to extract evidence field and reconstruct SCORES format
-            try {
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                java.util.Map<String, Object> commentData = mapper.readValue(comment, java.util.Map.class);
-                
-                // Extract evidence string
-                String evidenceString = commentData.containsKey("evidence") ? (String) commentData.get("evidence") : "";
-                
-                // Extract self sub-criteria scores and reconstruct SCORES format
-                if (commentData.containsKey("scores")) {
-                    java.util.Map<String, Object> scoresData = (java.util.Map<String, Object>) commentData.get("scores");
-                    if (scoresData.containsKey("selfSubCriteria")) {
-                        java.util.Map<String, Object> selfScores = (java.util.Map<String, Object>) scoresData.get("selfSubCriteria");
-                        if (!selfScores.isEmpty()) {
-                            // Reconstruct SCORES:1.1=3,1.2=10 format
-                            StringBuilder scoresBuilder = new StringBuilder("SCORES:");
-                            boolean first = true;
-                            for (java.util.Map.Entry<String, Object> entry : selfScores.entrySet()) {
-                                if (!first) scoresBuilder.append(",");
-                                scoresBuilder.append(entry.getKey()).append("=").append(entry.getValue());
-                                first = false;
-                            }
-                            evidenceForResponse = scoresBuilder.toString() + "|EVIDENCE:" + evidenceString;
-                            System.out.println("[MAPPER-DEBUG] Reconstructed evidence for criteria " + detail.getCriteriaId() + ": " + evidenceForResponse);
-                        } else {
-                            evidenceForResponse = evidenceString;
-                        }
-                    } else {
-                        evidenceForResponse = evidenceString;
-                    }
-                } else {
-                    evidenceForResponse = evidenceString;
-                }
-            } catch (Exception e) {
-                // Failed to parse JSON, treat as evidence string
-                System.out.println("[MAPPER-DEBUG] Failed to parse JSON comment: " + e.getMessage());
-                evidenceForResponse = comment;
-            }
+            // JSON comment: legacy row or one carrying reviewer score adjustments
+            evidenceForResponse = evidenceFromJsonComment(comment);
         } else {
-            // Not JSON, treat as evidence string
+            // Evidence string, stored as sent - nothing to parse
             // Remove "Evidence: " prefix if present
             evidenceForResponse = comment;
             if (evidenceForResponse != null && evidenceForResponse.startsWith("Evidence: ")) {
@@ -147,10 +176,25 @@ public class EvaluationMapper {
             }
         }
         
-        System.out.println("[MAPPER-DEBUG] Final evidence for criteria " + detail.getCriteriaId() + ": " + evidenceForResponse);
         dto.setEvidence(evidenceForResponse);
         dto.setNote(comment); // Keep note as original comment (JSON or evidence string)
         
+        // Reviewer sub-criteria scores (evaluation_sub_criteria_scores)
+        if (subCriteriaScores != null && !subCriteriaScores.isEmpty()) {
+            Map<String, Double> classMonitorScores = new LinkedHashMap<>();
+            Map<String, Double> advisorScores = new LinkedHashMap<>();
+            for (EvaluationSubCriteriaScore subScore : subCriteriaScores) {
+                if (subScore.getClassMonitorScore() != null) {
+                    classMonitorScores.put(subScore.getSubCriteriaId(), subScore.getClassMonitorScore());
+                }
+                if (subScore.getAdvisorScore() != null) {
+                    advisorScores.put(subScore.getSubCriteriaId(), subScore.getAdvisorScore());
+                }
+            }
+            dto.setClassMonitorSubCriteriaScores(classMonitorScores.isEmpty() ? null : classMonitorScores);
+            dto.setAdvisorSubCriteriaScores(advisorScores.isEmpty() ? null : advisorScores);
+        }
+        
         // Handle criteria (may be lazy loaded)
         try {
             if (detail.getCriteria() != null) {
@@ -171,6 +215,36 @@ public class EvaluationMapper {
         return dto;
     }
     
+    /**
+     * Extract evidence from a JSON comment, rebuilding "SCORES:1.1=3,1.2=10|EVIDENCE:..."
+     * when it holds self sub-criteria scores
+     */
+    @SuppressWarnings("unchecked")
+    private static String evidenceFromJsonComment(String comment) {
+        try {
+            Map<String, Object> commentData = JSON_MAPPER.readValue(comment, Map.class);
+            
+            // Extract evidence string
+            String evidenceString = commentData.containsKey("evidence") ? (String) commentData.get("evidence") : "";
+            
+            // Extract self sub-criteria scores and reconstruct SCORES format
+            Object scoresData = commentData.get("scores");
+            if (scoresData instanceof Map) {
+                Object selfScores = ((Map<String, Object>) scoresData).get("selfSubCriteria");
+                if (selfScores instanceof Map && !((Map<String, Object>) selfScores).isEmpty()) {
+                    String scores = ((Map<String, Object>) selfScores).entrySet().stream()
+                            .map(entry -> entry.getKey() + "=" + entry.getValue())
+                            .collect(Collectors.joining(","));
+                    return "SCORES:" + scores + "|EVIDENCE:" + evidenceString;
+                }
+            }
+            return evidenceString;
+        } catch (Exception e) {
+            // Failed to parse JSON, treat as evidence string
+            return comment;
+        }
+    }
+    
     /**
      * Convert EvaluationHistory to EvaluationHistoryDTO
      */
@@ -234,61 +308,21 @@ public class EvaluationMapper {
         
         detail.setScore(request.getScore());
         
-        // Parse evidence to extract sub-criteria scores and store as JSON
+        // Evidence is stored as sent: plain evidence or "SCORES:1.1=3,1.2=10|EVIDENCE:..."
+        // (self sub-criteria scores stay in that string, reviewer sub-criteria scores live in
+        // evaluation_sub_criteria_scores), so reading a detail back needs no JSON parsing
         String evidence = request.getEvidence();
-        String comment = "";
-        
-        // Check if evidence contains SCORES format: "SCORES:1.1=3,1.2=10|EVIDENCE:..."
-        if (evidence != null && evidence.contains("SCORES:")) {
-            try {
-                // Parse SCORES section
-                String[] parts = evidence.split("\\|EVIDENCE:");
-                String scoresSection = parts[0].replace("SCORES:", "");
-                String evidenceSection = parts.length > 1 ? parts[1] : "";
-                
-                // Parse individual scores: "1.1=3,1.2=10"
-                java.util.Map<String, Double> selfSubCriteria = new java.util.HashMap<>();
-                if (!scoresSection.isEmpty()) {
-                    String[] scorePairs = scoresSection.split(",");
-                    for (String pair : scorePairs) {
-                        String[] keyValue = pair.split("=");
-                        if (keyValue.length == 2) {
-                            try {
-                                selfSubCriteria.put(keyValue[0].trim(), Double.parseDouble(keyValue[1].trim()));
-                            } catch (NumberFormatException e) {
-                                // Skip invalid score
-                            }
-                        }
-                    }
-                }
-                
-                // Create JSON structure
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                java.util.Map<String, Object> commentData = new java.util.HashMap<>();
-                java.util.Map<String, Object> scores = new java.util.HashMap<>();
-                scores.put("selfSubCriteria", selfSubCriteria);
-                commentData.put("scores", scores);
-                commentData.put("evidence", evidenceSection);
-                
-                comment = mapper.writeValueAsString(commentData);
-            } catch (Exception e) {
-                // If parsing fails, store as-is
-                comment = evidence;
-            }
-        } else if (evidence != null && !evidence.isEmpty()) {
-            // No SCORES format, store as-is
-            comment = evidence;
-        }
+        String comment = evidence != null ? evidence : "";
         
         // Add note if provided
         if (request.getNote() != null && !request.getNote().isEmpty()) {
-            if (!comment.isEmpty() && !comment.startsWith("{")) {
+            if (!comment.isEmpty() && !comment.contains("SCORES:")) {
                 comment += " | Note: " + request.getNote();
             }
-            // If comment is JSON, note is ignored (scores take precedence)
+            // SCORES format: note is ignored (scores take precedence)
         }
         
-        // Set comment (which contains the evidence and scores in JSON format)
+        // Set comment (which contains the evidence)
         detail.setComment(comment.isEmpty() ? null : comment);
         
         return detail;
@@ -0,0 +1,78 @@
+package ptit.drl.evaluation.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to ai_score_cache (serialized AiScoringResponse per cache key)
+ */
+@Repository
+public class AiScoreCacheRepository {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO ai_score_cache (cache_key, criteria_id, sub_criteria_id, model, prompt_version, response, expires_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (cache_key) DO UPDATE SET response = EXCLUDED.response, " +
+        "created_at = CURRENT_TIMESTAMP, expires_at = EXCLUDED.expires_at";
+
+    /**
+     * Row to store
+     */
+    public record Entry(String cacheKey, Long criteriaId, String subCriteriaId, String model,
+                       int promptVersion, String response, Instant expiresAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AiScoreCacheRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stored response JSON, if present and not expired
+     */
+    public Optional<String> find(String cacheKey, Instant now) {
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT response FROM ai_score_cache WHERE cache_key = ? AND expires_at > ?",
+                String.class, cacheKey, Timestamp.from(now));
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Insert or replace an entry
+     */
+    public void save(Entry entry) {
+        jdbcTemplate.update(UPSERT_SQL, entry.cacheKey(), entry.criteriaId(), entry.subCriteriaId(),
+                entry.model(), entry.promptVersion(), entry.response(), Timestamp.from(entry.expiresAt()));
+    }
+
+    /**
+     * Drop all entries of a criteria
+     * @return number of rows deleted
+     */
+    public int deleteByCriteriaId(Long criteriaId) {
+        return jdbcTemplate.update("DELETE FROM ai_score_cache WHERE criteria_id = ?", criteriaId);
+    }
+
+    /**
+     * Drop all entries of the criteria of a rubric
+     * @return number of rows deleted
+     */
+    public int deleteByRubricId(Long rubricId) {
+        return jdbcTemplate.update(
+                "DELETE FROM ai_score_cache WHERE criteria_id IN (SELECT id FROM criteria WHERE rubric_id = ?)",
+                rubricId);
+    }
+
+    /**
+     * Drop expired entries
+     * @return number of rows deleted
+     */
+    public int deleteExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM ai_score_cache WHERE expires_at <= ?", Timestamp.from(now));
+    }
+}
@@ -5,7 +5,10 @@ import ptit.drl.evaluation.entity.EvaluationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,7 +17,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EvaluationRepository extends JpaRepository<Evaluation, Long> {
+public interface EvaluationRepository extends JpaRepository<Evaluation, Long>, JpaSpecificationExecutor<Evaluation> {
     
     // Find by student code - optimized with fetch join
     @EntityGraph(attributePaths = {"rubric", "details", "details.criteria"})
@@ -60,11 +63,31 @@ public interface EvaluationRepository extends JpaRepository<Evaluation, Long> {
     // Check if evaluation exists for student in semester
     boolean existsByStudentCodeAndSemester(String studentCode, String semester);
     
+    // Evaluations still missing the class/faculty snapshot (rows created before V18)
+    @Query("SELECT DISTINCT e.studentCode FROM Evaluation e WHERE e.classCode IS NULL")
+    List<String> findStudentCodesMissingScope(Pageable pageable);
+    
+    // Same, limited to the given statuses (pending rows are resolved before the queues are served)
+    @Query("SELECT DISTINCT e.studentCode FROM Evaluation e WHERE e.classCode IS NULL AND e.status IN :statuses")
+    List<String> findStudentCodesMissingScope(@Param("statuses") List<EvaluationStatus> statuses, Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Evaluation e SET e.classCode = :classCode, e.facultyCode = :facultyCode " +
+           "WHERE e.studentCode = :studentCode AND e.classCode IS NULL")
+    int fillScope(@Param("studentCode") String studentCode,
+                  @Param("classCode") String classCode,
+                  @Param("facultyCode") String facultyCode);
+    
     // Find pending evaluations (for approval) - optimized
     @EntityGraph(attributePaths = {"rubric"})
     @Query("SELECT e FROM Evaluation e WHERE e.status IN :statuses ORDER BY e.submittedAt ASC")
     Page<Evaluation> findPendingEvaluations(@Param("statuses") List<EvaluationStatus> statuses, Pageable pageable);
     
+    // Filtered list (see EvaluationSpecifications) - rubric only, details/history stay lazy
+    @Override
+    @EntityGraph(attributePaths = {"rubric"})
+    Page<Evaluation> findAll(Specification<Evaluation> spec, Pageable pageable);
+    
     // Find by ID with all relations - for detail view
     // Note: Cannot fetch multiple bags simultaneously (MultipleBagFetchException)
     // - Cannot fetch both 'details' and 'history' together
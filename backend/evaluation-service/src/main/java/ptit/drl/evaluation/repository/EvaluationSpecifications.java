@@ -0,0 +1,103 @@
+package ptit.drl.evaluation.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ptit.drl.evaluation.entity.Evaluation;
+import ptit.drl.evaluation.entity.EvaluationStatus;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * JPA Specifications for filtering evaluation lists.
+ * Each factory returns null when its filter is not set, so they can be combined freely
+ * with Specification.where(...).and(...).
+ */
+public final class EvaluationSpecifications {
+    
+    private EvaluationSpecifications() {
+    }
+    
+    public static Specification<Evaluation> hasStudentCode(String studentCode) {
+        if (studentCode == null || studentCode.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("studentCode"), studentCode);
+    }
+    
+    /**
+     * Class scope: restrict to the given students
+     */
+    public static Specification<Evaluation> studentCodeIn(Collection<String> studentCodes) {
+        if (studentCodes == null || studentCodes.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("studentCode").in(studentCodes);
+    }
+    
+    public static Specification<Evaluation> statusIn(Collection<EvaluationStatus> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+    
+    public static Specification<Evaluation> hasSemester(String semester) {
+        if (semester == null || semester.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("semester"), semester);
+    }
+    
+    public static Specification<Evaluation> hasAcademicYear(String academicYear) {
+        if (academicYear == null || academicYear.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("academicYear"), academicYear);
+    }
+    
+    public static Specification<Evaluation> hasRubricId(Long rubricId) {
+        if (rubricId == null) {
+            return null;
+        }
+        // rubric.id is the FK column itself, no join needed
+        return (root, query, cb) -> cb.equal(root.get("rubric").get("id"), rubricId);
+    }
+    
+    public static Specification<Evaluation> hasClassCode(String classCode) {
+        if (classCode == null || classCode.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("classCode"), classCode);
+    }
+    
+    public static Specification<Evaluation> hasFacultyCode(String facultyCode) {
+        if (facultyCode == null || facultyCode.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("facultyCode"), facultyCode);
+    }
+    
+    /**
+     * Only rows that have been submitted (keyset pagination needs a non-null submittedAt)
+     */
+    public static Specification<Evaluation> isSubmitted() {
+        return (root, query, cb) -> cb.isNotNull(root.get("submittedAt"));
+    }
+    
+    /**
+     * Keyset position: rows strictly after (submittedAt, id) in submittedAt, id order.
+     * The redundant submittedAt >= bound gives the planner a sargable range start on the index.
+     */
+    public static Specification<Evaluation> submittedAfter(LocalDate submittedAt, Long id) {
+        if (submittedAt == null || id == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.and(
+            cb.greaterThanOrEqualTo(root.get("submittedAt"), submittedAt),
+            cb.or(
+                cb.greaterThan(root.get("submittedAt"), submittedAt),
+                cb.and(
+                    cb.equal(root.get("submittedAt"), submittedAt),
+                    cb.greaterThan(root.get("id"), id))));
+    }
+}
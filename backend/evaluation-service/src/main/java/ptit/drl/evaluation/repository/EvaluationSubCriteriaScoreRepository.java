@@ -0,0 +1,16 @@
+package ptit.drl.evaluation.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ptit.drl.evaluation.entity.EvaluationSubCriteriaScore;
+
+import java.util.List;
+
+@Repository
+public interface EvaluationSubCriteriaScoreRepository extends JpaRepository<EvaluationSubCriteriaScore, Long> {
+
+    /**
+     * All sub-criteria scores of an evaluation in one query (idx_sub_score_evaluation)
+     */
+    List<EvaluationSubCriteriaScore> findByEvaluationId(Long evaluationId);
+}
@@ -0,0 +1,75 @@
+package ptit.drl.evaluation.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reference counts of content-addressed evidence blobs (evidence_blobs).
+ * Callers run inside a transaction: the row lock taken here is held until commit,
+ * which keeps the blob file and its count consistent across concurrent uploads / deletes.
+ * acquire and lockIfUnreferenced also take a per-hash advisory lock, so deleting an unreferenced
+ * blob file after commit cannot interleave with an upload of the same content.
+ */
+@Repository
+public class EvidenceBlobRepository {
+
+    private static final String ACQUIRE_SQL =
+        "INSERT INTO evidence_blobs (content_hash, file_path, file_size, ref_count) VALUES (?, ?, ?, 1) " +
+        "ON CONFLICT (content_hash) DO UPDATE SET ref_count = evidence_blobs.ref_count + 1 " +
+        "RETURNING ref_count";
+
+    private static final String LOCK_SQL =
+        "SELECT pg_advisory_xact_lock(hashtextextended(?, 0))";
+
+    private static final String RELEASE_SQL =
+        "UPDATE evidence_blobs SET ref_count = ref_count - 1 WHERE content_hash = ? RETURNING ref_count";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EvidenceBlobRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add a reference to a blob, creating its row on first use
+     * @return reference count after the increment (1 = first reference)
+     */
+    public int acquire(String contentHash, String filePath, long fileSize) {
+        lock(contentHash);
+        Integer refCount = jdbcTemplate.queryForObject(ACQUIRE_SQL, Integer.class, contentHash, filePath, fileSize);
+        return refCount != null ? refCount : 1;
+    }
+
+    /**
+     * Drop a reference to a blob; the row is removed when the last reference goes
+     * @return remaining references, or -1 if the blob is not tracked (file stored before dedup)
+     */
+    public int release(String contentHash) {
+        List<Integer> remaining = jdbcTemplate.queryForList(RELEASE_SQL, Integer.class, contentHash);
+        if (remaining.isEmpty()) {
+            return -1;
+        }
+        int refCount = remaining.get(0);
+        if (refCount <= 0) {
+            jdbcTemplate.update("DELETE FROM evidence_blobs WHERE content_hash = ?", contentHash);
+        }
+        return refCount;
+    }
+
+    /**
+     * Lock the hash until the current transaction ends and check that no row references it
+     * @return true when the blob file may be deleted
+     */
+    public boolean lockIfUnreferenced(String contentHash) {
+        lock(contentHash);
+        Boolean referenced = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM evidence_blobs WHERE content_hash = ?)", Boolean.class, contentHash);
+        return !Boolean.TRUE.equals(referenced);
+    }
+
+    private void lock(String contentHash) {
+        jdbcTemplate.query(LOCK_SQL, rs -> { }, contentHash);
+    }
+}
@@ -1,11 +1,15 @@
 package ptit.drl.evaluation.repository;
 
 import ptit.drl.evaluation.entity.EvidenceFile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,5 +56,27 @@ public interface EvidenceFileRepository extends JpaRepository<EvidenceFile, Long
     List<EvidenceFile> findByStoredFileNamesAndCriteriaId(
         @Param("storedFileNames") List<String> storedFileNames,
         @Param("criteriaId") Long criteriaId);
+    
+    /**
+     * Store the content hash of a file uploaded before hashes were recorded
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EvidenceFile f SET f.contentHash = :contentHash WHERE f.id = :id AND f.contentHash IS NULL")
+    int updateContentHash(@Param("id") Long id, @Param("contentHash") String contentHash);
+    
+    /**
+     * Images whose thumbnail / preview have not been generated yet, oldest first
+     * (idx_evidence_derivatives_pending)
+     */
+    @Query("SELECT f FROM EvidenceFile f WHERE f.derivativesAt IS NULL AND f.fileType LIKE 'image/%' ORDER BY f.id")
+    List<EvidenceFile> findPendingDerivatives(Pageable pageable);
+    
+    /**
+     * Record that derivative generation ran for a file
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EvidenceFile f SET f.derivativesAt = :processedAt WHERE f.id = :id")
+    int markDerivativesProcessed(@Param("id") Long id, @Param("processedAt") LocalDateTime processedAt);
 }
-
@@ -0,0 +1,64 @@
+package ptit.drl.evaluation.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ptit.drl.evaluation.entity.Notification;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based JDBC writes for notifications.
+ * Used for fan-out to many users where one JPA save per user is too slow.
+ */
+@Repository
+public class NotificationBulkRepository {
+
+    /**
+     * INSERT ... SELECT from a staged id array, skipping users that already have
+     * a notification of the same type for the same related entity (anti-join).
+     */
+    private static final String INSERT_MISSING_SQL =
+        "INSERT INTO notifications (user_id, title, message, type, is_read, related_id, related_type, created_at) " +
+        "SELECT u.user_id, ?, ?, ?, false, ?, ?, ? " +
+        "FROM unnest(?) AS u(user_id) " +
+        "WHERE NOT EXISTS (" +
+        "    SELECT 1 FROM notifications n " +
+        "    WHERE n.user_id = u.user_id AND n.type = ? AND n.related_type = ? AND n.related_id = ?" +
+        ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert one notification per user id in a single statement.
+     * Users that already have a matching notification are skipped.
+     * @return number of rows inserted
+     */
+    public int insertMissing(List<Long> userIds, String title, String message,
+                             Notification.NotificationType type, String relatedType, Long relatedId) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(INSERT_MISSING_SQL, ps -> {
+            Array ids = ps.getConnection().createArrayOf("bigint", userIds.toArray(new Long[0]));
+            ps.setString(1, title);
+            ps.setString(2, message);
+            ps.setString(3, type.name());
+            ps.setObject(4, relatedId);
+            ps.setString(5, relatedType);
+            ps.setTimestamp(6, now);
+            ps.setArray(7, ids);
+            ps.setString(8, type.name());
+            ps.setString(9, relatedType);
+            ps.setObject(10, relatedId);
+        });
+    }
+}
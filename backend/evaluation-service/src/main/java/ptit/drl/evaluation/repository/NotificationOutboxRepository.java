@@ -0,0 +1,45 @@
+package ptit.drl.evaluation.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ptit.drl.evaluation.entity.NotificationOutbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Lock a batch of due PENDING entries.
+     * SKIP LOCKED lets several dispatcher threads (or service instances) claim disjoint batches.
+     */
+    @Query(value = "SELECT * FROM notification_outbox " +
+                   "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<NotificationOutbox> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Return entries stuck in PROCESSING (dispatcher crashed mid-flight) to PENDING
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = 'PENDING', o.lockedAt = null " +
+           "WHERE o.status = 'PROCESSING' AND o.lockedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before);
+
+    /**
+     * Delete processed entries older than the given date
+     */
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status = 'DONE' AND o.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Count entries by status (for queue depth metrics)
+     */
+    long countByStatus(NotificationOutbox.Status status);
+}
@@ -0,0 +1,65 @@
+package ptit.drl.evaluation.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched JDBC upserts into evaluation_sub_criteria_scores.
+ * One INSERT ... ON CONFLICT per sub-criteria, sent as a single JDBC batch; only the
+ * reviewer's own column is written, so class monitor and advisor scores never overwrite each other.
+ */
+@Repository
+public class SubCriteriaScoreBulkRepository {
+
+    /**
+     * Reviewer level whose column is written
+     */
+    public enum Reviewer {
+        CLASS_MONITOR("class_monitor_score"),
+        ADVISOR("advisor_score");
+
+        private final String column;
+
+        Reviewer(String column) {
+            this.column = column;
+        }
+    }
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO evaluation_sub_criteria_scores " +
+        "(evaluation_id, criteria_id, sub_criteria_id, %1$s, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (evaluation_id, criteria_id, sub_criteria_id) " +
+        "DO UPDATE SET %1$s = EXCLUDED.%1$s, updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubCriteriaScoreBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Upsert sub-criteria scores of one reviewer level
+     * @param scoresByCriteria criteriaId -> (subCriteriaId -> score)
+     * @return number of sub-criteria rows written
+     */
+    public int upsert(Long evaluationId, Reviewer reviewer, Map<Long, Map<String, Double>> scoresByCriteria) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        scoresByCriteria.forEach((criteriaId, subScores) ->
+            subScores.forEach((subCriteriaId, score) ->
+                rows.add(new Object[] {evaluationId, criteriaId, subCriteriaId, score, now, now})));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(String.format(UPSERT_SQL, reviewer.column), rows);
+        return rows.size();
+    }
+}
@@ -0,0 +1,167 @@
+package ptit.drl.evaluation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ptit.drl.evaluation.dto.AiScoringResponse;
+import ptit.drl.evaluation.repository.AiScoreCacheRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistent cache of AI score suggestions (ai_score_cache).
+ * The key covers everything the model sees: prompt version, model, criteria / sub-criteria,
+ * the sorted content hashes of the evidence images and a hash of the rendered prompt (which
+ * includes the criteria text and the evaluated student). Editing a criteria deletes its rows,
+ * updating / activating / deactivating a rubric deletes the rows of all its criteria (same points
+ * where RubricSnapshotCache is invalidated); entries also expire after ai.scoring.cache.ttl-hours.
+ * Metrics: ai.scoring.cache{result=hit|miss|store}, ai.scoring.cache.hit.ratio.
+ */
+@Component
+public class AiScoreCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AiScoreCache.class);
+
+    /**
+     * Everything that identifies one scoring call
+     */
+    public record Key(int promptVersion, String model, Long criteriaId, String subCriteriaId,
+                      List<String> contentHashes, String prompt) {}
+
+    private final AiScoreCacheRepository aiScoreCacheRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration ttl;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter storeCounter;
+
+    public AiScoreCache(AiScoreCacheRepository aiScoreCacheRepository,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${ai.scoring.cache.enabled:true}") boolean enabled,
+                        @Value("${ai.scoring.cache.ttl-hours:720}") long ttlHours) {
+        this.aiScoreCacheRepository = aiScoreCacheRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.hitCounter = Counter.builder("ai.scoring.cache").tag("result", "hit").register(meterRegistry);
+        this.missCounter = Counter.builder("ai.scoring.cache").tag("result", "miss").register(meterRegistry);
+        this.storeCounter = Counter.builder("ai.scoring.cache").tag("result", "store").register(meterRegistry);
+        meterRegistry.gauge("ai.scoring.cache.hit.ratio", this, AiScoreCache::hitRatio);
+    }
+
+    /**
+     * Stored response for this key, if any
+     */
+    public Optional<AiScoringResponse> get(Key key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            Optional<String> json = aiScoreCacheRepository.find(cacheKey(key), Instant.now());
+            if (json.isEmpty()) {
+                missCounter.increment();
+                return Optional.empty();
+            }
+            hitCounter.increment();
+            return Optional.of(objectMapper.readValue(json.get(), AiScoringResponse.class));
+        } catch (Exception e) {
+            // A broken cache must never fail scoring: fall through to the model
+            missCounter.increment();
+            logger.warn("AI score cache read failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store a response parsed from a successful model call
+     */
+    public void put(Key key, AiScoringResponse response) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            aiScoreCacheRepository.save(new AiScoreCacheRepository.Entry(
+                    cacheKey(key), key.criteriaId(), key.subCriteriaId(), key.model(), key.promptVersion(),
+                    objectMapper.writeValueAsString(response), Instant.now().plus(ttl)));
+            storeCounter.increment();
+        } catch (Exception e) {
+            logger.warn("AI score cache write failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop all suggestions of a criteria (its name, description or max points changed)
+     */
+    public void invalidateCriteria(Long criteriaId) {
+        int deleted = aiScoreCacheRepository.deleteByCriteriaId(criteriaId);
+        if (deleted > 0) {
+            logger.debug("Invalidated {} cached AI score(s) for criteria {}", deleted, criteriaId);
+        }
+    }
+
+    /**
+     * Drop all suggestions of the criteria of a rubric (rubric updated, activated or deactivated)
+     */
+    public void invalidateRubric(Long rubricId) {
+        int deleted = aiScoreCacheRepository.deleteByRubricId(rubricId);
+        if (deleted > 0) {
+            logger.debug("Invalidated {} cached AI score(s) for rubric {}", deleted, rubricId);
+        }
+    }
+
+    /**
+     * Remove expired entries
+     */
+    @Scheduled(initialDelayString = "${ai.scoring.cache.cleanup.initial-delay-ms:300000}",
+               fixedDelayString = "${ai.scoring.cache.cleanup.interval-ms:3600000}")
+    public void deleteExpired() {
+        try {
+            int deleted = aiScoreCacheRepository.deleteExpired(Instant.now());
+            if (deleted > 0) {
+                logger.info("Deleted {} expired AI score cache entries", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("AI score cache cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total > 0 ? hits / total : 0.0;
+    }
+
+    private static String cacheKey(Key key) {
+        MessageDigest digest = sha256();
+        digest.update(("v" + key.promptVersion() + "|" + key.model() + "|" + key.criteriaId() + "|"
+                + (key.subCriteriaId() != null ? key.subCriteriaId() : "") + "|"
+                + String.join(",", key.contentHashes().stream().sorted().toList()) + "|")
+                .getBytes(StandardCharsets.UTF_8));
+        digest.update(key.prompt().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,27 +3,30 @@ package ptit.drl.evaluation.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ptit.drl.evaluation.client.StudentProfileCache;
 import ptit.drl.evaluation.client.StudentServiceClient;
 import ptit.drl.evaluation.dto.AiScoringRequest;
 import ptit.drl.evaluation.dto.AiScoringResponse;
-import ptit.drl.evaluation.entity.Criteria;
+import ptit.drl.evaluation.dto.RubricSnapshot;
 import ptit.drl.evaluation.entity.Evaluation;
 import ptit.drl.evaluation.entity.EvidenceFile;
 import ptit.drl.evaluation.exception.ResourceNotFoundException;
-import ptit.drl.evaluation.repository.CriteriaRepository;
 import ptit.drl.evaluation.repository.EvaluationRepository;
 import ptit.drl.evaluation.repository.EvidenceFileRepository;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,26 +48,44 @@ public class AiScoringService {
     @Value("${file.upload-dir}")
     private String uploadDir;
     
-    private final CriteriaRepository criteriaRepository;
+    private final RubricSnapshotCache rubricSnapshotCache;
     private final EvidenceFileRepository evidenceFileRepository;
     private final EvaluationRepository evaluationRepository;
-    private final StudentServiceClient studentServiceClient;
+    private final StudentProfileCache studentProfileCache;
     private final OpenAiClient openAiClient;
     private final ObjectMapper objectMapper;
+    private final EvidenceDerivativeService evidenceDerivativeService;
+    private final AiScoreCache aiScoreCache;
+    private final DistributionSummary allocationSummary;
+    
+    // Tăng khi buildPrompt / parseGptResponse thay đổi, để bỏ các kết quả đã cache
+    private static final int PROMPT_VERSION = 1;
+    
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
     
     public AiScoringService(
-            CriteriaRepository criteriaRepository,
+            RubricSnapshotCache rubricSnapshotCache,
             EvidenceFileRepository evidenceFileRepository,
             EvaluationRepository evaluationRepository,
-            StudentServiceClient studentServiceClient,
+            StudentProfileCache studentProfileCache,
             OpenAiClient openAiClient,
-            ObjectMapper objectMapper) {
-        this.criteriaRepository = criteriaRepository;
+            ObjectMapper objectMapper,
+            EvidenceDerivativeService evidenceDerivativeService,
+            AiScoreCache aiScoreCache,
+            MeterRegistry meterRegistry) {
+        this.rubricSnapshotCache = rubricSnapshotCache;
         this.evidenceFileRepository = evidenceFileRepository;
         this.evaluationRepository = evaluationRepository;
-        this.studentServiceClient = studentServiceClient;
+        this.studentProfileCache = studentProfileCache;
         this.openAiClient = openAiClient;
         this.objectMapper = objectMapper;
+        this.evidenceDerivativeService = evidenceDerivativeService;
+        this.aiScoreCache = aiScoreCache;
+        this.allocationSummary = DistributionSummary.builder("ai.scoring.allocated")
+                .description("Heap allocated by one suggestScore call")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
     }
     
     /**
@@ -72,10 +93,11 @@ public class AiScoringService {
      */
     public AiScoringResponse suggestScore(AiScoringRequest request) {
         long startTime = System.currentTimeMillis();
+        long allocatedBefore = currentThreadAllocatedBytes();
         
         try {
             // 1. Lấy thông tin tiêu chí
-            Criteria criteria = criteriaRepository.findById(request.getCriteriaId())
+            RubricSnapshot.CriteriaSnapshot criteria = rubricSnapshotCache.findCriteria(request.getCriteriaId())
                     .orElseThrow(() -> new ResourceNotFoundException(
                         "Criteria", "id", request.getCriteriaId()));
             
@@ -89,50 +111,74 @@ public class AiScoringService {
             }
             
             if (evidenceFiles.isEmpty()) {
-                return createNoEvidenceResponse(criteria.getMaxPoints());
-            }
-            
-            // 3. Đọc và encode ảnh thành base64
-            List<String> base64Images = new ArrayList<>();
-            for (EvidenceFile file : evidenceFiles) {
-                // Chỉ xử lý file ảnh
-                if (file.getFileType() != null && file.getFileType().startsWith("image/")) {
-                    try {
-                        String base64 = encodeImageToBase64(file.getFilePath());
-                        base64Images.add(base64);
-                    } catch (IOException e) {
-                        logger.warn("Failed to read image file: {}", file.getFilePath(), e);
-                    }
-                }
+                return createNoEvidenceResponse(criteria.maxPoints());
             }
             
-            if (base64Images.isEmpty()) {
-                return createNoImageResponse(criteria.getMaxPoints());
+            // Chỉ xử lý file ảnh
+            List<EvidenceFile> imageFiles = evidenceFiles.stream()
+                    .filter(file -> file.getFileType() != null && file.getFileType().startsWith("image/"))
+                    .toList();
+            if (imageFiles.isEmpty()) {
+                return createNoImageResponse(criteria.maxPoints());
             }
             
-            // 4. Lấy thông tin sinh viên được đánh giá
+            // 3. Lấy thông tin sinh viên được đánh giá
             StudentInfo evaluatedStudentInfo = getEvaluatedStudentInfo(request, evidenceFiles);
             
-            // 5. Tạo prompt cho GPT với thông tin sinh viên
+            // 4. Tạo prompt cho GPT với thông tin sinh viên
             String prompt = buildPrompt(criteria, request.getSubCriteriaId(), evaluatedStudentInfo);
             
-            // 6. Gọi GPT-5.1 Vision API
+            // 5. Cùng ảnh + cùng tiêu chí + cùng prompt đã chấm rồi → trả kết quả đã lưu
+            AiScoreCache.Key cacheKey = cacheKey(criteria.id(), request.getSubCriteriaId(), imageFiles, prompt);
+            if (cacheKey != null) {
+                Optional<AiScoringResponse> cached = aiScoreCache.get(cacheKey);
+                if (cached.isPresent()) {
+                    AiScoringResponse response = cached.get();
+                    response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+                    logger.info("AI scoring for criteria {} served from cache. Suggested score: {}/{}",
+                            criteria.id(), response.getSuggestedScore(), response.getMaxScore());
+                    return response;
+                }
+            }
+            
+            // 6. Chọn ảnh đã thu nhỏ (preview) để gửi; base64 được encode khi stream request
+            List<OpenAiClient.ImageInput> images = new ArrayList<>();
+            for (EvidenceFile file : imageFiles) {
+                try {
+                    images.add(prepareImage(file));
+                } catch (IOException e) {
+                    logger.warn("Failed to read image file: {}", file.getFilePath(), e);
+                }
+            }
+            
+            if (images.isEmpty()) {
+                return createNoImageResponse(criteria.maxPoints());
+            }
+            
+            // 7. Gọi GPT-5.1 Vision API
             String gptResponse = openAiClient.analyzeImagesWithVision(
                     prompt, 
-                    base64Images, 
+                    images, 
                     modelName);
             
-            // 7. Parse JSON response từ GPT
-            AiScoringResponse response = parseGptResponse(
-                    gptResponse, 
-                    criteria.getMaxPoints());
+            // 8. Parse JSON response từ GPT (chỉ lưu cache khi parse được và đủ ảnh)
+            AiScoringResponse response;
+            try {
+                response = parseGptResponse(gptResponse, criteria.maxPoints());
+                if (cacheKey != null && images.size() == imageFiles.size()) {
+                    aiScoreCache.put(cacheKey, response);
+                }
+            } catch (JsonProcessingException e) {
+                logger.error("Failed to parse GPT response: {}", gptResponse, e);
+                response = createParseErrorResponse(criteria.maxPoints(), e);
+            }
             
-            // 8. Set thời gian xử lý
+            // 9. Set thời gian xử lý
             long processingTime = System.currentTimeMillis() - startTime;
             response.setProcessingTimeMs(processingTime);
             
             logger.info("AI scoring completed for criteria {} in {}ms. Suggested score: {}/{}",
-                    criteria.getId(), processingTime, response.getSuggestedScore(), 
+                    criteria.id(), processingTime, response.getSuggestedScore(), 
                     response.getMaxScore());
             
             return response;
@@ -141,6 +187,8 @@ public class AiScoringService {
             logger.error("Error during AI scoring", e);
             long processingTime = System.currentTimeMillis() - startTime;
             return createErrorResponse(e.getMessage(), processingTime);
+        } finally {
+            recordAllocation(allocatedBefore);
         }
     }
     
@@ -173,7 +221,7 @@ public class AiScoringService {
             // Lấy thông tin chi tiết từ student-service
             try {
                 StudentServiceClient.StudentResponse studentResponse = 
-                        studentServiceClient.getStudentByCode(studentCode);
+                        studentProfileCache.getStudentByCode(studentCode);
                 
                 if (studentResponse != null && studentResponse.isSuccess() 
                         && studentResponse.getData() != null) {
@@ -218,7 +266,7 @@ public class AiScoringService {
     /**
      * Xây dựng prompt cho GPT dựa trên tiêu chí
      */
-    private String buildPrompt(Criteria criteria, String subCriteriaId, StudentInfo studentInfo) {
+    private String buildPrompt(RubricSnapshot.CriteriaSnapshot criteria, String subCriteriaId, StudentInfo studentInfo) {
         StringBuilder prompt = new StringBuilder();
         
         prompt.append("Bạn là trợ lý AI hỗ trợ chấm điểm rèn luyện sinh viên tại Học viện Công nghệ Bưu chính Viễn thông.\n\n");
@@ -249,12 +297,12 @@ public class AiScoringService {
         prompt.append("\n");
         
         prompt.append("TIÊU CHÍ:\n");
-        prompt.append("- Tên tiêu chí: ").append(criteria.getName()).append("\n");
-        prompt.append("- Điểm tối đa: ").append(criteria.getMaxPoints()).append(" điểm\n");
+        prompt.append("- Tên tiêu chí: ").append(criteria.name()).append("\n");
+        prompt.append("- Điểm tối đa: ").append(criteria.maxPoints()).append(" điểm\n");
         
-        if (criteria.getDescription() != null && !criteria.getDescription().isEmpty()) {
+        if (criteria.description() != null && !criteria.description().isEmpty()) {
             prompt.append("- Mô tả và cách chấm:\n");
-            prompt.append(criteria.getDescription()).append("\n");
+            prompt.append(criteria.description()).append("\n");
         }
         
         if (subCriteriaId != null && !subCriteriaId.isEmpty()) {
@@ -274,8 +322,8 @@ public class AiScoringService {
         prompt.append("YÊU CẦU OUTPUT:\n");
         prompt.append("Chỉ trả về JSON đúng cấu trúc sau, KHÔNG thêm text ngoài JSON:\n\n");
         prompt.append("{\n");
-        prompt.append("  \"suggested_score\": <BẮT BUỘC là SỐ NGUYÊN từ 0 đến ").append(criteria.getMaxPoints().intValue()).append(" (chỉ chấp nhận: 0, 1, 2, 3, ... KHÔNG được là số thập phân như 1.5, 2.7, 3.2)>,\n");
-        prompt.append("  \"max_score\": ").append(criteria.getMaxPoints()).append(",\n");
+        prompt.append("  \"suggested_score\": <BẮT BUỘC là SỐ NGUYÊN từ 0 đến ").append(criteria.maxPoints().intValue()).append(" (chỉ chấp nhận: 0, 1, 2, 3, ... KHÔNG được là số thập phân như 1.5, 2.7, 3.2)>,\n");
+        prompt.append("  \"max_score\": ").append(criteria.maxPoints()).append(",\n");
         prompt.append("  \"status\": \"ACCEPTABLE\" | \"REJECT\" | \"UNCERTAIN\",\n");
         prompt.append("  \"confidence\": <số từ 0.0 đến 1.0>,\n");
         prompt.append("  \"reason\": \"<giải thích ngắn gọn bằng tiếng Việt, 1-3 câu>\",\n");
@@ -294,76 +342,118 @@ public class AiScoringService {
     }
     
     /**
-     * Encode image file to base64
+     * Ảnh gửi cho model: preview JPEG (cạnh dài file.derivatives.preview-size) thay vì ảnh gốc,
+     * vì model "high" detail cũng chỉ dùng ~768px cạnh ngắn. Ảnh ImageIO không đọc được
+     * (vd. WebP) được gửi nguyên bản với MIME type thật của nó.
      */
-    private String encodeImageToBase64(String filePath) throws IOException {
-        Path path = Paths.get(filePath);
-        byte[] imageBytes = Files.readAllBytes(path);
-        return Base64.getEncoder().encodeToString(imageBytes);
+    private OpenAiClient.ImageInput prepareImage(EvidenceFile file) throws IOException {
+        Path original = Paths.get(file.getFilePath());
+        if (!Files.isReadable(original)) {
+            throw new IOException("File not readable: " + original);
+        }
+        Path preview = evidenceDerivativeService.ensurePreview(original);
+        if (preview != null) {
+            return new OpenAiClient.ImageInput(preview, "image/jpeg");
+        }
+        return new OpenAiClient.ImageInput(original, file.getFileType());
     }
     
     /**
-     * Parse GPT response JSON
+     * Bytes allocated so far by this thread, -1 if the JVM cannot measure it.
+     * The OpenAI call runs synchronously on the calling thread, so the difference covers the whole suggestScore.
      */
-    private AiScoringResponse parseGptResponse(String gptResponse, Double maxScore) {
-        try {
-            // Loại bỏ markdown code block nếu có
-            String jsonString = gptResponse.trim();
-            if (jsonString.startsWith("```json")) {
-                jsonString = jsonString.substring(7);
-            }
-            if (jsonString.startsWith("```")) {
-                jsonString = jsonString.substring(3);
-            }
-            if (jsonString.endsWith("```")) {
-                jsonString = jsonString.substring(0, jsonString.length() - 3);
-            }
-            jsonString = jsonString.trim();
-            
-            JsonNode root = objectMapper.readTree(jsonString);
-            
-            // Làm tròn điểm gợi ý từ AI thành số nguyên (1, 2, 3, ...)
-            // Đảm bảo luôn là số nguyên, không có phần thập phân
-            double rawScore = root.has("suggested_score") ? 
-                    root.get("suggested_score").asDouble() : 0.0;
-            // Làm tròn và chuyển thành số nguyên (long, sau đó double để giữ kiểu Double)
-            long roundedScoreLong = Math.round(rawScore);
-            // Đảm bảo trong khoảng hợp lệ: 0 <= score <= maxScore
-            if (roundedScoreLong < 0) {
-                roundedScoreLong = 0;
-            }
-            double maxScoreInt = maxScore != null ? Math.round(maxScore) : 10;
-            if (roundedScoreLong > maxScoreInt) {
-                roundedScoreLong = (long) maxScoreInt;
+    private static long currentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+    
+    private void recordAllocation(long allocatedBefore) {
+        if (allocatedBefore >= 0) {
+            allocationSummary.record(currentThreadAllocatedBytes() - allocatedBefore);
+        }
+    }
+    
+    /**
+     * Cache key của lần chấm; null nếu có ảnh chưa có content hash (file cũ, chưa được hash)
+     */
+    private AiScoreCache.Key cacheKey(Long criteriaId, String subCriteriaId,
+                                      List<EvidenceFile> imageFiles, String prompt) {
+        List<String> contentHashes = new ArrayList<>();
+        for (EvidenceFile file : imageFiles) {
+            if (file.getContentHash() == null) {
+                return null;
             }
-            double roundedScore = (double) roundedScoreLong;
-            
-            logger.debug("AI raw score: {}, rounded to integer: {}", rawScore, roundedScore);
-            
-            return AiScoringResponse.builder()
-                    .suggestedScore(roundedScore)
-                    .maxScore(root.has("max_score") ? 
-                            root.get("max_score").asDouble() : maxScore)
-                    .status(root.has("status") ? 
-                            root.get("status").asText() : "UNCERTAIN")
-                    .confidence(root.has("confidence") ? 
-                            root.get("confidence").asDouble() : 0.5)
-                    .reason(root.has("reason") ? 
-                            root.get("reason").asText() : "Không có giải thích")
-                    .analysisDetails(root.has("analysis_details") ? 
-                            root.get("analysis_details").asText() : null)
-                    .build();
-                    
-        } catch (JsonProcessingException e) {
-            logger.error("Failed to parse GPT response: {}", gptResponse, e);
-            return AiScoringResponse.builder()
-                    .suggestedScore(0.0) // Số nguyên 0
-                    .maxScore(maxScore)
-                    .status("UNCERTAIN")
-                    .confidence(0.0)
-                    .reason("Lỗi parse JSON từ GPT: " + e.getMessage())
-                    .build();
+            contentHashes.add(file.getContentHash());
+        }
+        return new AiScoreCache.Key(PROMPT_VERSION, modelName, criteriaId, subCriteriaId, contentHashes, prompt);
+    }
+    
+    /**
+     * Parse GPT response JSON
+     */
+    private AiScoringResponse parseGptResponse(String gptResponse, Double maxScore) throws JsonProcessingException {
+        // Loại bỏ markdown code block nếu có
+        String jsonString = gptResponse.trim();
+        if (jsonString.startsWith("```json")) {
+            jsonString = jsonString.substring(7);
+        }
+        if (jsonString.startsWith("```")) {
+            jsonString = jsonString.substring(3);
+        }
+        if (jsonString.endsWith("```")) {
+            jsonString = jsonString.substring(0, jsonString.length() - 3);
+        }
+        jsonString = jsonString.trim();
+        
+        JsonNode root = objectMapper.readTree(jsonString);
+        
+        // Làm tròn điểm gợi ý từ AI thành số nguyên (1, 2, 3, ...)
+        // Đảm bảo luôn là số nguyên, không có phần thập phân
+        double rawScore = root.has("suggested_score") ? 
+                root.get("suggested_score").asDouble() : 0.0;
+        // Làm tròn và chuyển thành số nguyên (long, sau đó double để giữ kiểu Double)
+        long roundedScoreLong = Math.round(rawScore);
+        // Đảm bảo trong khoảng hợp lệ: 0 <= score <= maxScore
+        if (roundedScoreLong < 0) {
+            roundedScoreLong = 0;
+        }
+        double maxScoreInt = maxScore != null ? Math.round(maxScore) : 10;
+        if (roundedScoreLong > maxScoreInt) {
+            roundedScoreLong = (long) maxScoreInt;
         }
+        double roundedScore = (double) roundedScoreLong;
+        
+        logger.debug("AI raw score: {}, rounded to integer: {}", rawScore, roundedScore);
+        
+        return AiScoringResponse.builder()
+                .suggestedScore(roundedScore)
+                .maxScore(root.has("max_score") ? 
+                        root.get("max_score").asDouble() : maxScore)
+                .status(root.has("status") ? 
+                        root.get("status").asText() : "UNCERTAIN")
+                .confidence(root.has("confidence") ? 
+                        root.get("confidence").asDouble() : 0.5)
+                .reason(root.has("reason") ? 
+                        root.get("reason").asText() : "Không có giải thích")
+                .analysisDetails(root.has("analysis_details") ? 
+                        root.get("analysis_details").asText() : null)
+                .build();
+    }
+    
+    /**
+     * Response khi không parse được JSON từ GPT
+     */
+    private AiScoringResponse createParseErrorResponse(Double maxScore, JsonProcessingException e) {
+        return AiScoringResponse.builder()
+                .suggestedScore(0.0) // Số nguyên 0
+                .maxScore(maxScore)
+                .status("UNCERTAIN")
+                .confidence(0.0)
+                .reason("Lỗi parse JSON từ GPT: " + e.getMessage())
+                .build();
     }
     
     /**
@@ -27,6 +27,12 @@ public class CriteriaService {
     @Autowired
     private RubricRepository rubricRepository;
     
+    @Autowired
+    private RubricSnapshotCache rubricSnapshotCache;
+    
+    @Autowired
+    private AiScoreCache aiScoreCache;
+    
     /**
      * Get all criteria by rubric ID
      */
@@ -61,6 +67,7 @@ public class CriteriaService {
         
         Criteria criteria = new Criteria(name, description, maxScore, orderIndex, rubric);
         Criteria saved = criteriaRepository.save(criteria);
+        rubricSnapshotCache.invalidate(rubricId);
         
         return RubricMapper.toCriteriaDTO(saved);
     }
@@ -79,6 +86,8 @@ public class CriteriaService {
         if (orderIndex != null) criteria.setOrderIndex(orderIndex);
         
         Criteria updated = criteriaRepository.save(criteria);
+        rubricSnapshotCache.invalidate(criteria.getRubric().getId());
+        aiScoreCache.invalidateCriteria(id);
         return RubricMapper.toCriteriaDTO(updated);
     }
     
@@ -86,13 +95,14 @@ public class CriteriaService {
      * Delete criteria
      */
     public void deleteCriteria(Long id) {
-        if (!criteriaRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Criteria", "id", id);
-        }
+        Criteria criteria = criteriaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Criteria", "id", id));
         
         // TODO: Check if criteria is used in any evaluations before deleting
         // For now, just delete it
-        criteriaRepository.deleteById(id);
+        criteriaRepository.delete(criteria);
+        rubricSnapshotCache.invalidate(criteria.getRubric().getId());
+        aiScoreCache.invalidateCriteria(id);
     }
 }
 
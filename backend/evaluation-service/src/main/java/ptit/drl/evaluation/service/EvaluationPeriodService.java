@@ -108,7 +108,7 @@ public class EvaluationPeriodService {
         
         EvaluationPeriod saved = periodRepository.save(period);
         
-        // Create notifications for all users
+        // Notifications for all users are created after this transaction commits
         if (notificationService != null) {
             notificationService.notifyPeriodCreated(
                 saved.getId(),
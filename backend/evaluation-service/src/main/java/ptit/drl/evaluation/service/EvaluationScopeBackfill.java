@@ -0,0 +1,152 @@
+package ptit.drl.evaluation.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ptit.drl.evaluation.client.StudentProfileCache;
+import ptit.drl.evaluation.client.StudentServiceClient;
+import ptit.drl.evaluation.entity.EvaluationStatus;
+import ptit.drl.evaluation.repository.EvaluationRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Fills class_code / faculty_code on evaluations created before they were stored (V18).
+ * Each run works through batches until nothing is left; student-service is called outside any
+ * transaction and only the updates of a batch run in one. Rows waiting for approval are filled
+ * first, and resolvePending() fills them on demand before a scoped approval queue is served, so
+ * an unfilled row is never shown to (or missing from) a class / faculty queue.
+ */
+@Component
+public class EvaluationScopeBackfill {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EvaluationScopeBackfill.class);
+    
+    private static final List<EvaluationStatus> PENDING_STATUSES = List.of(
+        EvaluationStatus.SUBMITTED, EvaluationStatus.CLASS_APPROVED, EvaluationStatus.ADVISOR_APPROVED);
+    
+    @Autowired
+    private EvaluationRepository evaluationRepository;
+    
+    @Autowired
+    private StudentProfileCache studentProfileCache;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${evaluation.scope-backfill.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${evaluation.scope-backfill.unresolved-retry-ms:3600000}")
+    private long unresolvedRetryMs;
+    
+    // Students unknown to student-service -> when to ask again (not re-queried on every batch)
+    private final Map<String, Instant> unresolved = new ConcurrentHashMap<>();
+    
+    // One fill at a time: the scheduled run and on-demand calls would otherwise query the same students
+    private final Object fillLock = new Object();
+    
+    private volatile boolean complete = false;
+    
+    /**
+     * Fill the scope of evaluations waiting for approval (no-op once the backfill has completed).
+     * Must be called outside a transaction: it calls student-service.
+     */
+    public void resolvePending() {
+        if (complete) {
+            return;
+        }
+        synchronized (fillLock) {
+            fill(page -> evaluationRepository.findStudentCodesMissingScope(PENDING_STATUSES, page));
+        }
+    }
+    
+    @Scheduled(initialDelayString = "${evaluation.scope-backfill.initial-delay-ms:10000}",
+               fixedDelayString = "${evaluation.scope-backfill.interval-ms:600000}")
+    public void backfill() {
+        synchronized (fillLock) {
+            fill(page -> evaluationRepository.findStudentCodesMissingScope(PENDING_STATUSES, page));
+            if (fill(evaluationRepository::findStudentCodesMissingScope)) {
+                complete = true;
+            }
+        }
+    }
+    
+    /**
+     * Fill batch after batch of the students returned by the finder
+     * @return true when nothing is left apart from students student-service does not know
+     */
+    private boolean fill(Function<Pageable, List<String>> finder) {
+        TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        int students = 0;
+        boolean done = false;
+        
+        while (true) {
+            Instant now = Instant.now();
+            List<String> studentCodes = new ArrayList<>(
+                finder.apply(PageRequest.of(0, batchSize + unresolved.size())));
+            studentCodes.removeIf(code -> {
+                Instant retryAt = unresolved.get(code);
+                return retryAt != null && retryAt.isAfter(now);
+            });
+            if (studentCodes.size() > batchSize) {
+                studentCodes = studentCodes.subList(0, batchSize);
+            }
+            if (studentCodes.isEmpty()) {
+                done = true;
+                break;
+            }
+            
+            Map<String, StudentServiceClient.StudentDTO> found;
+            try {
+                found = studentProfileCache.getStudentsByCodes(studentCodes);
+            } catch (Exception e) {
+                logger.warn("Evaluation scope backfill paused, student-service unavailable: {}", e.getMessage());
+                break;
+            }
+            
+            Map<String, StudentServiceClient.StudentDTO> resolved = new HashMap<>();
+            for (String studentCode : studentCodes) {
+                StudentServiceClient.StudentDTO student = found.get(studentCode);
+                if (student == null || student.getClassCode() == null) {
+                    unresolved.put(studentCode, now.plus(Duration.ofMillis(unresolvedRetryMs)));
+                } else {
+                    unresolved.remove(studentCode);
+                    resolved.put(studentCode, student);
+                }
+            }
+            
+            Integer batchUpdated = batchTransaction.execute(status -> {
+                int count = 0;
+                for (Map.Entry<String, StudentServiceClient.StudentDTO> entry : resolved.entrySet()) {
+                    count += evaluationRepository.fillScope(entry.getKey(),
+                        entry.getValue().getClassCode(), entry.getValue().getFacultyCode());
+                }
+                return count;
+            });
+            updated += batchUpdated != null ? batchUpdated : 0;
+            students += studentCodes.size();
+        }
+        
+        if (students > 0) {
+            logger.info("Evaluation scope backfill: {} evaluations updated for {} students ({} unresolved)",
+                updated, students, unresolved.size());
+        }
+        return done;
+    }
+}
@@ -3,7 +3,10 @@ package ptit.drl.evaluation.service;
 import feign.FeignException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ptit.drl.evaluation.dto.*;
@@ -15,16 +18,21 @@ import ptit.drl.evaluation.exception.InvalidStateTransitionException;
 import ptit.drl.evaluation.exception.ResourceNotFoundException;
 import ptit.drl.evaluation.mapper.EvaluationMapper;
 import ptit.drl.evaluation.repository.*;
+import ptit.drl.evaluation.client.StudentProfileCache;
 import ptit.drl.evaluation.client.StudentServiceClient;
 import ptit.drl.evaluation.service.FileService;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +48,9 @@ public class EvaluationService {
     
     private static final Logger logger = LoggerFactory.getLogger(EvaluationService.class);
     
+    // Approval queue order (oldest submission first); keyset cursor follows the same order
+    private static final Sort PENDING_ORDER = Sort.by(Sort.Order.asc("submittedAt"), Sort.Order.asc("id"));
+    
     @Autowired
     private EvaluationRepository evaluationRepository;
     
@@ -53,16 +64,22 @@ public class EvaluationService {
     private CriteriaRepository criteriaRepository;
     
     @Autowired
-    private StudentServiceClient studentServiceClient;
+    private RubricSnapshotCache rubricSnapshotCache;
     
     @Autowired
-    private EvaluationPeriodService periodService;
+    private EvaluationSubCriteriaScoreRepository subCriteriaScoreRepository;
     
-    @Autowired(required = false)
-    private NotificationService notificationService;
+    @Autowired
+    private SubCriteriaScoreBulkRepository subCriteriaScoreBulkRepository;
     
-    @Autowired(required = false)
-    private ptit.drl.evaluation.client.AuthServiceClient authServiceClient;
+    @Autowired
+    private StudentProfileCache studentProfileCache;
+    
+    @Autowired
+    private EvaluationPeriodService periodService;
+    
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
     
     @Autowired(required = false)
     private EvidenceValidationService evidenceValidationService;
@@ -81,14 +98,16 @@ public class EvaluationService {
      */
     public EvaluationDTO createEvaluation(CreateEvaluationRequest request, Long createdBy) {
         // Validate student exists via student-service
+        StudentServiceClient.StudentDTO student;
         try {
             StudentServiceClient.StudentResponse studentResponse = 
-                studentServiceClient.getStudentByCode(request.getStudentCode());
+                studentProfileCache.getStudentByCode(request.getStudentCode());
             // If response is null or indicates failure, student doesn't exist
             if (studentResponse == null || !studentResponse.isSuccess() || studentResponse.getData() == null) {
                 throw new ResourceNotFoundException(
                     "Student", "code", request.getStudentCode());
             }
+            student = studentResponse.getData();
         } catch (ResourceNotFoundException e) {
             // Re-throw if already ResourceNotFoundException (from error decoder)
             // Update message to include actual studentCode
@@ -140,6 +159,9 @@ public class EvaluationService {
         Evaluation evaluation = EvaluationMapper.toEntity(request, rubric);
         evaluation.setTotalPoints(0.0); // Will be calculated below
         evaluation.setCreatedBy(createdBy); // Set createdBy for audit trail
+        // Snapshot class/faculty so scoped approval queues filter in SQL
+        evaluation.setClassCode(student.getClassCode());
+        evaluation.setFacultyCode(student.getFacultyCode());
         
         // Save evaluation first to get ID (needed for composite key in EvaluationDetail)
         Evaluation saved = evaluationRepository.save(evaluation);
@@ -149,16 +171,13 @@ public class EvaluationService {
         double totalScore = 0.0;
         boolean isDraft = request.getAsDraft() != null && request.getAsDraft();
         
+        // Criteria come from the cached rubric snapshot instead of findById per detail
+        Map<Long, RubricSnapshot.CriteriaSnapshot> rubricCriteria = loadRubricCriteria(rubric.getId());
+        
         for (CreateEvaluationDetailRequest detailRequest : request.getDetails()) {
-            Criteria criteria = criteriaRepository.findById(detailRequest.getCriteriaId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                        "Criteria", "id", detailRequest.getCriteriaId()));
-            
-            // Validate criteria belongs to rubric
-            if (!criteria.getRubric().getId().equals(rubric.getId())) {
-                throw new IllegalArgumentException(
-                    "Criteria " + criteria.getId() + " does not belong to rubric " + rubric.getId());
-            }
+            // Also validates criteria belongs to rubric
+            RubricSnapshot.CriteriaSnapshot criteria =
+                resolveCriteria(rubricCriteria, detailRequest.getCriteriaId(), rubric.getId());
             
             // Get score (default to 0 if null - applies to both draft and non-draft)
             Double score = detailRequest.getScore();
@@ -169,10 +188,10 @@ public class EvaluationService {
             // Validate score does not exceed maxPoints (applies to both draft and non-draft)
             // Note: Negative scores are allowed (some criteria can deduct points)
             // Note: Total score = 0 is also allowed (can happen in valid scenarios)
-            if (score > criteria.getMaxPoints()) {
+            if (score > criteria.maxPoints()) {
                 throw new IllegalArgumentException(
                     String.format("Score %.2f exceeds max score %.2f for criteria %s",
-                        score, criteria.getMaxPoints(), criteria.getName()));
+                        score, criteria.maxPoints(), criteria.name()));
             }
             
             // Create detail with validated score
@@ -183,17 +202,16 @@ public class EvaluationService {
             validatedDetail.setNote(detailRequest.getNote());
             
             EvaluationDetail detail = EvaluationMapper.toDetailEntity(
-                validatedDetail, saved, criteria);
+                validatedDetail, saved, criteriaRepository.getReferenceById(criteria.id()));
             details.add(detail);
             totalScore += score;
         }
         
+        // saved is managed: details are cascaded and inserted as one JDBC batch at flush,
+        // no second save() needed
         saved.setDetails(details);
         saved.setTotalPoints(totalScore);
         
-        // Save again with details
-        saved = evaluationRepository.save(saved);
-        
         // Link files with evaluation (extract from evidence and link files that have evaluationId=null or 0)
         if (fileService != null) {
             for (EvaluationDetail detail : details) {
@@ -271,7 +289,7 @@ public class EvaluationService {
             }
         });
         
-        return EvaluationMapper.toDTO(evaluation);
+        return toDetailedDTO(evaluation);
     }
     
     /**
@@ -282,7 +300,7 @@ public class EvaluationService {
         // Validate student exists via student-service
         try {
             StudentServiceClient.StudentResponse studentResponse = 
-                studentServiceClient.getStudentByCode(studentCode);
+                studentProfileCache.getStudentByCode(studentCode);
             if (!studentResponse.isSuccess() || studentResponse.getData() == null) {
                 throw new ResourceNotFoundException("Student", "code", studentCode);
             }
@@ -304,7 +322,7 @@ public class EvaluationService {
         }
         
         return evaluations.stream()
-                .map(EvaluationMapper::toDTO)
+                .map(this::toDetailedDTO)
                 .collect(Collectors.toList());
     }
     
@@ -333,10 +351,11 @@ public class EvaluationService {
         // Create new details (exactly same logic as create)
         List<EvaluationDetail> details = new ArrayList<>();
         double totalScore = 0.0;
+        Long rubricId = evaluation.getRubric().getId();
+        Map<Long, RubricSnapshot.CriteriaSnapshot> rubricCriteria = loadRubricCriteria(rubricId);
         for (CreateEvaluationDetailRequest detailRequest : request.getDetails()) {
-            Criteria criteria = criteriaRepository.findById(detailRequest.getCriteriaId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                        "Criteria", "id", detailRequest.getCriteriaId()));
+            RubricSnapshot.CriteriaSnapshot criteria =
+                resolveCriteria(rubricCriteria, detailRequest.getCriteriaId(), rubricId);
             
             // Get score (default to 0 if null - same as create)
             Double score = detailRequest.getScore();
@@ -345,10 +364,10 @@ public class EvaluationService {
             }
             
             // Validate score does not exceed maxPoints (same as create)
-            if (score > criteria.getMaxPoints()) {
+            if (score > criteria.maxPoints()) {
                 throw new IllegalArgumentException(
                     String.format("Score %.2f exceeds max score %.2f for criteria %s",
-                        score, criteria.getMaxPoints(), criteria.getName()));
+                        score, criteria.maxPoints(), criteria.name()));
             }
             
             // Create detail with validated score (exactly same as create)
@@ -364,7 +383,7 @@ public class EvaluationService {
             validatedDetail.setNote(detailRequest.getNote());
             
             EvaluationDetail detail = EvaluationMapper.toDetailEntity(
-                validatedDetail, evaluation, criteria);
+                validatedDetail, evaluation, criteriaRepository.getReferenceById(criteria.id()));
             
             details.add(detail);
             totalScore += score;
@@ -450,78 +469,8 @@ public class EvaluationService {
         
         Evaluation updated = evaluationRepository.save(evaluation);
         
-        // Send notifications
-        System.out.println("=== NOTIFICATION DEBUG ===");
-        System.out.println("notificationService is null: " + (notificationService == null));
-        System.out.println("authServiceClient is null: " + (authServiceClient == null));
-        
-        if (notificationService == null) {
-            System.err.println("WARNING: NotificationService is null, cannot send notifications for evaluation: " + updated.getId());
-        }
-        if (authServiceClient == null) {
-            System.err.println("WARNING: AuthServiceClient is null, cannot send notifications for evaluation: " + updated.getId());
-        }
-        
-        if (notificationService != null && authServiceClient != null) {
-            try {
-                System.out.println("Creating notifications for evaluation: " + updated.getId() + ", student: " + evaluation.getStudentCode());
-                String studentName = evaluation.getStudentCode(); // Fallback
-                String classCode = null;
-                String facultyCode = null;
-                
-                // Try to get student info from student-service
-                if (studentServiceClient != null) {
-                    try {
-                        StudentServiceClient.StudentResponse studentResponse = 
-                            studentServiceClient.getStudentByCode(evaluation.getStudentCode());
-                        
-                        if (studentResponse != null && studentResponse.isSuccess() && studentResponse.getData() != null) {
-                            StudentServiceClient.StudentDTO student = studentResponse.getData();
-                            studentName = student.getFullName();
-                            classCode = student.getClassCode();
-                            facultyCode = student.getFacultyCode();
-                        }
-                    } catch (Exception e) {
-                        // StudentServiceClient not available or failed - use fallback values
-                        System.err.println("Warning: Failed to get student info from student-service: " + e.getMessage());
-                    }
-                }
-                
-                // Notify reviewers (even if student info is incomplete)
-                notificationService.notifyEvaluationNeedsReview(
-                    updated.getId(),
-                    studentName,
-                    evaluation.getStudentCode(),
-                    classCode,
-                    facultyCode,
-                    "SUBMITTED"
-                );
-                
-                // Notify student
-                try {
-                    ptit.drl.evaluation.client.AuthServiceClient.UserIdResponse userIdResponse = 
-                        authServiceClient.getUserIdByStudentCode(evaluation.getStudentCode());
-                    if (userIdResponse != null && userIdResponse.isSuccess() && userIdResponse.getData() != null) {
-                        notificationService.createNotification(
-                            userIdResponse.getData(),
-                            "Đánh giá đã được nộp",
-                            String.format(
-                                "Đánh giá điểm rèn luyện của bạn (Học kỳ: %s) đã được nộp thành công. Vui lòng chờ duyệt.",
-                                evaluation.getSemester()
-                            ),
-                            ptit.drl.evaluation.entity.Notification.NotificationType.EVALUATION_SUBMITTED,
-                            "EVALUATION",
-                            updated.getId()
-                        );
-                    }
-                } catch (Exception e) {
-                    System.err.println("Warning: Failed to notify student about submission: " + e.getMessage());
-                }
-            } catch (Exception e) {
-                System.err.println("Error creating submit notifications: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
+        // Queue notifications (dispatched after commit by NotificationDispatcher)
+        notificationOutboxService.enqueue(NotificationOutbox.EventType.EVALUATION_SUBMITTED, updated, null);
         
         // Trigger async AI validation for all evidence files
         if (evidenceValidationService != null) {
@@ -681,100 +630,28 @@ public class EvaluationService {
             logger.info("[DEBUG] No scores provided in approval request");
         }
         
-        // Save sub-criteria scores if provided
-        // TODO: Move to separate table evaluation_sub_criteria_scores in future
-        // For now, store as JSON in comment field
+        // Save sub-criteria scores if provided (evaluation_sub_criteria_scores, one JDBC batch)
         if (subCriteriaScores != null && !subCriteriaScores.isEmpty()) {
             boolean isClassMonitor = approverRoles != null && approverRoles.contains("CLASS_MONITOR");
             boolean isAdvisor = approverRoles != null && approverRoles.contains("ADVISOR");
             boolean isAdmin = approverRoles != null && approverRoles.contains("ADMIN");
             
-            logger.info("[DEBUG] Processing subCriteriaScores: count={}, isClassMonitor={}, isAdvisor={}, isAdmin={}", 
-                subCriteriaScores.size(), isClassMonitor, isAdvisor, isAdmin);
-            
-            // Group sub-criteria scores by criteriaId
-            Map<Long, Map<String, Double>> scoresByCriteria = new HashMap<>();
-            for (Map.Entry<String, Double> entry : subCriteriaScores.entrySet()) {
-                String key = entry.getKey(); // format: "criterionId_subCriteriaId"
-                Double score = entry.getValue();
-                String[] parts = key.split("_", 2);
-                if (parts.length == 2) {
-                    try {
-                        Long criteriaId = Long.parseLong(parts[0]);
-                        String subCriteriaId = parts[1];
-                        scoresByCriteria.computeIfAbsent(criteriaId, k -> new HashMap<>()).put(subCriteriaId, score);
-                    } catch (NumberFormatException e) {
-                        logger.warn("[DEBUG] Invalid subCriteriaScore key format: {}", key);
-                    }
-                }
+            // ADMIN can save scores at any level
+            SubCriteriaScoreBulkRepository.Reviewer reviewer = null;
+            if ((isClassMonitor || isAdmin) && oldStatus == EvaluationStatus.SUBMITTED) {
+                reviewer = SubCriteriaScoreBulkRepository.Reviewer.CLASS_MONITOR;
+            } else if ((isAdvisor || isAdmin) && oldStatus == EvaluationStatus.CLASS_APPROVED) {
+                reviewer = SubCriteriaScoreBulkRepository.Reviewer.ADVISOR;
             }
             
-            // Save sub-criteria scores to evaluation details comment as JSON
-            for (Map.Entry<Long, Map<String, Double>> entry : scoresByCriteria.entrySet()) {
-                Long criteriaId = entry.getKey();
-                Map<String, Double> subScores = entry.getValue();
-                
-                EvaluationDetail detail = evaluation.getDetails().stream()
-                    .filter(d -> d.getCriteriaId().equals(criteriaId))
-                    .findFirst()
-                    .orElse(null);
-                
-                if (detail != null) {
-                    try {
-                        // Parse existing comment JSON if exists, otherwise create new
-                        Map<String, Object> commentData = new HashMap<>();
-                        String originalComment = detail.getComment();
-                        
-                        if (originalComment != null && !originalComment.isEmpty()) {
-                            // Check if comment is JSON (starts with {)
-                            if (originalComment.trim().startsWith("{")) {
-                                // It's JSON, parse it
-                                try {
-                                    ObjectMapper mapper = new ObjectMapper();
-                                    commentData = mapper.readValue(originalComment, Map.class);
-                                    logger.info("[DEBUG] Parsed existing JSON comment for criteria {}", criteriaId);
-                                } catch (Exception e) {
-                                    // JSON parse failed, treat as evidence string
-                                    logger.warn("[DEBUG] Failed to parse JSON comment, treating as evidence string: {}", e.getMessage());
-                                    commentData.put("evidence", originalComment);
-                                }
-                            } else {
-                                // Not JSON, it's evidence string - preserve it
-                                logger.info("[DEBUG] Comment is evidence string, preserving in evidence field");
-                                commentData.put("evidence", originalComment);
-                            }
-                        }
-                        
-                        // Add sub-criteria scores
-                        Map<String, Object> scoresData = new HashMap<>();
-                        if (commentData.containsKey("scores")) {
-                            scoresData = (Map<String, Object>) commentData.get("scores");
-                        }
-                        
-                        // ADMIN can save scores at any level
-                        if ((isClassMonitor || isAdmin) && oldStatus == EvaluationStatus.SUBMITTED) {
-                            scoresData.put("classMonitorSubCriteria", subScores);
-                            logger.info("[DEBUG] Saved class monitor sub-criteria scores for criteria {}: {}", 
-                                criteriaId, subScores);
-                        } else if ((isAdvisor || isAdmin) && oldStatus == EvaluationStatus.CLASS_APPROVED) {
-                            scoresData.put("advisorSubCriteria", subScores);
-                            logger.info("[DEBUG] Saved advisor sub-criteria scores for criteria {}: {}", 
-                                criteriaId, subScores);
-                        }
-                        
-                        commentData.put("scores", scoresData);
-                        
-                        // Save as JSON
-                        ObjectMapper mapper = new ObjectMapper();
-                        String jsonComment = mapper.writeValueAsString(commentData);
-                        detail.setComment(jsonComment);
-                        
-                        logger.info("[DEBUG] Saved JSON comment for criteria {}: {}", criteriaId, jsonComment);
-                        
-                    } catch (Exception e) {
-                        logger.error("[DEBUG] Failed to save sub-criteria scores as JSON: {}", e.getMessage(), e);
-                    }
-                }
+            if (reviewer != null) {
+                Set<Long> detailCriteriaIds = evaluation.getDetails().stream()
+                    .map(EvaluationDetail::getCriteriaId)
+                    .collect(Collectors.toSet());
+                Map<Long, Map<String, Double>> scoresByCriteria = groupSubCriteriaScores(subCriteriaScores);
+                scoresByCriteria.keySet().retainAll(detailCriteriaIds);
+                int saved = subCriteriaScoreBulkRepository.upsert(id, reviewer, scoresByCriteria);
+                logger.info("Saved {} {} sub-criteria scores for evaluation {}", saved, reviewer, id);
             }
         }
         
@@ -907,64 +784,15 @@ public class EvaluationService {
         }
         
         // Convert to DTO BEFORE sending notifications (to ensure transaction commits)
-        EvaluationDTO result = EvaluationMapper.toDTO(updated);
+        EvaluationDTO result = toDetailedDTO(updated);
         logger.info("Returning evaluation DTO with status: {} for evaluation {}", 
             result.getStatus(), result.getId());
         
-        // Send notifications AFTER converting to DTO (separate try-catch to prevent rollback)
-        // This ensures the transaction has committed before notifications
-        if (notificationService != null && authServiceClient != null) {
-            try {
-                // Get student info
-                StudentServiceClient.StudentResponse studentResponse = 
-                    studentServiceClient.getStudentByCode(evaluation.getStudentCode());
-                
-                if (studentResponse != null && studentResponse.isSuccess() && studentResponse.getData() != null) {
-                    StudentServiceClient.StudentDTO student = studentResponse.getData();
-                    
-                    // If not final approval, notify next level reviewers
-                    if (newStatus == EvaluationStatus.CLASS_APPROVED) {
-                        // Notify ADVISOR
-                        notificationService.notifyEvaluationEscalated(
-                            updated.getId(),
-                            student.getFullName(),
-                            student.getStudentCode(),
-                            "ADVISOR"
-                        );
-                    } else if (newStatus == EvaluationStatus.ADVISOR_APPROVED) {
-                        // Notify FACULTY
-                        notificationService.notifyEvaluationEscalated(
-                            updated.getId(),
-                            student.getFullName(),
-                            student.getStudentCode(),
-                            "FACULTY"
-                        );
-                    } else if (newStatus == EvaluationStatus.FACULTY_APPROVED) {
-                        // Final approval - notify student
-                        ptit.drl.evaluation.client.AuthServiceClient.UserIdResponse userIdResponse = 
-                            authServiceClient.getUserIdByStudentCode(evaluation.getStudentCode());
-                        if (userIdResponse != null && userIdResponse.isSuccess() && userIdResponse.getData() != null) {
-                            notificationService.createNotification(
-                                userIdResponse.getData(),
-                                "Đánh giá đã được duyệt",
-                                String.format(
-                                    "Đánh giá điểm rèn luyện của bạn (Học kỳ: %s) đã được duyệt hoàn tất. Điểm: %.1f",
-                                    evaluation.getSemester(),
-                                    evaluation.getTotalPoints() != null ? evaluation.getTotalPoints() : 0.0
-                                ),
-                                ptit.drl.evaluation.entity.Notification.NotificationType.EVALUATION_APPROVED,
-                                "EVALUATION",
-                                updated.getId()
-                            );
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                // Failed to create approval notifications - log but don't fail
-                logger.warn("Failed to create approval notifications for evaluation {}: {}", 
-                    updated.getId(), e.getMessage(), e);
-            }
-        }
+        // Queue notifications (next level reviewers, or student on final approval).
+        // Dispatched after commit by NotificationDispatcher, so remote lookups stay off this transaction.
+        Map<String, Object> notificationPayload = new HashMap<>();
+        notificationPayload.put("newStatus", newStatus.name());
+        notificationOutboxService.enqueue(NotificationOutbox.EventType.EVALUATION_APPROVED, updated, notificationPayload);
         
         return result;
     }
@@ -1001,28 +829,13 @@ public class EvaluationService {
         
         Evaluation updated = evaluationRepository.save(evaluation);
         
-        // Create notification for student when evaluation is rejected
-        if (notificationService != null && authServiceClient != null) {
-            try {
-                ptit.drl.evaluation.client.AuthServiceClient.UserIdResponse response = 
-                    authServiceClient.getUserIdByStudentCode(evaluation.getStudentCode());
-                if (response != null && response.isSuccess() && response.getData() != null) {
-                    Long userId = response.getData();
-                    // Use notifyEvaluationReturned for better UX
-                    String reviewerRole = level != null ? level : "Người duyệt";
-                    notificationService.notifyEvaluationReturned(
-                        evaluation.getId(),
-                        userId,
-                        reviewerRole,
-                        reason
-                    );
-                }
-            } catch (Exception e) {
-                // Failed to create rejection notification - continue
-            }
-        }
+        // Queue notification for student (dispatched after commit by NotificationDispatcher)
+        Map<String, Object> notificationPayload = new HashMap<>();
+        notificationPayload.put("level", level);
+        notificationPayload.put("reason", reason);
+        notificationOutboxService.enqueue(NotificationOutbox.EventType.EVALUATION_REJECTED, updated, notificationPayload);
         
-        return EvaluationMapper.toDTO(updated);
+        return toDetailedDTO(updated);
     }
     
     /**
@@ -1047,22 +860,23 @@ public class EvaluationService {
         evaluation.getDetails().clear();
         double totalScore = 0.0;
         
+        Long rubricId = evaluation.getRubric().getId();
+        Map<Long, RubricSnapshot.CriteriaSnapshot> rubricCriteria = loadRubricCriteria(rubricId);
         for (CreateEvaluationDetailRequest detailRequest : request.getDetails()) {
-            Criteria criteria = criteriaRepository.findById(detailRequest.getCriteriaId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                        "Criteria", "id", detailRequest.getCriteriaId()));
+            RubricSnapshot.CriteriaSnapshot criteria =
+                resolveCriteria(rubricCriteria, detailRequest.getCriteriaId(), rubricId);
             
-            if (detailRequest.getScore() > criteria.getMaxPoints()) {
+            if (detailRequest.getScore() > criteria.maxPoints()) {
                 throw new IllegalArgumentException(
                     String.format("Score %.2f exceeds max score %.2f",
-                        detailRequest.getScore(), criteria.getMaxPoints()));
+                        detailRequest.getScore(), criteria.maxPoints()));
             }
             
             EvaluationDetail detail = EvaluationMapper.toDetailEntity(
-                detailRequest, evaluation, criteria);
+                detailRequest, evaluation, criteriaRepository.getReferenceById(criteria.id()));
             
             // Preserve class monitor and advisor scores if they exist
-            EvaluationDetail existingDetail = existingDetails.get(criteria.getId());
+            EvaluationDetail existingDetail = existingDetails.get(criteria.id());
             if (existingDetail != null) {
                 detail.setClassMonitorScore(existingDetail.getClassMonitorScore());
                 detail.setAdvisorScore(existingDetail.getAdvisorScore());
@@ -1104,14 +918,137 @@ public class EvaluationService {
         evaluationHistoryRepository.save(history);
         
         Evaluation updated = evaluationRepository.save(evaluation);
-        return EvaluationMapper.toDTO(updated);
+        return toDetailedDTO(updated);
     }
     
     /**
      * Get pending evaluations for approval
      */
     @Transactional(readOnly = true)
-    public Page<EvaluationDTO> getPendingEvaluations(String level, Pageable pageable) {
+    public Page<EvaluationDTO> getPendingEvaluations(String level, String classCode, String facultyCode,
+                                                     Pageable pageable) {
+        if ((classCode == null || classCode.isBlank()) && (facultyCode == null || facultyCode.isBlank())) {
+            return evaluationRepository.findPendingEvaluations(pendingStatuses(level), pageable)
+                    .map(EvaluationMapper::toDTO);
+        }
+        
+        // Scoped queue: one query on idx_evaluation_class/faculty_status_submitted
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), PENDING_ORDER);
+        return evaluationRepository.findAll(pendingSpec(level, classCode, facultyCode), sorted)
+                .map(EvaluationMapper::toDTO);
+    }
+    
+    /**
+     * Get pending evaluations with keyset pagination on (submittedAt, id)
+     * Cost per page does not grow with depth, unlike offset pagination: with a single status the
+     * (status, submitted_at, id) indexes serve both the seek and the order, so level is required.
+     * @param level CLASS, ADVISOR or FACULTY
+     * @param cursor nextCursor from the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<EvaluationDTO> getPendingEvaluationsByCursor(String level, String classCode,
+                                                                   String facultyCode, String cursor, int size) {
+        if (level == null || !List.of("CLASS", "ADVISOR", "FACULTY").contains(level.toUpperCase())) {
+            throw new IllegalArgumentException("level must be one of CLASS, ADVISOR, FACULTY");
+        }
+        Specification<Evaluation> spec = pendingSpec(level, classCode, facultyCode)
+                .and(EvaluationSpecifications.isSubmitted());
+        if (cursor != null && !cursor.isBlank()) {
+            PendingCursor position = PendingCursor.decode(cursor);
+            spec = spec.and(EvaluationSpecifications.submittedAfter(position.submittedAt(), position.id()));
+        }
+        
+        // Fetch one extra row to know whether another page exists (no count query)
+        List<Evaluation> rows = evaluationRepository.findBy(spec, query -> query
+                .sortBy(PENDING_ORDER)
+                .project("rubric")
+                .limit(size + 1)
+                .all());
+        
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        
+        String nextCursor = null;
+        if (hasNext) {
+            Evaluation last = rows.get(rows.size() - 1);
+            nextCursor = new PendingCursor(last.getSubmittedAt(), last.getId()).encode();
+        }
+        
+        List<EvaluationDTO> content = rows.stream()
+                .map(EvaluationMapper::toSummaryDTO)
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, size, nextCursor);
+    }
+    
+    /**
+     * Full DTO with reviewer sub-criteria scores (one query for all of the evaluation's rows)
+     */
+    private EvaluationDTO toDetailedDTO(Evaluation evaluation) {
+        return EvaluationMapper.toDTO(evaluation, subCriteriaScoreRepository.findByEvaluationId(evaluation.getId()));
+    }
+    
+    /**
+     * Group "criteriaId_subCriteriaId" -> score entries by criteria id
+     */
+    private Map<Long, Map<String, Double>> groupSubCriteriaScores(Map<String, Double> subCriteriaScores) {
+        Map<Long, Map<String, Double>> scoresByCriteria = new HashMap<>();
+        for (Map.Entry<String, Double> entry : subCriteriaScores.entrySet()) {
+            String[] parts = entry.getKey().split("_", 2);
+            if (parts.length != 2 || entry.getValue() == null) {
+                logger.warn("Invalid sub-criteria score entry: {}={}", entry.getKey(), entry.getValue());
+                continue;
+            }
+            try {
+                Long criteriaId = Long.parseLong(parts[0]);
+                scoresByCriteria.computeIfAbsent(criteriaId, k -> new HashMap<>()).put(parts[1], entry.getValue());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid sub-criteria score key format: {}", entry.getKey());
+            }
+        }
+        return scoresByCriteria;
+    }
+    
+    /**
+     * Criteria of a rubric keyed by id, from the rubric snapshot cache
+     */
+    private Map<Long, RubricSnapshot.CriteriaSnapshot> loadRubricCriteria(Long rubricId) {
+        return rubricSnapshotCache.get(rubricId)
+                .map(snapshot -> snapshot.criteria().stream()
+                    .collect(Collectors.toMap(RubricSnapshot.CriteriaSnapshot::id, c -> c)))
+                .orElseThrow(() -> new ResourceNotFoundException("Rubric", "id", rubricId));
+    }
+    
+    /**
+     * Look up a detail's criteria in the rubric's criteria.
+     * Only the error path queries again, to tell an unknown id from a criteria of another rubric.
+     */
+    private RubricSnapshot.CriteriaSnapshot resolveCriteria(
+            Map<Long, RubricSnapshot.CriteriaSnapshot> rubricCriteria, Long criteriaId, Long rubricId) {
+        RubricSnapshot.CriteriaSnapshot criteria = rubricCriteria.get(criteriaId);
+        if (criteria != null) {
+            return criteria;
+        }
+        if (criteriaId == null || !criteriaRepository.existsById(criteriaId)) {
+            throw new ResourceNotFoundException("Criteria", "id", criteriaId);
+        }
+        throw new IllegalArgumentException(
+            "Criteria " + criteriaId + " does not belong to rubric " + rubricId);
+    }
+    
+    private Specification<Evaluation> pendingSpec(String level, String classCode, String facultyCode) {
+        return Specification.allOf(
+            EvaluationSpecifications.statusIn(pendingStatuses(level)),
+            EvaluationSpecifications.hasClassCode(classCode),
+            EvaluationSpecifications.hasFacultyCode(facultyCode)
+        );
+    }
+    
+    /**
+     * Statuses waiting for the given approval level (all levels if null/unknown)
+     */
+    private List<EvaluationStatus> pendingStatuses(String level) {
         List<EvaluationStatus> statuses = new ArrayList<>();
         
         if (level == null || level.equalsIgnoreCase("CLASS")) {
@@ -1131,9 +1068,102 @@ public class EvaluationService {
                 EvaluationStatus.ADVISOR_APPROVED
             );
         }
+        return statuses;
+    }
+    
+    /**
+     * Opaque keyset cursor for the pending queue: base64url("yyyy-MM-dd:id")
+     */
+    private record PendingCursor(LocalDate submittedAt, Long id) {
         
-        return evaluationRepository.findPendingEvaluations(statuses, pageable)
-                .map(EvaluationMapper::toDTO);
+        String encode() {
+            String raw = submittedAt + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static PendingCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf(':');
+                return new PendingCursor(
+                    LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+    }
+    
+    /**
+     * Search evaluations with database-side filtering and pagination
+     * List rows carry no details/history; student name/class/faculty are filled from
+     * the student cache in one batched lookup per page.
+     * @param studentCodes explicit student list, optional
+     * @param classCode class scope (evaluation's class snapshot), optional
+     * @param statuses status names, optional
+     */
+    @Transactional(readOnly = true)
+    public Page<EvaluationDTO> searchEvaluations(String studentCode, Collection<String> studentCodes,
+                                                 String classCode, String facultyCode,
+                                                 Collection<String> statuses, String semester,
+                                                 String academicYear, Long rubricId, Pageable pageable) {
+        Specification<Evaluation> spec = Specification.allOf(
+            EvaluationSpecifications.hasStudentCode(studentCode),
+            EvaluationSpecifications.studentCodeIn(studentCodes),
+            EvaluationSpecifications.hasClassCode(classCode),
+            EvaluationSpecifications.hasFacultyCode(facultyCode),
+            EvaluationSpecifications.statusIn(parseStatuses(statuses)),
+            EvaluationSpecifications.hasSemester(semester),
+            EvaluationSpecifications.hasAcademicYear(academicYear),
+            EvaluationSpecifications.hasRubricId(rubricId)
+        );
+        
+        Page<EvaluationDTO> page = evaluationRepository.findAll(spec, pageable)
+                .map(EvaluationMapper::toSummaryDTO);
+        fillStudentInfo(page.getContent());
+        return page;
+    }
+    
+    private List<EvaluationStatus> parseStatuses(Collection<String> statuses) {
+        if (statuses == null) {
+            return null;
+        }
+        List<EvaluationStatus> result = new ArrayList<>();
+        for (String status : statuses) {
+            if (status == null || status.isBlank()) {
+                continue;
+            }
+            try {
+                result.add(EvaluationStatus.valueOf(status.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid evaluation status: " + status);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Populate studentName/className/facultyName for list rows (best effort)
+     */
+    private void fillStudentInfo(List<EvaluationDTO> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, StudentServiceClient.StudentDTO> students = studentProfileCache.getStudentsByCodes(
+                rows.stream().map(EvaluationDTO::getStudentCode).collect(Collectors.toList()));
+            for (EvaluationDTO row : rows) {
+                StudentServiceClient.StudentDTO student = students.get(row.getStudentCode());
+                if (student != null) {
+                    row.setStudentName(student.getFullName());
+                    row.setClassName(student.getClassName());
+                    row.setFacultyName(student.getFacultyName());
+                }
+            }
+        } catch (Exception e) {
+            // Student-service unavailable - return rows without student info
+            logger.warn("Failed to load student info for evaluation list: {}", e.getMessage());
+        }
     }
     
     /**
@@ -1198,19 +1228,14 @@ public class EvaluationService {
         logger.info("[DRAFT] Saving draft scores for evaluation {}, approver {}, isClassMonitor={}, isAdvisor={}", 
             id, approverId, isClassMonitor, isAdvisor);
         
-        // Group sub-criteria scores by criteria
-        Map<Long, Map<String, Double>> scoresByCriteria = new HashMap<>();
-        for (Map.Entry<String, Double> entry : subCriteriaScores.entrySet()) {
-            String key = entry.getKey(); // "criteriaId_subCriteriaId"
-            String[] parts = key.split("_");
-            if (parts.length == 2) {
-                Long criteriaId = Long.parseLong(parts[0]);
-                String subCriteriaId = parts[1];
-                scoresByCriteria.computeIfAbsent(criteriaId, k -> new HashMap<>()).put(subCriteriaId, entry.getValue());
-            }
-        }
+        // Group sub-criteria scores by criteria (only criteria of this evaluation)
+        Map<Long, Map<String, Double>> scoresByCriteria = groupSubCriteriaScores(subCriteriaScores);
+        Set<Long> detailCriteriaIds = evaluation.getDetails().stream()
+            .map(EvaluationDetail::getCriteriaId)
+            .collect(Collectors.toSet());
+        scoresByCriteria.keySet().retainAll(detailCriteriaIds);
         
-        // Update scores in evaluation details
+        // Update criteria totals in evaluation details
         for (Map.Entry<Long, Map<String, Double>> entry : scoresByCriteria.entrySet()) {
             Long criteriaId = entry.getKey();
             Map<String, Double> subScores = entry.getValue();
@@ -1224,57 +1249,29 @@ public class EvaluationService {
                 .findFirst()
                 .orElse(null);
             
-            if (detail != null) {
-                // Save sub-criteria scores in comment as JSON
-                try {
-                    ObjectMapper mapper = new ObjectMapper();
-                    Map<String, Object> commentData = new HashMap<>();
-                    
-                    // Try to parse existing comment
-                    if (detail.getComment() != null && detail.getComment().trim().startsWith("{")) {
-                        try {
-                            commentData = mapper.readValue(detail.getComment(), Map.class);
-                        } catch (Exception e) {
-                            // If parse fails, start fresh
-                            logger.warn("[DRAFT] Failed to parse existing comment, starting fresh");
-                        }
-                    }
-                    
-                    // Get or create scores object
-                    Map<String, Object> scoresData = (Map<String, Object>) commentData.get("scores");
-                    if (scoresData == null) {
-                        scoresData = new HashMap<>();
-                        commentData.put("scores", scoresData);
-                    }
-                    
-                    // Update the appropriate sub-criteria scores
-                    if (isClassMonitor) {
-                        scoresData.put("classMonitorSubCriteria", subScores);
-                        detail.setClassMonitorScore(totalScore);
-                    } else if (isAdvisor) {
-                        scoresData.put("advisorSubCriteria", subScores);
-                        detail.setAdvisorScore(totalScore);
-                    }
-                    
-                    // Save back to comment
-                    detail.setComment(mapper.writeValueAsString(commentData));
-                    
-                    logger.info("[DRAFT] Saved draft scores for criteria {}: total={}, subScores={}", 
-                        criteriaId, totalScore, subScores);
-                    
-                } catch (Exception e) {
-                    logger.error("[DRAFT] Error saving draft scores", e);
-                    throw new RuntimeException("Failed to save draft scores", e);
-                }
+            if (detail == null) {
+                continue;
+            }
+            if (isClassMonitor) {
+                detail.setClassMonitorScore(totalScore);
+            } else {
+                detail.setAdvisorScore(totalScore);
             }
         }
         
+        // Sub-criteria scores go to evaluation_sub_criteria_scores in one JDBC batch
+        int saved = subCriteriaScoreBulkRepository.upsert(id,
+            isClassMonitor ? SubCriteriaScoreBulkRepository.Reviewer.CLASS_MONITOR
+                           : SubCriteriaScoreBulkRepository.Reviewer.ADVISOR,
+            scoresByCriteria);
+        logger.info("[DRAFT] Saved {} sub-criteria draft scores for evaluation {}", saved, id);
+        
         // Save evaluation (status remains SUBMITTED)
         evaluation = evaluationRepository.save(evaluation);
         
         logger.info("[DRAFT] Draft scores saved successfully for evaluation {}", id);
         
-        return EvaluationMapper.toDTO(evaluation);
+        return toDetailedDTO(evaluation);
     }
 }
 
@@ -0,0 +1,333 @@
+package ptit.drl.evaluation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ptit.drl.evaluation.entity.EvidenceFile;
+import ptit.drl.evaluation.repository.EvidenceFileRepository;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thumbnails and previews for evidence images.
+ * After an upload commits, {file}.thumb.jpg and {file}.preview.jpg are written next to the stored
+ * file on the bounded derivativeExecutor; uploads that could not be queued and files stored before
+ * this existed are picked up by the scheduled backfill. Deduplicated uploads share the blob's
+ * derivatives. Images are decoded with source subsampling, so a large photo is never fully
+ * materialized just to produce a small JPEG.
+ * WebP output is not produced: the JDK ImageIO has no WebP writer.
+ */
+@Service
+public class EvidenceDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EvidenceDerivativeService.class);
+
+    /**
+     * Sizes served by GET /files/evidence/...?size=
+     */
+    public enum Variant {
+        ORIGINAL(null),
+        PREVIEW("preview"),
+        THUMB("thumb");
+
+        private final String suffix;
+
+        Variant(String suffix) {
+            this.suffix = suffix;
+        }
+
+        public String suffix() {
+            return suffix;
+        }
+
+        /**
+         * Parse the size query parameter; unknown values mean the original
+         */
+        public static Variant fromParam(String size) {
+            if (size == null) {
+                return ORIGINAL;
+            }
+            return switch (size.toLowerCase(Locale.ROOT)) {
+                case "thumb", "thumbnail" -> THUMB;
+                case "preview", "medium" -> PREVIEW;
+                default -> ORIGINAL;
+            };
+        }
+    }
+
+    private final EvidenceFileRepository evidenceFileRepository;
+    private final Executor executor;
+    private final int thumbSize;
+    private final int previewSize;
+    private final float jpegQuality;
+    private final int backfillBatchSize;
+
+    // Files queued or being processed, so the backfill does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Timer generateTimer;
+    private final Counter generatedCounter;
+    private final Counter skippedCounter;
+
+    public EvidenceDerivativeService(EvidenceFileRepository evidenceFileRepository,
+                                     @Qualifier("derivativeExecutor") Executor executor,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${file.derivatives.thumb-size:320}") int thumbSize,
+                                     @Value("${file.derivatives.preview-size:1280}") int previewSize,
+                                     @Value("${file.derivatives.jpeg-quality:0.8}") float jpegQuality,
+                                     @Value("${file.derivatives.backfill.batch-size:50}") int backfillBatchSize) {
+        this.evidenceFileRepository = evidenceFileRepository;
+        this.executor = executor;
+        this.thumbSize = thumbSize;
+        this.previewSize = previewSize;
+        this.jpegQuality = jpegQuality;
+        this.backfillBatchSize = backfillBatchSize;
+        this.generateTimer = Timer.builder("evidence.derivatives.duration")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.generatedCounter = Counter.builder("evidence.derivatives").tag("result", "generated").register(meterRegistry);
+        this.skippedCounter = Counter.builder("evidence.derivatives").tag("result", "skipped").register(meterRegistry);
+    }
+
+    /**
+     * Where a variant of a stored file lives (ORIGINAL = the file itself)
+     */
+    public static Path derivativePath(Path original, Variant variant) {
+        if (variant == Variant.ORIGINAL) {
+            return original;
+        }
+        return original.resolveSibling(original.getFileName() + "." + variant.suffix() + ".jpg");
+    }
+
+    /**
+     * Queue generation for a new upload once the current transaction commits
+     */
+    public void scheduleAfterCommit(EvidenceFile file) {
+        if (!isImage(file.getFileType())) {
+            return;
+        }
+        Long fileId = file.getId();
+        Path original = Paths.get(file.getFilePath());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(fileId, original);
+                }
+            });
+        } else {
+            submit(fileId, original);
+        }
+    }
+
+    /**
+     * Preview of an image, generated now if the background task has not produced it yet
+     * (used by AI scoring, which should never send the full-resolution original)
+     * @return the preview JPEG, or null when ImageIO cannot decode the image
+     */
+    public Path ensurePreview(Path original) throws IOException {
+        Path preview = derivativePath(original, Variant.PREVIEW);
+        if (Files.exists(preview)) {
+            return preview;
+        }
+        BufferedImage image = readSubsampled(original, previewSize);
+        if (image == null) {
+            return null;
+        }
+        writeJpeg(scaleToFit(image, previewSize), preview);
+        return preview;
+    }
+
+    /**
+     * Delete the derivatives of a stored file (called when the file itself is deleted)
+     */
+    public void deleteDerivatives(Path original) {
+        for (Variant variant : List.of(Variant.PREVIEW, Variant.THUMB)) {
+            try {
+                Files.deleteIfExists(derivativePath(original, variant));
+            } catch (IOException e) {
+                logger.warn("Failed to delete {} of {}: {}", variant, original, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Queue images that have no derivatives yet (uploads before this feature, or that hit a full queue)
+     */
+    @Scheduled(initialDelayString = "${file.derivatives.backfill.initial-delay-ms:120000}",
+               fixedDelayString = "${file.derivatives.backfill.interval-ms:300000}")
+    public void backfill() {
+        List<EvidenceFile> pending = evidenceFileRepository.findPendingDerivatives(
+                PageRequest.of(0, backfillBatchSize + inFlight.size()));
+        int queued = 0;
+        for (EvidenceFile file : pending) {
+            if (queued >= backfillBatchSize) {
+                break;
+            }
+            if (!inFlight.contains(file.getId()) && submit(file.getId(), Paths.get(file.getFilePath()))) {
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            logger.info("Evidence derivative backfill: {} images queued", queued);
+        }
+    }
+
+    private boolean submit(Long fileId, Path original) {
+        if (!inFlight.add(fileId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateTimer.record(() -> generate(fileId, original));
+                } finally {
+                    inFlight.remove(fileId);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException | RejectedExecutionException e) {
+            inFlight.remove(fileId);
+            logger.debug("Derivative queue full, file {} left for backfill", fileId);
+            return false;
+        }
+    }
+
+    private void generate(Long fileId, Path original) {
+        try {
+            Path preview = derivativePath(original, Variant.PREVIEW);
+            Path thumb = derivativePath(original, Variant.THUMB);
+            if (Files.exists(preview) && Files.exists(thumb)) {
+                // Same content uploaded before (shared blob)
+                skippedCounter.increment();
+                return;
+            }
+            BufferedImage image = readSubsampled(original, previewSize);
+            if (image == null) {
+                // Not decodable by ImageIO (e.g. WebP): original is served for every size
+                skippedCounter.increment();
+                logger.debug("No ImageIO reader for {}, derivatives skipped", original);
+                return;
+            }
+            BufferedImage previewImage = scaleToFit(image, previewSize);
+            writeJpeg(previewImage, preview);
+            writeJpeg(scaleToFit(previewImage, thumbSize), thumb);
+            generatedCounter.increment();
+        } catch (Exception e) {
+            skippedCounter.increment();
+            logger.warn("Failed to generate derivatives for file {} ({}): {}", fileId, original, e.getMessage());
+        } finally {
+            // Processed either way; a file that cannot be decoded is not retried by the backfill
+            evidenceFileRepository.markDerivativesProcessed(fileId, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Decode with the largest subsampling that still leaves at least targetSize pixels on the long side
+     */
+    private static BufferedImage readSubsampled(Path path, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longSide / targetSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale so the long side is at most maxSize, flattening transparency onto white (JPEG has no alpha)
+     */
+    private static BufferedImage scaleToFit(BufferedImage source, int maxSize) {
+        int longSide = Math.max(source.getWidth(), source.getHeight());
+        double scale = longSide > maxSize ? (double) maxSize / longSide : 1.0;
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Write to a temp file next to the target and rename, so readers never see a partial JPEG
+     * (the temp name is unique: the background task and ensurePreview may write the same target)
+     */
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static boolean isImage(String contentType) {
+        return contentType != null && contentType.startsWith("image/");
+    }
+}
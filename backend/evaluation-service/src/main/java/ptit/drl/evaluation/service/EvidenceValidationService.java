@@ -5,13 +5,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import ptit.drl.evaluation.client.AiValidationServiceClient;
-import ptit.drl.evaluation.entity.Criteria;
+import ptit.drl.evaluation.dto.RubricSnapshot;
 import ptit.drl.evaluation.entity.EvidenceFile;
 import ptit.drl.evaluation.entity.Evaluation;
-import ptit.drl.evaluation.repository.CriteriaRepository;
 import ptit.drl.evaluation.repository.EvidenceFileRepository;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
@@ -27,7 +25,7 @@ public class EvidenceValidationService {
     
     private final AiValidationServiceClient aiValidationServiceClient;
     private final EvidenceFileRepository evidenceFileRepository;
-    private final CriteriaRepository criteriaRepository;
+    private final RubricSnapshotCache rubricSnapshotCache;
     
     /**
      * Trigger validation for all evidence files in an evaluation (async)
@@ -73,8 +71,8 @@ public class EvidenceValidationService {
      */
     private void validateEvidenceFile(EvidenceFile file, Evaluation evaluation) {
         try {
-            // Get criteria details
-            Criteria criteria = criteriaRepository.findById(file.getCriteriaId())
+            // Get criteria details (cached snapshot, sub-criteria already parsed)
+            RubricSnapshot.CriteriaSnapshot criteria = rubricSnapshotCache.findCriteria(file.getCriteriaId())
                     .orElseThrow(() -> new RuntimeException(
                             "Criteria not found: " + file.getCriteriaId()));
             
@@ -100,14 +98,14 @@ public class EvidenceValidationService {
      * Build validation request from evidence file and criteria
      */
     private AiValidationServiceClient.ValidationRequest buildValidationRequest(
-            EvidenceFile file, Evaluation evaluation, Criteria criteria) {
+            EvidenceFile file, Evaluation evaluation, RubricSnapshot.CriteriaSnapshot criteria) {
         
         AiValidationServiceClient.ValidationRequest request = 
                 new AiValidationServiceClient.ValidationRequest();
         
         request.setEvidenceFileId(file.getId());
         request.setEvaluationId(evaluation.getId());
-        request.setCriteriaId(criteria.getId());
+        request.setCriteriaId(criteria.id());
         request.setSubCriteriaId(file.getSubCriteriaId());
         
         // Build full file URL
@@ -122,16 +120,16 @@ public class EvidenceValidationService {
         // Build criteria info
         AiValidationServiceClient.ValidationRequest.CriteriaInfo criteriaInfo = 
                 new AiValidationServiceClient.ValidationRequest.CriteriaInfo();
-        criteriaInfo.setId(criteria.getId());
-        criteriaInfo.setName(criteria.getName());
-        criteriaInfo.setDescription(criteria.getDescription());
-        criteriaInfo.setMaxPoints(criteria.getMaxPoints());
+        criteriaInfo.setId(criteria.id());
+        criteriaInfo.setName(criteria.name());
+        criteriaInfo.setDescription(criteria.description());
+        criteriaInfo.setMaxPoints(criteria.maxPoints());
         
-        // Parse sub-criteria from criteria description
-        // Sub-criteria are stored in description with format:
-        // "Bao gồm:\n1.1. Name: Description (Điểm: X)\n1.2. Name: Description (Điểm: Y)"
+        // Sub-criteria parsed from the "Bao gồm:" section of the description (see SubCriteriaParser)
         List<AiValidationServiceClient.ValidationRequest.SubCriteriaInfo> subCriteriaList = 
-                parseSubCriteriaFromDescription(criteria.getDescription(), criteria.getOrderIndex());
+                criteria.subCriteria().stream()
+                        .map(this::toSubCriteriaInfo)
+                        .collect(Collectors.toList());
         criteriaInfo.setSubCriteria(subCriteriaList);
         
         request.setCriteria(criteriaInfo);
@@ -139,76 +137,14 @@ public class EvidenceValidationService {
         return request;
     }
     
-    /**
-     * Parse sub-criteria from criteria description
-     * Format: "Bao gồm:\n1.1. Name: Description (Điểm: X)\n1.2. Name: Description (Điểm: Y)"
-     */
-    private List<AiValidationServiceClient.ValidationRequest.SubCriteriaInfo> 
-            parseSubCriteriaFromDescription(String description, Integer orderIndex) {
-        
-        List<AiValidationServiceClient.ValidationRequest.SubCriteriaInfo> subCriteriaList = 
-                new ArrayList<>();
-        
-        if (description == null || description.trim().isEmpty()) {
-            return subCriteriaList;
-        }
-        
-        // Look for "Bao gồm:" section
-        String baoGomSection = null;
-        String[] lines = description.split("\n");
-        boolean inBaoGomSection = false;
-        StringBuilder baoGomBuilder = new StringBuilder();
-        
-        for (String line : lines) {
-            if (line.trim().startsWith("Bao gồm:") || line.trim().startsWith("bao gồm:")) {
-                inBaoGomSection = true;
-                continue;
-            }
-            if (inBaoGomSection) {
-                baoGomBuilder.append(line).append("\n");
-            }
-        }
-        
-        if (baoGomBuilder.length() > 0) {
-            baoGomSection = baoGomBuilder.toString();
-        }
-        
-        if (baoGomSection == null || baoGomSection.trim().isEmpty()) {
-            return subCriteriaList;
-        }
-        
-        // Parse sub-criteria lines
-        // Pattern: "1.1. Name: Description (Điểm: X)" or "1.1. Name: Description"
-        String pattern = "(\\d+\\.\\d+)\\.\\s*([^:]+):\\s*([^(]+?)(?:\\(Điểm:\\s*(\\d+(?:\\.\\d+)?)\\))?";
-        java.util.regex.Pattern regex = java.util.regex.Pattern.compile(pattern);
-        java.util.regex.Matcher matcher = regex.matcher(baoGomSection);
-        
-        while (matcher.find()) {
-            String subId = matcher.group(1); // e.g., "1.1"
-            String name = matcher.group(2).trim();
-            String subDescription = matcher.group(3).trim();
-            String pointsStr = matcher.group(4); // Optional points
-            
-            Double maxPoints = null;
-            if (pointsStr != null && !pointsStr.isEmpty()) {
-                try {
-                    maxPoints = Double.parseDouble(pointsStr);
-                } catch (NumberFormatException e) {
-                    // Ignore if can't parse
-                }
-            }
-            
-            AiValidationServiceClient.ValidationRequest.SubCriteriaInfo subCriteria = 
-                    new AiValidationServiceClient.ValidationRequest.SubCriteriaInfo();
-            subCriteria.setId(subId);
-            subCriteria.setName(name);
-            subCriteria.setDescription(subDescription);
-            subCriteria.setMaxPoints(maxPoints);
-            
-            subCriteriaList.add(subCriteria);
-        }
-        
-        return subCriteriaList;
+    private AiValidationServiceClient.ValidationRequest.SubCriteriaInfo toSubCriteriaInfo(
+            RubricSnapshot.SubCriteriaSnapshot snapshot) {
+        AiValidationServiceClient.ValidationRequest.SubCriteriaInfo subCriteria = 
+                new AiValidationServiceClient.ValidationRequest.SubCriteriaInfo();
+        subCriteria.setId(snapshot.id());
+        subCriteria.setName(snapshot.name());
+        subCriteria.setDescription(snapshot.description());
+        subCriteria.setMaxPoints(snapshot.maxPoints());
+        return subCriteria;
     }
 }
-
@@ -1,29 +1,72 @@
 package ptit.drl.evaluation.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import ptit.drl.evaluation.entity.EvidenceFile;
 import ptit.drl.evaluation.exception.ResourceNotFoundException;
+import ptit.drl.evaluation.repository.EvidenceBlobRepository;
 import ptit.drl.evaluation.repository.EvidenceFileRepository;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
 
 /**
  * Service for handling file uploads and downloads
+ * Uploads are content-addressed: bytes are hashed while streaming to a temp file and moved to
+ * blobs/{hash[0:2]}/{hash[2:4]}/{hash} only if that content is not stored yet; evidence_blobs
+ * counts the EvidenceFile rows sharing a blob and the file is removed with the last one.
+ * Download metadata is cached by stored file name (names are immutable UUIDs);
+ * metrics: cache=evidenceFileMetadata, evidence.upload{result=stored|deduplicated}.
+ * Image thumbnails / previews are generated by EvidenceDerivativeService after upload.
  */
 @Service
 public class FileService {
     
+    private static final Logger logger = LoggerFactory.getLogger(FileService.class);
+    
+    /**
+     * What downloadFile needs to serve a file without touching the database
+     * @param contentHash SHA-256 hex of the bytes (strong ETag)
+     * @param lastModified epoch millis of the file on disk
+     */
+    public record StoredFile(Long id, Long evaluationId, Long criteriaId, String fileName, String fileType,
+                             Path path, long size, long lastModified, String contentHash) {}
+    
     private final EvidenceFileRepository evidenceFileRepository;
+    private final EvidenceBlobRepository evidenceBlobRepository;
+    private final EvidenceDerivativeService evidenceDerivativeService;
+    private final TransactionTemplate blobDeleteTransaction;
+    private final Cache<String, StoredFile> metadataCache;
+    private final Counter storedCounter;
+    private final Counter deduplicatedCounter;
     
     @Value("${file.upload-dir:./uploads/evidence}")
     private String uploadDir;
@@ -48,8 +91,25 @@ public class FileService {
         "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet" // .xlsx
     );
     
-    public FileService(EvidenceFileRepository evidenceFileRepository) {
+    public FileService(EvidenceFileRepository evidenceFileRepository,
+                       EvidenceBlobRepository evidenceBlobRepository,
+                       EvidenceDerivativeService evidenceDerivativeService,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${file.metadata-cache.max-size:10000}") long metadataCacheSize) {
         this.evidenceFileRepository = evidenceFileRepository;
+        this.evidenceBlobRepository = evidenceBlobRepository;
+        this.evidenceDerivativeService = evidenceDerivativeService;
+        // afterCommit runs outside the committed transaction: the re-check needs its own
+        this.blobDeleteTransaction = new TransactionTemplate(transactionManager);
+        this.blobDeleteTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.metadataCache = Caffeine.newBuilder()
+                .maximumSize(metadataCacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, metadataCache, "evidenceFileMetadata");
+        this.storedCounter = Counter.builder("evidence.upload").tag("result", "stored").register(meterRegistry);
+        this.deduplicatedCounter = Counter.builder("evidence.upload").tag("result", "deduplicated").register(meterRegistry);
     }
     
     @PostConstruct
@@ -61,6 +121,8 @@ public class FileService {
             if (!Files.exists(uploadPath)) {
                 Files.createDirectories(uploadPath);
             }
+            // Temp files live under the upload dir so the final move is an atomic rename
+            Files.createDirectories(tempDir());
         } catch (IOException e) {
             throw new RuntimeException("Failed to create upload directory: " + uploadDir, e);
         }
@@ -68,7 +130,9 @@ public class FileService {
     
     /**
      * Upload a file and save metadata to database
+     * Identical content already stored costs no extra disk: the new record points at the existing blob.
      */
+    @Transactional
     public EvidenceFile uploadFile(MultipartFile file, Long evaluationId, Long criteriaId, 
                                   String subCriteriaId, Long uploadedBy) throws IOException {
         // Validate file
@@ -79,15 +143,34 @@ public class FileService {
         String extension = getFileExtension(originalFilename);
         String storedFileName = UUID.randomUUID().toString() + extension;
         
-        // Create directory structure: uploads/evidence/{evaluationId or '0'}/{criteriaId}/
-        // Use '0' as placeholder for null evaluationId to match URL structure
-        String evalDirName = evaluationId != null ? String.valueOf(evaluationId) : "0";
-        Path evaluationDir = Paths.get(uploadDir, evalDirName, String.valueOf(criteriaId));
-        Files.createDirectories(evaluationDir);
-        
-        // Save file
-        Path filePath = evaluationDir.resolve(storedFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Stream to a temp file, hashing the bytes on the way through
+        Path tempFile = Files.createTempFile(tempDir(), "upload-", ".part");
+        String contentHash;
+        long fileSize;
+        Path filePath;
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            contentHash = HexFormat.of().formatHex(digest.digest());
+            fileSize = Files.size(tempFile);
+            filePath = blobPath(contentHash);
+            
+            // Count the reference first: the blob row stays locked until commit, so a concurrent
+            // delete of the last reference cannot remove the file between this check and the move
+            evidenceBlobRepository.acquire(contentHash, filePath.toString(), fileSize);
+            if (Files.exists(filePath)) {
+                deduplicatedCounter.increment();
+                logger.debug("Upload {} deduplicated to blob {}", originalFilename, contentHash);
+            } else {
+                Files.createDirectories(filePath.getParent());
+                Files.move(tempFile, filePath, StandardCopyOption.ATOMIC_MOVE);
+                storedCounter.increment();
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
         
         // Generate file URL
         // If evaluationId is null, use 0 as placeholder (will be updated later)
@@ -105,10 +188,13 @@ public class FileService {
         evidenceFile.setFilePath(filePath.toString());
         evidenceFile.setFileUrl(fileUrl);
         evidenceFile.setFileType(file.getContentType());
-        evidenceFile.setFileSize(file.getSize());
+        evidenceFile.setFileSize(fileSize);
         evidenceFile.setUploadedBy(uploadedBy);
+        evidenceFile.setContentHash(contentHash);
         
-        return evidenceFileRepository.save(evidenceFile);
+        EvidenceFile saved = evidenceFileRepository.save(evidenceFile);
+        evidenceDerivativeService.scheduleAfterCommit(saved);
+        return saved;
     }
     
     /**
@@ -127,6 +213,35 @@ public class FileService {
             .orElseThrow(() -> new ResourceNotFoundException("EvidenceFile", "storedFileName", storedFileName));
     }
     
+    /**
+     * Get download metadata by stored filename, from cache when available
+     * @throws ResourceNotFoundException if there is no such record or the file is missing on disk
+     */
+    public StoredFile getStoredFile(String storedFileName) {
+        return metadataCache.get(storedFileName, this::loadStoredFile);
+    }
+    
+    /**
+     * Thumbnail / preview of an image file for serving, or the file itself when the variant is
+     * ORIGINAL, the file is not an image, or the derivative has not been generated yet
+     */
+    public StoredFile resolveVariant(StoredFile file, EvidenceDerivativeService.Variant variant) {
+        if (variant == EvidenceDerivativeService.Variant.ORIGINAL
+                || file.fileType() == null || !file.fileType().startsWith("image/")) {
+            return file;
+        }
+        Path derivative = EvidenceDerivativeService.derivativePath(file.path(), variant);
+        try {
+            return new StoredFile(file.id(), file.evaluationId(), file.criteriaId(), file.fileName(),
+                    "image/jpeg", derivative, Files.size(derivative),
+                    Files.getLastModifiedTime(derivative).toMillis(),
+                    file.contentHash() + "-" + variant.suffix());
+        } catch (IOException e) {
+            // Not generated yet (or not decodable): serve the original
+            return file;
+        }
+    }
+    
     /**
      * Get file path for serving
      */
@@ -166,18 +281,18 @@ public class FileService {
     
     /**
      * Delete file
+     * The stored bytes are removed only when no other record references the same content
      */
+    @Transactional
     public void deleteFile(Long fileId) throws IOException {
         EvidenceFile file = getFileById(fileId);
         
-        // Delete physical file
-        Path filePath = Paths.get(file.getFilePath());
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
-        }
-        
         // Delete database record
         evidenceFileRepository.delete(file);
+        metadataCache.invalidate(file.getStoredFileName());
+        
+        // Delete physical file (if this was the last reference)
+        releaseStoredFile(file);
     }
     
     /**
@@ -216,6 +331,7 @@ public class FileService {
                     evaluationId, file.getCriteriaId(), file.getStoredFileName());
                 file.setFileUrl(newFileUrl);
                 evidenceFileRepository.save(file);
+                metadataCache.invalidate(file.getStoredFileName());
             }
         }
     }
@@ -223,17 +339,121 @@ public class FileService {
     /**
      * Delete all files for an evaluation
      */
+    @Transactional
     public void deleteFilesByEvaluationId(Long evaluationId) throws IOException {
         List<EvidenceFile> files = getFilesByEvaluationId(evaluationId);
         
+        evidenceFileRepository.deleteByEvaluationId(evaluationId);
+        
         for (EvidenceFile file : files) {
-            Path filePath = Paths.get(file.getFilePath());
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
+            metadataCache.invalidate(file.getStoredFileName());
+            releaseStoredFile(file);
+        }
+    }
+    
+    /**
+     * Drop one reference to a record's bytes and delete them when it was the last.
+     * Files stored before content addressing (per-upload path) are deleted directly.
+     * The file is only removed after the transaction commits: a rollback restores the reference,
+     * and the bytes must still be there.
+     */
+    private void releaseStoredFile(EvidenceFile file) {
+        Path filePath = Paths.get(file.getFilePath());
+        String contentHash = file.getContentHash();
+        boolean blob = contentHash != null && filePath.equals(blobPath(contentHash));
+        if (blob && evidenceBlobRepository.release(contentHash) > 0) {
+            return;
+        }
+        String blobHash = blob ? contentHash : null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteStoredFile(filePath, blobHash);
+                }
+            });
+        } else {
+            deleteStoredFile(filePath, blobHash);
+        }
+    }
+    
+    /**
+     * Delete a file and its derivatives; for a blob, only if no upload has referenced the
+     * same content again since the release committed (checked under the blob's lock)
+     */
+    private void deleteStoredFile(Path filePath, String blobHash) {
+        try {
+            if (blobHash == null) {
+                deletePhysicalFile(filePath);
+                return;
             }
+            blobDeleteTransaction.executeWithoutResult(status -> {
+                if (evidenceBlobRepository.lockIfUnreferenced(blobHash)) {
+                    deletePhysicalFile(filePath);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Failed to delete stored file {}: {}", filePath, e.getMessage());
+        }
+    }
+    
+    private void deletePhysicalFile(Path filePath) {
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        evidenceDerivativeService.deleteDerivatives(filePath);
+    }
+    
+    /**
+     * blobs/{hash[0:2]}/{hash[2:4]}/{hash}: two shard levels keep directories small
+     */
+    private Path blobPath(String contentHash) {
+        return Paths.get(uploadDir, "blobs", contentHash.substring(0, 2), contentHash.substring(2, 4), contentHash);
+    }
+    
+    private Path tempDir() {
+        return Paths.get(uploadDir, "tmp");
+    }
+    
+    private StoredFile loadStoredFile(String storedFileName) {
+        EvidenceFile file = getFileByStoredFileName(storedFileName);
+        Path path = Paths.get(file.getFilePath());
+        if (!Files.isReadable(path)) {
+            logger.error("File not found on disk: {}", path);
+            throw new ResourceNotFoundException("EvidenceFile", "storedFileName", storedFileName);
+        }
+        try {
+            String contentHash = file.getContentHash();
+            if (contentHash == null) {
+                // Uploaded before content hashes were recorded: hash once and keep it
+                contentHash = hashFile(path);
+                evidenceFileRepository.updateContentHash(file.getId(), contentHash);
+            }
+            return new StoredFile(file.getId(), file.getEvaluationId(), file.getCriteriaId(),
+                    file.getFileName(), file.getFileType(), path, Files.size(path),
+                    Files.getLastModifiedTime(path).toMillis(), contentHash);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read file metadata: " + path, e);
+        }
+    }
+    
+    private static String hashFile(Path path) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException(e);
         }
-        
-        evidenceFileRepository.deleteByEvaluationId(evaluationId);
     }
     
     /**
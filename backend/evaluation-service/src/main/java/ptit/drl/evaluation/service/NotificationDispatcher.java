@@ -0,0 +1,324 @@
+package ptit.drl.evaluation.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ptit.drl.evaluation.client.AuthServiceClient;
+import ptit.drl.evaluation.client.StudentProfileCache;
+import ptit.drl.evaluation.client.StudentServiceClient;
+import ptit.drl.evaluation.entity.Evaluation;
+import ptit.drl.evaluation.entity.Notification;
+import ptit.drl.evaluation.entity.NotificationOutbox;
+import ptit.drl.evaluation.repository.EvaluationRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dispatches notification outbox entries off the request path.
+ * Triggered after each evaluation transaction commits and by a periodic poll
+ * (picks up retries and entries left behind by a restart).
+ * Also runs all-user broadcasts after their transaction commits.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Autowired
+    private NotificationOutboxService outboxService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private StudentProfileCache studentProfileCache;
+
+    @Autowired
+    private EvaluationRepository evaluationRepository;
+
+    @Autowired(required = false)
+    private AuthServiceClient authServiceClient;
+
+    @Autowired
+    @Qualifier("notificationDispatchExecutor")
+    private Executor dispatchExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.outbox.processing-timeout-minutes:5}")
+    private long processingTimeoutMinutes;
+
+    @Value("${notification.outbox.retention-days:7}")
+    private int retentionDays;
+
+    // Coalesces wake-ups: at most one drain loop queued behind the running ones
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    private Timer dispatchTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        dispatchTimer = Timer.builder("notifications.outbox.dispatch.duration")
+            .description("Time to resolve recipients and create notifications for one outbox entry")
+            .register(meterRegistry);
+        Gauge.builder("notifications.outbox.pending", outboxService, NotificationOutboxService::countPending)
+            .description("Outbox entries waiting for dispatch")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Wake the dispatcher once the transaction that wrote the entry has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onEnqueued(NotificationOutbox entry) {
+        triggerDrain();
+    }
+
+    /**
+     * Fan-out to all users (period created / reminder, rubric activated/updated), started only after the
+     * publishing transaction commits: a rolled back period never notifies anyone
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBroadcastRequested(NotificationService.BroadcastRequested request) {
+        try {
+            dispatchExecutor.execute(() -> notificationService.broadcast(request));
+        } catch (RejectedExecutionException e) {
+            // Pool saturated: these requests have no outbox row to retry from, so run inline
+            logger.warn("Notification dispatch pool saturated, running {} fan-out inline", request.type());
+            notificationService.broadcast(request);
+        }
+    }
+
+    /**
+     * Periodic poll: release stale claims and drain due entries (retries)
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        try {
+            int released = outboxService.releaseStale(
+                LocalDateTime.now().minusMinutes(processingTimeoutMinutes));
+            if (released > 0) {
+                logger.warn("Released {} stale notification outbox entries", released);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to release stale notification outbox entries: {}", e.getMessage());
+        }
+        triggerDrain();
+    }
+
+    /**
+     * Delete dispatched entries older than the retention window
+     * Runs daily at 3:00 AM
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    public void cleanup() {
+        int deleted = outboxService.deleteProcessed(retentionDays);
+        if (deleted > 0) {
+            logger.info("Deleted {} processed notification outbox entries", deleted);
+        }
+    }
+
+    private void triggerDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatchExecutor.execute(() -> {
+                drainScheduled.set(false);
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool saturated - entries stay PENDING and the next poll picks them up
+            drainScheduled.set(false);
+            meterRegistry.counter("notifications.outbox.dispatch.rejected").increment();
+        }
+    }
+
+    /**
+     * Claim and process batches until no due entries remain
+     */
+    private void drain() {
+        List<NotificationOutbox> batch;
+        do {
+            try {
+                batch = outboxService.claimBatch(batchSize);
+            } catch (Exception e) {
+                logger.warn("Failed to claim notification outbox batch: {}", e.getMessage());
+                return;
+            }
+            for (NotificationOutbox entry : batch) {
+                process(entry);
+            }
+        } while (batch.size() >= batchSize);
+    }
+
+    private void process(NotificationOutbox entry) {
+        long startNanos = System.nanoTime();
+        try {
+            Map<String, Object> payload = outboxService.readPayload(entry);
+            switch (entry.getEventType()) {
+                case EVALUATION_SUBMITTED -> handleSubmitted(entry, payload);
+                case EVALUATION_APPROVED -> handleApproved(entry, payload);
+                case EVALUATION_REJECTED -> handleRejected(entry, payload);
+            }
+            outboxService.markDone(entry.getId());
+            meterRegistry.counter("notifications.outbox.dispatched",
+                "event", entry.getEventType().name(), "result", "success").increment();
+        } catch (Exception e) {
+            outboxService.markFailed(entry.getId(), e.getMessage());
+            meterRegistry.counter("notifications.outbox.dispatched",
+                "event", entry.getEventType().name(), "result", "failure").increment();
+        } finally {
+            dispatchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * SUBMITTED: notify class reviewers, then the student
+     */
+    private void handleSubmitted(NotificationOutbox entry, Map<String, Object> payload) {
+        // Reviewers are found by the class/faculty stored on the evaluation
+        Evaluation evaluation = evaluationRepository.findById(entry.getEvaluationId()).orElse(null);
+        String classCode = evaluation != null ? evaluation.getClassCode() : null;
+        String facultyCode = evaluation != null ? evaluation.getFacultyCode() : null;
+
+        String studentName = entry.getStudentCode(); // Fallback
+        StudentServiceClient.StudentDTO student = getStudent(entry.getStudentCode());
+        if (student != null) {
+            studentName = student.getFullName();
+            if (classCode == null) {
+                // Row not backfilled yet
+                classCode = student.getClassCode();
+                facultyCode = student.getFacultyCode();
+            }
+        }
+        if (classCode == null) {
+            // Nobody could be notified; fail so the outbox retries instead of marking it done
+            throw new IllegalStateException("Class of evaluation " + entry.getEvaluationId() + " is unknown");
+        }
+
+        // Notifications are de-duplicated per user and evaluation, so a retry does not repeat them
+        notificationService.notifyEvaluationNeedsReview(
+            entry.getEvaluationId(),
+            studentName,
+            entry.getStudentCode(),
+            classCode,
+            facultyCode,
+            "SUBMITTED"
+        );
+
+        Long userId = getStudentUserId(entry.getStudentCode());
+        if (userId != null) {
+            notificationService.createNotificationOnce(
+                userId,
+                "Đánh giá đã được nộp",
+                String.format(
+                    "Đánh giá điểm rèn luyện của bạn (Học kỳ: %s) đã được nộp thành công. Vui lòng chờ duyệt.",
+                    payload.get("semester")
+                ),
+                Notification.NotificationType.EVALUATION_SUBMITTED,
+                "EVALUATION",
+                entry.getEvaluationId()
+            );
+        }
+    }
+
+    /**
+     * APPROVED: notify next level reviewers, or the student on final approval
+     */
+    private void handleApproved(NotificationOutbox entry, Map<String, Object> payload) {
+        String newStatus = (String) payload.get("newStatus");
+
+        if ("FACULTY_APPROVED".equals(newStatus)) {
+            // Final approval - notify student
+            Long userId = getStudentUserId(entry.getStudentCode());
+            if (userId != null) {
+                Object totalPoints = payload.get("totalPoints");
+                notificationService.createNotificationOnce(
+                    userId,
+                    "Đánh giá đã được duyệt",
+                    String.format(
+                        "Đánh giá điểm rèn luyện của bạn (Học kỳ: %s) đã được duyệt hoàn tất. Điểm: %.1f",
+                        payload.get("semester"),
+                        totalPoints instanceof Number ? ((Number) totalPoints).doubleValue() : 0.0
+                    ),
+                    Notification.NotificationType.EVALUATION_APPROVED,
+                    "EVALUATION",
+                    entry.getEvaluationId()
+                );
+            }
+            return;
+        }
+
+        String nextLevel = "CLASS_APPROVED".equals(newStatus) ? "ADVISOR"
+            : "ADVISOR_APPROVED".equals(newStatus) ? "FACULTY" : null;
+        if (nextLevel == null) {
+            return;
+        }
+
+        StudentServiceClient.StudentDTO student = getStudent(entry.getStudentCode());
+        if (student != null) {
+            notificationService.notifyEvaluationEscalated(
+                entry.getEvaluationId(),
+                student.getFullName(),
+                student.getStudentCode(),
+                nextLevel
+            );
+        }
+    }
+
+    /**
+     * REJECTED: notify student that the evaluation needs revision
+     */
+    private void handleRejected(NotificationOutbox entry, Map<String, Object> payload) {
+        Long userId = getStudentUserId(entry.getStudentCode());
+        if (userId != null) {
+            String level = (String) payload.get("level");
+            notificationService.notifyEvaluationReturned(
+                entry.getEvaluationId(),
+                userId,
+                level != null ? level : "Người duyệt",
+                (String) payload.get("reason")
+            );
+        }
+    }
+
+    private StudentServiceClient.StudentDTO getStudent(String studentCode) {
+        StudentServiceClient.StudentResponse response = studentProfileCache.getStudentByCode(studentCode);
+        if (response != null && response.isSuccess()) {
+            return response.getData();
+        }
+        return null;
+    }
+
+    private Long getStudentUserId(String studentCode) {
+        if (authServiceClient == null) {
+            return null;
+        }
+        AuthServiceClient.UserIdResponse response = authServiceClient.getUserIdByStudentCode(studentCode);
+        if (response != null && response.isSuccess()) {
+            return response.getData();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,174 @@
+package ptit.drl.evaluation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ptit.drl.evaluation.entity.Evaluation;
+import ptit.drl.evaluation.entity.NotificationOutbox;
+import ptit.drl.evaluation.repository.NotificationOutboxRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for the notification outbox.
+ * Evaluation workflow writes an outbox entry in its own transaction; recipient lookups
+ * (student-service, auth-service) and Notification inserts happen later in NotificationDispatcher.
+ */
+@Service
+@Transactional
+public class NotificationOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${notification.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
+
+    /**
+     * Record a workflow event for later notification dispatch.
+     * Joins the caller's transaction, so the entry is only visible if the status change commits.
+     * @param extra additional payload values (newStatus, level, reason...), may be null
+     */
+    public NotificationOutbox enqueue(NotificationOutbox.EventType eventType, Evaluation evaluation,
+                                      Map<String, Object> extra) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("semester", evaluation.getSemester());
+        payload.put("totalPoints", evaluation.getTotalPoints());
+        if (extra != null) {
+            payload.putAll(extra);
+        }
+
+        String payloadJson;
+        try {
+            payloadJson = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            // Payload only contains simple values; fall back to an empty object rather than fail the workflow
+            logger.warn("Failed to serialize outbox payload for evaluation {}: {}", evaluation.getId(), e.getMessage());
+            payloadJson = "{}";
+        }
+
+        NotificationOutbox entry = outboxRepository.save(
+            new NotificationOutbox(eventType, evaluation.getId(), evaluation.getStudentCode(), payloadJson));
+
+        // Wakes the dispatcher once the surrounding transaction commits
+        eventPublisher.publishEvent(entry);
+        return entry;
+    }
+
+    /**
+     * Claim due PENDING entries for processing.
+     * Rows are locked with SKIP LOCKED and flipped to PROCESSING before the transaction ends,
+     * so concurrent dispatchers never pick up the same entry.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<NotificationOutbox> claimBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> batch = outboxRepository.lockDueBatch(now, batchSize);
+        for (NotificationOutbox entry : batch) {
+            entry.setStatus(NotificationOutbox.Status.PROCESSING);
+            entry.setLockedAt(now);
+            entry.setAttempts(entry.getAttempts() + 1);
+        }
+        return outboxRepository.saveAll(batch);
+    }
+
+    /**
+     * Mark entry as successfully dispatched
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markDone(Long entryId) {
+        outboxRepository.findById(entryId).ifPresent(entry -> {
+            entry.setStatus(NotificationOutbox.Status.DONE);
+            entry.setProcessedAt(LocalDateTime.now());
+            entry.setLockedAt(null);
+            entry.setLastError(null);
+        });
+    }
+
+    /**
+     * Mark entry as failed. Retries with linear backoff until max attempts, then FAILED.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markFailed(Long entryId, String error) {
+        outboxRepository.findById(entryId).ifPresent(entry -> {
+            entry.setLockedAt(null);
+            entry.setLastError(error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH) : error);
+
+            if (entry.getAttempts() >= maxAttempts) {
+                entry.setStatus(NotificationOutbox.Status.FAILED);
+                entry.setProcessedAt(LocalDateTime.now());
+                logger.error("Notification outbox entry {} ({}, evaluation {}) failed after {} attempts: {}",
+                    entry.getId(), entry.getEventType(), entry.getEvaluationId(), entry.getAttempts(), error);
+            } else {
+                entry.setStatus(NotificationOutbox.Status.PENDING);
+                entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(retryBackoffSeconds * entry.getAttempts()));
+                logger.warn("Notification outbox entry {} ({}, evaluation {}) failed, attempt {}/{}: {}",
+                    entry.getId(), entry.getEventType(), entry.getEvaluationId(), entry.getAttempts(), maxAttempts, error);
+            }
+        });
+    }
+
+    /**
+     * Return PROCESSING entries locked before the given time to PENDING
+     * (dispatcher crashed or instance restarted mid-batch)
+     */
+    public int releaseStale(LocalDateTime lockedBefore) {
+        return outboxRepository.releaseStale(lockedBefore);
+    }
+
+    /**
+     * Delete DONE entries older than the given number of days
+     */
+    public int deleteProcessed(int daysToKeep) {
+        return outboxRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(daysToKeep));
+    }
+
+    /**
+     * Number of entries waiting for dispatch
+     */
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return outboxRepository.countByStatus(NotificationOutbox.Status.PENDING);
+    }
+
+    /**
+     * Parse entry payload JSON
+     */
+    public Map<String, Object> readPayload(NotificationOutbox entry) {
+        if (entry.getPayload() == null || entry.getPayload().isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(entry.getPayload(), new TypeReference<Map<String, Object>>() {});
+        } catch (JsonProcessingException e) {
+            logger.warn("Invalid payload on outbox entry {}: {}", entry.getId(), e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -2,21 +2,32 @@ package ptit.drl.evaluation.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ptit.drl.evaluation.client.AuthServiceClient;
 import ptit.drl.evaluation.dto.NotificationDTO;
 import ptit.drl.evaluation.entity.Notification;
+import ptit.drl.evaluation.repository.NotificationBulkRepository;
 import ptit.drl.evaluation.repository.NotificationRepository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -31,9 +42,31 @@ public class NotificationService {
     @Autowired
     private NotificationRepository notificationRepository;
     
+    @Autowired
+    private NotificationBulkRepository notificationBulkRepository;
+    
     @Autowired(required = false)
     private AuthServiceClient authServiceClient;
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${notification.fanout.chunk-size:1000}")
+    private int fanOutChunkSize;
+    
+    /**
+     * Same notification for all active users, fanned out by NotificationDispatcher
+     * after the transaction that published it commits
+     */
+    public record BroadcastRequested(String title, String message, Notification.NotificationType type,
+                                     String relatedType, Long relatedId) {}
+    
     /**
      * Create a new notification
      */
@@ -119,48 +152,23 @@ public class NotificationService {
         }
         
         try {
-            // Get all active user IDs from auth-service
-            AuthServiceClient.UserIdsResponse response = authServiceClient.getAllUserIds();
-            if (response != null && response.isSuccess() && response.getData() != null) {
-                List<Long> userIds = response.getData();
-                logger.info("Creating PERIOD_CREATED notifications for {} users, period: {}", userIds.size(), periodId);
-                
-                String title = "Đợt đánh giá điểm rèn luyện mới: " + periodName;
-                String message = String.format(
-                    "Đợt đánh giá điểm rèn luyện cho học kỳ %s đã được tạo. " +
-                    "Thời gian nộp: từ %s đến %s. Vui lòng hoàn thành đánh giá trước hạn.",
-                    semester,
-                    startDate.toString(),
-                    endDate.toString()
-                );
-                
-                int createdCount = 0;
-                // Create notification for each user
-                for (Long userId : userIds) {
-                    // Check if notification already exists for this specific user to avoid duplicates
-                    List<Notification> existing = notificationRepository.findByUserIdAndTypeAndRelatedTypeAndRelatedId(
-                        userId,
-                        Notification.NotificationType.PERIOD_CREATED,
-                        "EVALUATION_PERIOD",
-                        periodId
-                    );
-                    
-                    if (existing.isEmpty()) {
-                        createNotification(
-                            userId,
-                            title,
-                            message,
-                            Notification.NotificationType.PERIOD_CREATED,
-                            "EVALUATION_PERIOD",
-                            periodId
-                        );
-                        createdCount++;
-                    }
-                }
-                logger.info("Created {} PERIOD_CREATED notifications for period: {}", createdCount, periodId);
-            } else {
-                logger.warn("Failed to get user IDs from auth-service for period notification: {}", periodId);
-            }
+            String title = "Đợt đánh giá điểm rèn luyện mới: " + periodName;
+            String message = String.format(
+                "Đợt đánh giá điểm rèn luyện cho học kỳ %s đã được tạo. " +
+                "Thời gian nộp: từ %s đến %s. Vui lòng hoàn thành đánh giá trước hạn.",
+                semester,
+                startDate.toString(),
+                endDate.toString()
+            );
+            
+            // Fanned out after the period commits, off the admin's request thread
+            eventPublisher.publishEvent(new BroadcastRequested(
+                title,
+                message,
+                Notification.NotificationType.PERIOD_CREATED,
+                "EVALUATION_PERIOD",
+                periodId
+            ));
         } catch (Exception e) {
             logger.error("Failed to create notifications for period: {}, error: {}", periodId, e.getMessage(), e);
         }
@@ -175,46 +183,57 @@ public class NotificationService {
         }
         
         try {
-            AuthServiceClient.UserIdsResponse response = authServiceClient.getAllUserIds();
-            if (response != null && response.isSuccess() && response.getData() != null) {
-                List<Long> userIds = response.getData();
-                
-                String title = String.format("Nhắc nhở: Đợt đánh giá sắp kết thúc (%d ngày)", daysBeforeEnd);
-                String message = String.format(
-                    "Đợt đánh giá điểm rèn luyện cho học kỳ %s sẽ kết thúc vào %s. " +
-                    "Còn %d ngày nữa. Vui lòng hoàn thành đánh giá trước hạn.",
-                    semester,
-                    endDate.toString(),
-                    daysBeforeEnd
-                );
-                
-                // Create notification for each user (only if not already exists)
-                for (Long userId : userIds) {
-                    // Check if reminder notification already exists for this user and period
-                    List<Notification> existing = notificationRepository.findByUserIdAndTypeAndRelatedTypeAndRelatedId(
-                        userId,
-                        Notification.NotificationType.PERIOD_REMINDER,
-                        "EVALUATION_PERIOD",
-                        periodId
-                    );
-                    
-                    if (existing.isEmpty()) {
-                        createNotification(
-                            userId,
-                            title,
-                            message,
-                            Notification.NotificationType.PERIOD_REMINDER,
-                            "EVALUATION_PERIOD",
-                            periodId
-                        );
-                    }
-                }
-            }
+            String title = String.format("Nhắc nhở: Đợt đánh giá sắp kết thúc (%d ngày)", daysBeforeEnd);
+            String message = String.format(
+                "Đợt đánh giá điểm rèn luyện cho học kỳ %s sẽ kết thúc vào %s. " +
+                "Còn %d ngày nữa. Vui lòng hoàn thành đánh giá trước hạn.",
+                semester,
+                endDate.toString(),
+                daysBeforeEnd
+            );
+            
+            // Fanned out after the caller's transaction commits (users who already have it are skipped)
+            eventPublisher.publishEvent(new BroadcastRequested(
+                title,
+                message,
+                Notification.NotificationType.PERIOD_REMINDER,
+                "EVALUATION_PERIOD",
+                periodId
+            ));
         } catch (Exception e) {
             logger.error("Failed to create reminder notifications for period: {}, error: {}", periodId, e.getMessage(), e);
         }
     }
     
+    /**
+     * Run a broadcast published by notifyPeriodCreated / notifyPeriodReminder / notifyRubric*.
+     * Not transactional itself: each chunk commits in its own transaction, so only one
+     * pooled connection is used at a time.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void broadcast(BroadcastRequested request) {
+        if (authServiceClient == null) {
+            logger.warn("AuthServiceClient is not available, skipping {} notifications for {} {}",
+                request.type(), request.relatedType(), request.relatedId());
+            return;
+        }
+        try {
+            // Active users are paged from auth-service, one page at a time
+            int createdCount = fanOutToAllActiveUsers(
+                request.title(),
+                request.message(),
+                request.type(),
+                request.relatedType(),
+                request.relatedId()
+            );
+            logger.info("Created {} {} notifications for {} {}",
+                createdCount, request.type(), request.relatedType(), request.relatedId());
+        } catch (Exception e) {
+            logger.error("Failed to create {} notifications for {} {}, error: {}",
+                request.type(), request.relatedType(), request.relatedId(), e.getMessage(), e);
+        }
+    }
+    
     /**
      * Check if notification already exists for a related entity
      */
@@ -230,6 +249,8 @@ public class NotificationService {
      * Sends to: CLASS_MONITOR, ADVISOR (for class level)
      *           FACULTY_INSTRUCTOR (for faculty level)
      *           (FACULTY is now final level)
+     * Failures propagate so the outbox entry is retried; reviewers who already have the
+     * notification are skipped, so a retry does not duplicate it.
      */
     public void notifyEvaluationNeedsReview(Long evaluationId, String studentName, String studentCode, 
                                            String classCode, String facultyCode, String currentStatus) {
@@ -238,105 +259,59 @@ public class NotificationService {
             return;
         }
         
-        try {
-            List<Long> reviewerIds = new java.util.ArrayList<>();
-            
-            // Determine which reviewers to notify based on current status
-            if ("SUBMITTED".equals(currentStatus)) {
-                // Class level reviewers
-                // Get CLASS_MONITOR, ADVISOR for this class
-                try {
-                    AuthServiceClient.UserIdsResponse monitorResponse = 
-                        authServiceClient.getUserIdsByRoleAndClassCode("CLASS_MONITOR", classCode);
-                    if (monitorResponse != null && monitorResponse.isSuccess() && monitorResponse.getData() != null) {
-                        reviewerIds.addAll(monitorResponse.getData());
-                        logger.debug("Found {} CLASS_MONITOR reviewers for class: {}", monitorResponse.getData().size(), classCode);
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to get CLASS_MONITOR IDs for class: {}, error: {}", classCode, e.getMessage());
-                }
-                
-                try {
-                    AuthServiceClient.UserIdsResponse advisorResponse = 
-                        authServiceClient.getUserIdsByRoleAndClassCode("ADVISOR", classCode);
-                    if (advisorResponse != null && advisorResponse.isSuccess() && advisorResponse.getData() != null) {
-                        reviewerIds.addAll(advisorResponse.getData());
-                        logger.debug("Found {} ADVISOR reviewers for class: {}", advisorResponse.getData().size(), classCode);
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to get ADVISOR IDs for class: {}, error: {}", classCode, e.getMessage());
-                }
-            } else if ("CLASS_APPROVED".equals(currentStatus)) {
-                // Advisor level reviewers
-                try {
-                    AuthServiceClient.UserIdsResponse advisorResponse = 
-                        authServiceClient.getUserIdsByRoleAndClassCode("ADVISOR", classCode);
-                    if (advisorResponse != null && advisorResponse.isSuccess() && advisorResponse.getData() != null) {
-                        reviewerIds.addAll(advisorResponse.getData());
-                        logger.debug("Found {} ADVISOR reviewers for class: {}", advisorResponse.getData().size(), classCode);
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to get ADVISOR IDs for class: {}, error: {}", classCode, e.getMessage());
-                }
-            } else if ("ADVISOR_APPROVED".equals(currentStatus)) {
-                // Faculty level reviewers
-                try {
-                    AuthServiceClient.UserIdsResponse facultyResponse = 
-                        authServiceClient.getUserIdsByRole("FACULTY_INSTRUCTOR");
-                    if (facultyResponse != null && facultyResponse.isSuccess() && facultyResponse.getData() != null) {
-                        reviewerIds.addAll(facultyResponse.getData());
-                        logger.debug("Found {} FACULTY_INSTRUCTOR reviewers", facultyResponse.getData().size());
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to get FACULTY_INSTRUCTOR IDs, error: {}", e.getMessage());
-                }
-            }
-            // Note: FACULTY_APPROVED is now final approval, no need to notify reviewers
-            
-            // Remove duplicates
-            reviewerIds = reviewerIds.stream().distinct().collect(Collectors.toList());
-            
-            if (reviewerIds.isEmpty()) {
-                logger.warn("No reviewers found for evaluation: {}, status: {}, class: {}", evaluationId, currentStatus, classCode);
-                return;
-            }
-            
-            logger.info("Creating EVALUATION_NEEDS_REVIEW notifications for {} reviewers, evaluation: {}", reviewerIds.size(), evaluationId);
-            
-            String title = "Có đánh giá mới cần duyệt";
-            String message = String.format(
-                "Sinh viên %s (%s) - Lớp %s đã nộp đánh giá. Vui lòng xem xét và duyệt.",
-                studentName, studentCode, classCode != null ? classCode : "N/A"
-            );
-            
-            int createdCount = 0;
-            // Create notification for each reviewer
-            for (Long reviewerId : reviewerIds) {
-                // Check if notification already exists
-                List<Notification> existing = notificationRepository
-                    .findByUserIdAndTypeAndRelatedTypeAndRelatedId(
-                        reviewerId,
-                        Notification.NotificationType.EVALUATION_NEEDS_REVIEW,
-                        "EVALUATION",
-                        evaluationId
-                    );
-                
-                if (existing.isEmpty()) {
-                    createNotification(
-                        reviewerId,
-                        title,
-                        message,
-                        Notification.NotificationType.EVALUATION_NEEDS_REVIEW,
-                        "EVALUATION",
-                        evaluationId
-                    );
-                    createdCount++;
-                }
-            }
-            logger.info("Created {} EVALUATION_NEEDS_REVIEW notifications for evaluation: {}", createdCount, evaluationId);
-        } catch (Exception e) {
-            logger.error("Failed to create evaluation needs review notifications for evaluation: {}, error: {}", evaluationId, e.getMessage(), e);
+        List<Long> reviewerIds = new java.util.ArrayList<>();
+        
+        // Determine which reviewers to notify based on current status
+        if ("SUBMITTED".equals(currentStatus)) {
+            // Class level reviewers: CLASS_MONITOR, ADVISOR for this class
+            reviewerIds.addAll(requireUserIds(
+                authServiceClient.getUserIdsByRoleAndClassCode("CLASS_MONITOR", classCode),
+                "CLASS_MONITOR of class " + classCode));
+            reviewerIds.addAll(requireUserIds(
+                authServiceClient.getUserIdsByRoleAndClassCode("ADVISOR", classCode),
+                "ADVISOR of class " + classCode));
+        } else if ("CLASS_APPROVED".equals(currentStatus)) {
+            // Advisor level reviewers
+            reviewerIds.addAll(requireUserIds(
+                authServiceClient.getUserIdsByRoleAndClassCode("ADVISOR", classCode),
+                "ADVISOR of class " + classCode));
+        } else if ("ADVISOR_APPROVED".equals(currentStatus)) {
+            // Faculty level reviewers
+            reviewerIds.addAll(requireUserIds(
+                authServiceClient.getUserIdsByRole("FACULTY_INSTRUCTOR"), "FACULTY_INSTRUCTOR"));
         }
+        // Note: FACULTY_APPROVED is now final approval, no need to notify reviewers
+        
+        // Remove duplicates
+        reviewerIds = reviewerIds.stream().distinct().collect(Collectors.toList());
+        
+        if (reviewerIds.isEmpty()) {
+            logger.warn("No reviewers found for evaluation: {}, status: {}, class: {}", evaluationId, currentStatus, classCode);
+            return;
+        }
+        
+        String title = "Có đánh giá mới cần duyệt";
+        String message = String.format(
+            "Sinh viên %s (%s) - Lớp %s đã nộp đánh giá. Vui lòng xem xét và duyệt.",
+            studentName, studentCode, classCode != null ? classCode : "N/A"
+        );
+        
+        int createdCount = notificationBulkRepository.insertMissing(reviewerIds, title, message,
+            Notification.NotificationType.EVALUATION_NEEDS_REVIEW, "EVALUATION", evaluationId);
+        logger.info("Created {} EVALUATION_NEEDS_REVIEW notifications ({} reviewers) for evaluation: {}",
+            createdCount, reviewerIds.size(), evaluationId);
+    }
+    
+    /**
+     * Create a notification unless the user already has one of the same type for the same entity
+     * (outbox handlers may run more than once for the same event)
+     * @return true if a notification was created
+     */
+    public boolean createNotificationOnce(Long userId, String title, String message,
+                                          Notification.NotificationType type,
+                                          String relatedType, Long relatedId) {
+        return notificationBulkRepository.insertMissing(
+            List.of(userId), title, message, type, relatedType, relatedId) > 0;
     }
     
     /**
@@ -350,87 +325,62 @@ public class NotificationService {
             comment != null && !comment.isEmpty() ? comment : "Cần chỉnh sửa"
         );
         
-        // Check if notification already exists
-        List<Notification> existing = notificationRepository
-            .findByUserIdAndTypeAndRelatedTypeAndRelatedId(
-                studentUserId,
-                Notification.NotificationType.EVALUATION_RETURNED,
-                "EVALUATION",
-                evaluationId
-            );
-        
-        if (existing.isEmpty()) {
-            createNotification(
-                studentUserId,
-                title,
-                message,
-                Notification.NotificationType.EVALUATION_RETURNED,
-                "EVALUATION",
-                evaluationId
-            );
-        }
+        createNotificationOnce(
+            studentUserId,
+            title,
+            message,
+            Notification.NotificationType.EVALUATION_RETURNED,
+            "EVALUATION",
+            evaluationId
+        );
     }
     
     /**
      * Notify reviewers when evaluation is escalated to next level
+     * Failures propagate so the outbox entry is retried
      */
     public void notifyEvaluationEscalated(Long evaluationId, String studentName, String studentCode, 
                                          String nextLevel) {
         if (authServiceClient == null) return;
         
-        try {
-            List<Long> reviewerIds = new java.util.ArrayList<>();
-            
-            // Get reviewers for next level
-            if ("ADVISOR".equals(nextLevel)) {
-                // Get advisor for the student's class
-                // Note: StudentServiceClient is not available, so we skip advisor lookup
-                // TODO: Implement advisor lookup when StudentServiceClient is available
-                // For now, advisors will need to be assigned manually or via other means
-                try {
-                    // Skip advisor lookup - StudentServiceClient not available
-                    // This is a known limitation that needs to be addressed
-                } catch (Exception e) {
-                    // Failed to get ADVISOR IDs - continue
-                }
-            } else if ("FACULTY".equals(nextLevel)) {
-                AuthServiceClient.UserIdsResponse response = 
-                    authServiceClient.getUserIdsByRole("FACULTY_INSTRUCTOR");
-                if (response != null && response.isSuccess() && response.getData() != null) {
-                    reviewerIds.addAll(response.getData());
-                }
-            }
-            // Note: FACULTY is now final level
-            
-            String title = "Có đánh giá cần xem xét";
-            String message = String.format(
-                "Đánh giá của sinh viên %s (%s) đã được chuyển đến bạn. Vui lòng xem xét.",
-                studentName, studentCode
-            );
-            
-            for (Long reviewerId : reviewerIds) {
-                List<Notification> existing = notificationRepository
-                    .findByUserIdAndTypeAndRelatedTypeAndRelatedId(
-                        reviewerId,
-                        Notification.NotificationType.EVALUATION_ESCALATED,
-                        "EVALUATION",
-                        evaluationId
-                    );
-                
-                if (existing.isEmpty()) {
-                    createNotification(
-                        reviewerId,
-                        title,
-                        message,
-                        Notification.NotificationType.EVALUATION_ESCALATED,
-                        "EVALUATION",
-                        evaluationId
-                    );
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Failed to create escalation notifications for evaluation: {}, error: {}", evaluationId, e.getMessage(), e);
+        List<Long> reviewerIds = new java.util.ArrayList<>();
+        
+        // Get reviewers for next level
+        if ("ADVISOR".equals(nextLevel)) {
+            // Get advisor for the student's class
+            // Note: StudentServiceClient is not available, so we skip advisor lookup
+            // TODO: Implement advisor lookup when StudentServiceClient is available
+            // For now, advisors will need to be assigned manually or via other means
+        } else if ("FACULTY".equals(nextLevel)) {
+            reviewerIds.addAll(requireUserIds(
+                authServiceClient.getUserIdsByRole("FACULTY_INSTRUCTOR"), "FACULTY_INSTRUCTOR"));
         }
+        // Note: FACULTY is now final level
+        
+        if (reviewerIds.isEmpty()) {
+            return;
+        }
+        
+        String title = "Có đánh giá cần xem xét";
+        String message = String.format(
+            "Đánh giá của sinh viên %s (%s) đã được chuyển đến bạn. Vui lòng xem xét.",
+            studentName, studentCode
+        );
+        
+        notificationBulkRepository.insertMissing(reviewerIds, title, message,
+            Notification.NotificationType.EVALUATION_ESCALATED, "EVALUATION", evaluationId);
+    }
+    
+    /**
+     * User ids from an auth-service lookup; a failed call throws (so the caller can retry)
+     */
+    private List<Long> requireUserIds(AuthServiceClient.UserIdsResponse response, String what) {
+        if (response == null || !response.isSuccess()) {
+            throw new IllegalStateException("Failed to get user IDs for " + what + " from auth-service");
+        }
+        List<Long> ids = response.getData() != null ? response.getData() : List.of();
+        logger.debug("Found {} user IDs for {}", ids.size(), what);
+        return ids;
     }
     
     /**
@@ -440,40 +390,22 @@ public class NotificationService {
         if (authServiceClient == null) return;
         
         try {
-            AuthServiceClient.UserIdsResponse response = authServiceClient.getAllUserIds();
-            if (response != null && response.isSuccess() && response.getData() != null) {
-                List<Long> userIds = response.getData();
-                
-                String title = "Rubric mới đã được kích hoạt";
-                String message = String.format(
-                    "Rubric đánh giá '%s' đã được kích hoạt. Áp dụng cho: %s",
-                    rubricName,
-                    targetClasses != null && !targetClasses.isEmpty() 
-                        ? targetClasses 
-                        : "tất cả lớp"
-                );
-                
-                for (Long userId : userIds) {
-                    List<Notification> existing = notificationRepository
-                        .findByUserIdAndTypeAndRelatedTypeAndRelatedId(
-                            userId,
-                            Notification.NotificationType.RUBRIC_ACTIVATED,
-                            "RUBRIC",
-                            rubricId
-                        );
-                    
-                    if (existing.isEmpty()) {
-                        createNotification(
-                            userId,
-                            title,
-                            message,
-                            Notification.NotificationType.RUBRIC_ACTIVATED,
-                            "RUBRIC",
-                            rubricId
-                        );
-                    }
-                }
-            }
+            String title = "Rubric mới đã được kích hoạt";
+            String message = String.format(
+                "Rubric đánh giá '%s' đã được kích hoạt. Áp dụng cho: %s",
+                rubricName,
+                targetClasses != null && !targetClasses.isEmpty() 
+                    ? targetClasses 
+                    : "tất cả lớp"
+            );
+            
+            eventPublisher.publishEvent(new BroadcastRequested(
+                title,
+                message,
+                Notification.NotificationType.RUBRIC_ACTIVATED,
+                "RUBRIC",
+                rubricId
+            ));
         } catch (Exception e) {
             logger.error("Failed to create rubric activation notifications for rubric: {}, error: {}", rubricId, e.getMessage(), e);
         }
@@ -486,38 +418,20 @@ public class NotificationService {
         if (authServiceClient == null) return;
         
         try {
-            AuthServiceClient.UserIdsResponse response = authServiceClient.getAllUserIds();
-            if (response != null && response.isSuccess() && response.getData() != null) {
-                List<Long> userIds = response.getData();
-                
-                String title = "Rubric đánh giá đã được cập nhật";
-                String message = String.format(
-                    "Rubric '%s' đã được cập nhật. %s Vui lòng xem lại các tiêu chí mới.",
-                    rubricName,
-                    changes != null && !changes.isEmpty() ? "Thay đổi: " + changes + ". " : ""
-                );
-                
-                for (Long userId : userIds) {
-                    List<Notification> existing = notificationRepository
-                        .findByUserIdAndTypeAndRelatedTypeAndRelatedId(
-                            userId,
-                            Notification.NotificationType.RUBRIC_UPDATED,
-                            "RUBRIC",
-                            rubricId
-                        );
-                    
-                    if (existing.isEmpty()) {
-                        createNotification(
-                            userId,
-                            title,
-                            message,
-                            Notification.NotificationType.RUBRIC_UPDATED,
-                            "RUBRIC",
-                            rubricId
-                        );
-                    }
-                }
-            }
+            String title = "Rubric đánh giá đã được cập nhật";
+            String message = String.format(
+                "Rubric '%s' đã được cập nhật. %s Vui lòng xem lại các tiêu chí mới.",
+                rubricName,
+                changes != null && !changes.isEmpty() ? "Thay đổi: " + changes + ". " : ""
+            );
+            
+            eventPublisher.publishEvent(new BroadcastRequested(
+                title,
+                message,
+                Notification.NotificationType.RUBRIC_UPDATED,
+                "RUBRIC",
+                rubricId
+            ));
         } catch (Exception e) {
             logger.error("Failed to create rubric update notifications for rubric: {}, error: {}", rubricId, e.getMessage(), e);
         }
@@ -605,6 +519,60 @@ public class NotificationService {
         }
     }
     
+    /**
+     * Bulk fan-out of the same notification to all active users.
+     * User IDs are pulled from auth-service one keyset page at a time (ordered by id, so no
+     * duplicates), and each page is inserted with one INSERT ... SELECT that skips users who
+     * already have the notification, committed in its own transaction. Neither service holds
+     * the full user list in memory, and a failed run can simply be repeated.
+     * @return number of notifications actually created
+     */
+    private int fanOutToAllActiveUsers(String title, String message,
+                                       Notification.NotificationType type, String relatedType, Long relatedId) {
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        
+        int pageSize = Math.max(1, fanOutChunkSize);
+        long startNanos = System.nanoTime();
+        int recipientCount = 0;
+        int createdCount = 0;
+        Long afterId = null;
+        
+        do {
+            AuthServiceClient.UserIdsPageResponse response = authServiceClient.getActiveUserIdsPage(afterId, pageSize);
+            if (response == null || !response.isSuccess() || response.getData() == null) {
+                throw new IllegalStateException("Failed to get user IDs from auth-service after id " + afterId);
+            }
+            AuthServiceClient.UserIdsPage page = response.getData();
+            List<Long> userIds = page.getIds() != null ? page.getIds() : List.of();
+            if (!userIds.isEmpty()) {
+                Integer inserted = chunkTransaction.execute(status ->
+                    notificationBulkRepository.insertMissing(userIds, title, message, type, relatedType, relatedId));
+                createdCount += inserted != null ? inserted : 0;
+                recipientCount += userIds.size();
+            }
+            afterId = page.getNextAfterId();
+        } while (afterId != null);
+        
+        long elapsedNanos = System.nanoTime() - startNanos;
+        double rowsPerSecond = elapsedNanos > 0 ? createdCount * 1_000_000_000.0 / elapsedNanos : 0.0;
+        
+        Timer.builder("notifications.fanout.duration")
+            .tag("type", type.name())
+            .register(meterRegistry)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("notifications.fanout.rows", "type", type.name()).increment(createdCount);
+        DistributionSummary.builder("notifications.fanout.rows_per_second")
+            .tag("type", type.name())
+            .register(meterRegistry)
+            .record(rowsPerSecond);
+        
+        logger.info("Fan-out {} for {} {}: {} recipients, {} created in {}ms ({} rows/s)",
+            type, relatedType, relatedId, recipientCount, createdCount,
+            TimeUnit.NANOSECONDS.toMillis(elapsedNanos), String.format("%.0f", rowsPerSecond));
+        return createdCount;
+    }
+    
     /**
      * Convert entity to DTO
      */
@@ -1,17 +1,23 @@
 package ptit.drl.evaluation.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import okhttp3.*;
+import okio.BufferedSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -33,6 +39,11 @@ public class OpenAiClient {
     @Value("${openai.api.timeout:60}")
     private int timeoutSeconds;
     
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json; charset=utf-8");
+    
+    private static final String SYSTEM_PROMPT = "Bạn là trợ lý AI chuyên nghiệp hỗ trợ chấm điểm rèn luyện sinh viên. " +
+            "Bạn phân tích hình ảnh minh chứng và trả về JSON chuẩn, không giải thích thêm.";
+    
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
     
@@ -83,67 +94,29 @@ public class OpenAiClient {
         }
     }
     
+    /**
+     * Ảnh gửi kèm request: file trên đĩa và MIME type dùng trong data URL
+     */
+    public record ImageInput(Path path, String mimeType) {}
+    
     /**
      * Gọi GPT Vision API để phân tích nhiều ảnh
+     * Request body được stream: ảnh được base64-encode trực tiếp từ file vào socket,
+     * không giữ bản sao byte[] / String / JSON tree nào của ảnh trên heap.
      * 
      * @param prompt Prompt text
-     * @param base64Images List các ảnh đã encode base64
+     * @param images Các ảnh (đã thu nhỏ) cần phân tích
      * @param modelName Tên model (gpt-4o-mini, gpt-4o, etc.)
      * @return Response text từ GPT
      */
-    public String analyzeImagesWithVision(String prompt, List<String> base64Images, String modelName) 
+    public String analyzeImagesWithVision(String prompt, List<ImageInput> images, String modelName) 
             throws IOException {
         
         logger.info("Calling OpenAI API with model: {}, images count: {}, base URL: {}", 
-                modelName, base64Images.size(), baseUrl);
-        
-        // Build request JSON
-        ObjectNode requestBody = objectMapper.createObjectNode();
-        requestBody.put("model", modelName);
-        requestBody.put("max_tokens", 1000);
-        requestBody.put("temperature", 0.2); // Low temperature for more consistent results
-        
-        // Messages array
-        ArrayNode messages = requestBody.putArray("messages");
-        
-        // System message
-        ObjectNode systemMessage = messages.addObject();
-        systemMessage.put("role", "system");
-        systemMessage.put("content", "Bạn là trợ lý AI chuyên nghiệp hỗ trợ chấm điểm rèn luyện sinh viên. " +
-                "Bạn phân tích hình ảnh minh chứng và trả về JSON chuẩn, không giải thích thêm.");
-        
-        // User message with text + images
-        ObjectNode userMessage = messages.addObject();
-        userMessage.put("role", "user");
-        
-        // Content array (text + images)
-        ArrayNode content = userMessage.putArray("content");
-        
-        // Text part
-        ObjectNode textPart = content.addObject();
-        textPart.put("type", "text");
-        textPart.put("text", prompt);
-        
-        // Image parts
-        for (String base64Image : base64Images) {
-            ObjectNode imagePart = content.addObject();
-            imagePart.put("type", "image_url");
-            
-            ObjectNode imageUrl = imagePart.putObject("image_url");
-            imageUrl.put("url", "data:image/jpeg;base64," + base64Image);
-            imageUrl.put("detail", "high"); // high/low/auto
-        }
-        
-        // Response format (JSON mode)
-        ObjectNode responseFormat = requestBody.putObject("response_format");
-        responseFormat.put("type", "json_object");
-        
-        String requestJson = objectMapper.writeValueAsString(requestBody);
+                modelName, images.size(), baseUrl);
         
-        // Create HTTP request
-        RequestBody body = RequestBody.create(
-                requestJson,
-                MediaType.parse("application/json; charset=utf-8"));
+        // Create HTTP request (body is written when OkHttp sends it, and again on retry)
+        RequestBody body = new VisionRequestBody(prompt, images, modelName);
         
         // Build API URL from base URL
         String apiUrl = baseUrl + "/chat/completions";
@@ -206,6 +179,104 @@ public class OpenAiClient {
         }
     }
     
+    /**
+     * Chat completion request written straight to the OkHttp sink.
+     * The JSON is produced with a JsonGenerator; each image URL is opened as a raw JSON string and
+     * filled by a Base64 encoder reading the file in small chunks (base64 needs no JSON escaping).
+     */
+    private class VisionRequestBody extends RequestBody {
+        
+        private final String prompt;
+        private final List<ImageInput> images;
+        private final String modelName;
+        
+        VisionRequestBody(String prompt, List<ImageInput> images, String modelName) {
+            this.prompt = prompt;
+            this.images = images;
+            this.modelName = modelName;
+        }
+        
+        @Override
+        public MediaType contentType() {
+            return JSON_MEDIA_TYPE;
+        }
+        
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            OutputStream out = sink.outputStream();
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            
+            json.writeStartObject();
+            json.writeStringField("model", modelName);
+            json.writeNumberField("max_tokens", 1000);
+            json.writeNumberField("temperature", 0.2); // Low temperature for more consistent results
+            
+            json.writeArrayFieldStart("messages");
+            
+            // System message
+            json.writeStartObject();
+            json.writeStringField("role", "system");
+            json.writeStringField("content", SYSTEM_PROMPT);
+            json.writeEndObject();
+            
+            // User message with text + images
+            json.writeStartObject();
+            json.writeStringField("role", "user");
+            json.writeArrayFieldStart("content");
+            
+            json.writeStartObject();
+            json.writeStringField("type", "text");
+            json.writeStringField("text", prompt);
+            json.writeEndObject();
+            
+            for (ImageInput image : images) {
+                json.writeStartObject();
+                json.writeStringField("type", "image_url");
+                json.writeObjectFieldStart("image_url");
+                json.writeFieldName("url");
+                json.writeRawValue("\"data:" + image.mimeType() + ";base64,");
+                json.flush();
+                writeBase64(image.path(), out);
+                out.write('"');
+                json.writeStringField("detail", "high"); // high/low/auto
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            
+            // Response format (JSON mode)
+            json.writeObjectFieldStart("response_format");
+            json.writeStringField("type", "json_object");
+            json.writeEndObject();
+            
+            json.writeEndObject();
+            json.flush();
+        }
+        
+        private void writeBase64(Path path, OutputStream out) throws IOException {
+            // The encoder must be closed to emit the final padding, but the sink must stay open
+            OutputStream nonClosing = new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+                
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+            try (InputStream in = Files.newInputStream(path);
+                 OutputStream encoder = Base64.getEncoder().wrap(nonClosing)) {
+                in.transferTo(encoder);
+            }
+        }
+    }
+    
     /**
      * Get the complete API endpoint URL
      */
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ptit.drl.evaluation.dto.CriteriaDTO;
 import ptit.drl.evaluation.dto.RubricDTO;
+import ptit.drl.evaluation.dto.RubricSnapshot;
 import ptit.drl.evaluation.entity.Rubric;
 import ptit.drl.evaluation.exception.ResourceNotFoundException;
 import ptit.drl.evaluation.mapper.RubricMapper;
@@ -24,6 +25,12 @@ public class RubricService {
     @Autowired
     private RubricRepository rubricRepository;
     
+    @Autowired
+    private RubricSnapshotCache rubricSnapshotCache;
+    
+    @Autowired
+    private AiScoreCache aiScoreCache;
+    
     @Autowired(required = false)
     private NotificationService notificationService;
     
@@ -40,23 +47,26 @@ public class RubricService {
      * Get rubric by ID with criteria
      */
     public RubricDTO getRubricById(Long id) {
-        Rubric rubric = rubricRepository.findById(id)
+        return rubricSnapshotCache.get(id)
+                .map(RubricSnapshot::toDTO)
                 .orElseThrow(() -> new ResourceNotFoundException("Rubric", "id", id));
-        return RubricMapper.toDTO(rubric);
     }
     
     /**
      * Get active rubric for academic year and class
      */
     public RubricDTO getActiveRubric(String academicYear, String classCode) {
-        List<Rubric> activeRubrics;
+        // Served from cached snapshots - no query unless a rubric changed
+        List<RubricSnapshot> activeRubrics = rubricSnapshotCache.getActive();
         
         if (academicYear != null) {
-            activeRubrics = rubricRepository.findByAcademicYearAndIsActiveTrue(academicYear)
-                    .map(List::of)
-                    .orElse(rubricRepository.findByIsActiveTrue());
-        } else {
-            activeRubrics = rubricRepository.findByIsActiveTrue();
+            List<RubricSnapshot> sameYear = activeRubrics.stream()
+                    .filter(r -> academicYear.equals(r.academicYear()))
+                    .limit(1)
+                    .collect(Collectors.toList());
+            if (!sameYear.isEmpty()) {
+                activeRubrics = sameYear;
+            }
         }
         
         if (activeRubrics.isEmpty()) {
@@ -65,15 +75,15 @@ public class RubricService {
         
         // Filter by classCode if provided
         if (classCode != null && !classCode.isEmpty()) {
-            for (Rubric rubric : activeRubrics) {
+            for (RubricSnapshot rubric : activeRubrics) {
                 // If targetClasses is null or empty, rubric applies to all classes
-                if (rubric.getTargetClasses() == null || rubric.getTargetClasses().isEmpty()) {
-                    return RubricMapper.toDTO(rubric);
+                if (rubric.targetClasses() == null || rubric.targetClasses().isEmpty()) {
+                    return rubric.toDTO();
                 }
                 
                 // Check if student matches rubric target
-                if (TargetMatcher.matches(classCode, rubric.getTargetClasses())) {
-                    return RubricMapper.toDTO(rubric);
+                if (TargetMatcher.matches(classCode, rubric.targetClasses())) {
+                    return rubric.toDTO();
                 }
             }
             
@@ -83,7 +93,7 @@ public class RubricService {
         }
         
         // No classCode provided, return first active rubric
-        return RubricMapper.toDTO(activeRubrics.get(0));
+        return activeRubrics.get(0).toDTO();
     }
     
     /**
@@ -97,6 +107,7 @@ public class RubricService {
         rubric.setTargetClasses(targetClasses);
         
         Rubric saved = rubricRepository.save(rubric);
+        rubricSnapshotCache.invalidate(saved.getId());
         return RubricMapper.toDTO(saved);
     }
     
@@ -121,6 +132,8 @@ public class RubricService {
         }
         
         Rubric updated = rubricRepository.save(rubric);
+        rubricSnapshotCache.invalidate(id);
+        aiScoreCache.invalidateRubric(id);
         
         return RubricMapper.toDTO(updated);
     }
@@ -138,11 +151,15 @@ public class RubricService {
             if (!r.getId().equals(id) && r.getIsActive()) {
                 r.setIsActive(false);
                 rubricRepository.save(r);
+                aiScoreCache.invalidateRubric(r.getId());
             }
         }
         
         rubric.setIsActive(true);
         Rubric updated = rubricRepository.save(rubric);
+        // Other rubrics of the year may have been deactivated too
+        rubricSnapshotCache.invalidateAll();
+        aiScoreCache.invalidateRubric(id);
         
         // Send notification to all users
         if (notificationService != null) {
@@ -169,6 +186,8 @@ public class RubricService {
         
         rubric.setIsActive(false);
         Rubric updated = rubricRepository.save(rubric);
+        rubricSnapshotCache.invalidate(id);
+        aiScoreCache.invalidateRubric(id);
         return RubricMapper.toDTOWithoutCriteria(updated);
     }
     
@@ -0,0 +1,175 @@
+package ptit.drl.evaluation.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ptit.drl.evaluation.dto.RubricSnapshot;
+import ptit.drl.evaluation.entity.Rubric;
+import ptit.drl.evaluation.repository.CriteriaRepository;
+import ptit.drl.evaluation.repository.RubricRepository;
+import ptit.drl.evaluation.util.SubCriteriaParser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory cache of immutable rubric snapshots (rubric + ordered criteria + parsed sub-criteria).
+ * Rubrics change a few times per year but are read on every evaluation save, AI scoring call
+ * and GET /rubrics/active. RubricService and CriteriaService invalidate on every write
+ * (again after commit, so a concurrent reader cannot re-cache the old rows); the TTL only
+ * covers edits made directly in the database.
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size (cache=rubricSnapshots).
+ */
+@Component
+public class RubricSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RubricSnapshotCache.class);
+
+    private final RubricRepository rubricRepository;
+    private final CriteriaRepository criteriaRepository;
+    private final Cache<Long, RubricSnapshot> cache;
+
+    // Ids of active rubrics (ordered by id); null until loaded or after a rubric write
+    private volatile List<Long> activeRubricIds;
+
+    public RubricSnapshotCache(RubricRepository rubricRepository,
+                               CriteriaRepository criteriaRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${rubric.cache.max-size:200}") long maxSize,
+                               @Value("${rubric.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.rubricRepository = rubricRepository;
+        this.criteriaRepository = criteriaRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rubricSnapshots");
+    }
+
+    /**
+     * Get rubric snapshot, loading it on a miss
+     */
+    public Optional<RubricSnapshot> get(Long rubricId) {
+        if (rubricId == null) {
+            return Optional.empty();
+        }
+        // Loader returns null for an unknown rubric, which Caffeine does not cache
+        return Optional.ofNullable(cache.get(rubricId, this::load));
+    }
+
+    /**
+     * Find a criteria snapshot by criteria id.
+     * Looks through cached rubrics first; on a miss one query resolves the rubric id.
+     */
+    public Optional<RubricSnapshot.CriteriaSnapshot> findCriteria(Long criteriaId) {
+        if (criteriaId == null) {
+            return Optional.empty();
+        }
+        for (RubricSnapshot snapshot : cache.asMap().values()) {
+            Optional<RubricSnapshot.CriteriaSnapshot> criteria = snapshot.findCriteria(criteriaId);
+            if (criteria.isPresent()) {
+                return criteria;
+            }
+        }
+        return criteriaRepository.findById(criteriaId)
+                .flatMap(criteria -> get(criteria.getRubric().getId()))
+                .flatMap(snapshot -> snapshot.findCriteria(criteriaId));
+    }
+
+    /**
+     * Snapshots of all active rubrics, ordered by id
+     */
+    public List<RubricSnapshot> getActive() {
+        List<Long> ids = activeRubricIds;
+        if (ids == null) {
+            ids = rubricRepository.findByIsActiveTrue().stream()
+                    .map(Rubric::getId)
+                    .sorted()
+                    .toList();
+            activeRubricIds = ids;
+        }
+        List<RubricSnapshot> snapshots = new ArrayList<>();
+        for (Long id : ids) {
+            get(id).ifPresent(snapshots::add);
+        }
+        return snapshots;
+    }
+
+    /**
+     * Drop one rubric (and the active list) now and again after the current transaction commits
+     */
+    public void invalidate(Long rubricId) {
+        doInvalidate(rubricId);
+        afterCommit(() -> doInvalidate(rubricId));
+    }
+
+    /**
+     * Drop all snapshots now and again after the current transaction commits
+     */
+    public void invalidateAll() {
+        doInvalidateAll();
+        afterCommit(this::doInvalidateAll);
+    }
+
+    private RubricSnapshot load(Long rubricId) {
+        Rubric rubric = rubricRepository.findById(rubricId).orElse(null);
+        if (rubric == null) {
+            return null;
+        }
+        List<RubricSnapshot.CriteriaSnapshot> criteria = criteriaRepository
+                .findByRubricIdOrderByOrderIndexAsc(rubricId).stream()
+                .map(c -> new RubricSnapshot.CriteriaSnapshot(
+                        c.getId(),
+                        c.getName(),
+                        c.getDescription(),
+                        c.getMaxPoints(),
+                        c.getOrderIndex(),
+                        SubCriteriaParser.parse(c.getDescription())))
+                .toList();
+        logger.debug("Loaded rubric snapshot {} with {} criteria", rubricId, criteria.size());
+        return new RubricSnapshot(
+                rubric.getId(),
+                rubric.getName(),
+                rubric.getDescription(),
+                rubric.getMaxPoints(),
+                rubric.getAcademicYear(),
+                Boolean.TRUE.equals(rubric.getIsActive()),
+                rubric.getTargetClasses(),
+                rubric.getCreatedAt(),
+                rubric.getUpdatedAt(),
+                criteria);
+    }
+
+    private void doInvalidate(Long rubricId) {
+        if (rubricId != null) {
+            cache.invalidate(rubricId);
+        }
+        activeRubricIds = null;
+    }
+
+    private void doInvalidateAll() {
+        cache.invalidateAll();
+        activeRubricIds = null;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
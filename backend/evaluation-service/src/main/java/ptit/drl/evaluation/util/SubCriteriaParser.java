@@ -0,0 +1,74 @@
+package ptit.drl.evaluation.util;
+
+import ptit.drl.evaluation.dto.RubricSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses sub-criteria from a criteria description
+ * Format: "Bao gồm:\n1.1. Name: Description (Điểm: X)\n1.2. Name: Description (Điểm: Y)"
+ */
+public class SubCriteriaParser {
+
+    // "1.1. Name: Description (Điểm: X)" or "1.1. Name: Description"
+    private static final Pattern SUB_CRITERIA_PATTERN =
+        Pattern.compile("(\\d+\\.\\d+)\\.\\s*([^:]+):\\s*([^(]+?)(?:\\(Điểm:\\s*(\\d+(?:\\.\\d+)?)\\))?");
+
+    private SubCriteriaParser() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Parse the "Bao gồm:" section of a criteria description
+     * @return sub-criteria in description order, empty if there is no such section
+     */
+    public static List<RubricSnapshot.SubCriteriaSnapshot> parse(String description) {
+        List<RubricSnapshot.SubCriteriaSnapshot> subCriteriaList = new ArrayList<>();
+
+        if (description == null || description.trim().isEmpty()) {
+            return subCriteriaList;
+        }
+
+        // Look for "Bao gồm:" section
+        StringBuilder baoGomBuilder = new StringBuilder();
+        boolean inBaoGomSection = false;
+        for (String line : description.split("\n")) {
+            if (line.trim().startsWith("Bao gồm:") || line.trim().startsWith("bao gồm:")) {
+                inBaoGomSection = true;
+                continue;
+            }
+            if (inBaoGomSection) {
+                baoGomBuilder.append(line).append("\n");
+            }
+        }
+
+        String baoGomSection = baoGomBuilder.toString();
+        if (baoGomSection.trim().isEmpty()) {
+            return subCriteriaList;
+        }
+
+        Matcher matcher = SUB_CRITERIA_PATTERN.matcher(baoGomSection);
+        while (matcher.find()) {
+            String subId = matcher.group(1); // e.g., "1.1"
+            String name = matcher.group(2).trim();
+            String subDescription = matcher.group(3).trim();
+            String pointsStr = matcher.group(4); // Optional points
+
+            Double maxPoints = null;
+            if (pointsStr != null && !pointsStr.isEmpty()) {
+                try {
+                    maxPoints = Double.parseDouble(pointsStr);
+                } catch (NumberFormatException e) {
+                    // Ignore if can't parse
+                }
+            }
+
+            subCriteriaList.add(new RubricSnapshot.SubCriteriaSnapshot(subId, name, subDescription, maxPoints));
+        }
+
+        return subCriteriaList;
+    }
+}
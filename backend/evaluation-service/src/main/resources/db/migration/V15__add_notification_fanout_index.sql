@@ -0,0 +1,6 @@
+-- Migration: Add index supporting bulk notification fan-out
+-- The fan-out INSERT ... SELECT skips users that already have the same notification
+-- (same type + related entity). This index turns that anti-join into an index probe per user.
+
+CREATE INDEX IF NOT EXISTS idx_notification_type_related_user
+    ON notifications(type, related_type, related_id, user_id);
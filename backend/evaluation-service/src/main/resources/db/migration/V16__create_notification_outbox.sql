@@ -0,0 +1,22 @@
+-- Flyway Migration: V16__create_notification_outbox.sql
+-- Creates notification_outbox table: evaluation workflow events written in the same
+-- transaction as the status change, dispatched to notifications asynchronously
+
+-- Table: notification_outbox
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    evaluation_id BIGINT NOT NULL,
+    student_code VARCHAR(20) NOT NULL,
+    payload TEXT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- Index for dispatcher polling (status = 'PENDING' AND next_attempt_at <= now)
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_status_next ON notification_outbox(status, next_attempt_at);
@@ -0,0 +1,8 @@
+-- Migration: Add index supporting keyset pagination of the approval queue
+-- GET /evaluations/pending/cursor seeks with
+--   WHERE status IN (...) AND (submitted_at, id) > (:cursorDate, :cursorId) ORDER BY submitted_at, id
+-- This index serves both the filter and the ordering, so each page is an index range scan
+-- regardless of how deep the reviewer has paged.
+
+CREATE INDEX IF NOT EXISTS idx_evaluation_status_submitted_id
+    ON evaluations(status, submitted_at, id);
@@ -0,0 +1,13 @@
+-- Migration: Add denormalized class_code / faculty_code to evaluations
+-- Resolved once from student-service when the evaluation is created, so class- and
+-- faculty-scoped approval queues can be filtered in SQL without a cross-service join.
+-- Existing rows are filled in by EvaluationScopeBackfill after startup.
+
+ALTER TABLE evaluations ADD COLUMN IF NOT EXISTS class_code VARCHAR(50);
+ALTER TABLE evaluations ADD COLUMN IF NOT EXISTS faculty_code VARCHAR(20);
+
+-- Scoped pending queues: WHERE class_code = ? AND status IN (...) ORDER BY submitted_at, id
+CREATE INDEX IF NOT EXISTS idx_evaluation_class_status_submitted
+    ON evaluations(class_code, status, submitted_at, id);
+CREATE INDEX IF NOT EXISTS idx_evaluation_faculty_status_submitted
+    ON evaluations(faculty_code, status, submitted_at, id);
@@ -0,0 +1,55 @@
+-- Migration: Move reviewer sub-criteria scores from evaluation_details.comment JSON
+-- into evaluation_sub_criteria_scores (created in V12), and turn JSON comments back into
+-- plain evidence strings ("SCORES:1.1=3,1.2=10|EVIDENCE:...") so reads no longer parse JSON.
+-- Comments that also carry score adjustments (classMonitorAdjustments / advisorAdjustments) stay JSON.
+
+-- 1. Copy classMonitorSubCriteria / advisorSubCriteria into the table
+WITH parsed AS MATERIALIZED (
+    SELECT evaluation_id, criteria_id, comment::jsonb AS data
+    FROM evaluation_details
+    WHERE ltrim(comment) LIKE '{%' AND pg_input_is_valid(comment, 'jsonb')
+),
+reviewer_scores AS (
+    SELECT evaluation_id, criteria_id,
+           CASE WHEN jsonb_typeof(data #> '{scores,classMonitorSubCriteria}') = 'object'
+                THEN data #> '{scores,classMonitorSubCriteria}' ELSE '{}'::jsonb END AS class_monitor,
+           CASE WHEN jsonb_typeof(data #> '{scores,advisorSubCriteria}') = 'object'
+                THEN data #> '{scores,advisorSubCriteria}' ELSE '{}'::jsonb END AS advisor
+    FROM parsed
+    WHERE jsonb_typeof(data) = 'object'
+)
+INSERT INTO evaluation_sub_criteria_scores
+    (evaluation_id, criteria_id, sub_criteria_id, class_monitor_score, advisor_score)
+SELECT r.evaluation_id, r.criteria_id, k.sub_id,
+       (r.class_monitor ->> k.sub_id)::double precision,
+       (r.advisor ->> k.sub_id)::double precision
+FROM reviewer_scores r
+CROSS JOIN LATERAL (
+    SELECT jsonb_object_keys(r.class_monitor) AS sub_id
+    UNION
+    SELECT jsonb_object_keys(r.advisor)
+) k
+ON CONFLICT (evaluation_id, criteria_id, sub_criteria_id) DO NOTHING;
+
+-- 2. Rewrite JSON comments without adjustments to the evidence string the API returns
+WITH parsed AS MATERIALIZED (
+    SELECT evaluation_id, criteria_id, comment::jsonb AS data
+    FROM evaluation_details
+    WHERE ltrim(comment) LIKE '{%' AND pg_input_is_valid(comment, 'jsonb')
+)
+UPDATE evaluation_details d
+SET comment = NULLIF(
+    CASE
+        WHEN jsonb_typeof(p.data #> '{scores,selfSubCriteria}') = 'object'
+             AND p.data #> '{scores,selfSubCriteria}' <> '{}'::jsonb
+        THEN 'SCORES:'
+             || (SELECT string_agg(s.key || '=' || s.value, ',' ORDER BY s.key)
+                 FROM jsonb_each_text(p.data #> '{scores,selfSubCriteria}') s)
+             || '|EVIDENCE:' || COALESCE(p.data ->> 'evidence', '')
+        ELSE COALESCE(p.data ->> 'evidence', '')
+    END, '')
+FROM parsed p
+WHERE d.evaluation_id = p.evaluation_id
+  AND d.criteria_id = p.criteria_id
+  AND jsonb_typeof(p.data) = 'object'
+  AND NOT (p.data ? 'classMonitorAdjustments' OR p.data ? 'advisorAdjustments');
@@ -0,0 +1,9 @@
+-- Migration: Content hash for evidence files + lookup index by stored file name
+-- GET /files/evidence/.../{storedFileName} resolves the file by stored_file_name on every cache miss;
+-- content_hash (SHA-256 hex of the bytes) is the strong ETag for conditional / range requests.
+-- Rows uploaded before this migration get their hash computed on first download.
+
+ALTER TABLE evidence_files ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_evidence_stored_file_name
+    ON evidence_files(stored_file_name);
@@ -0,0 +1,15 @@
+-- Migration: Content-addressed storage for evidence files
+-- Uploads are stored once per distinct content under blobs/{hash[0:2]}/{hash[2:4]}/{hash};
+-- every evidence_files row pointing at a blob is one reference. ref_count is changed under the
+-- blob row lock, so an upload and the delete of the last reference of the same content serialize.
+-- Files uploaded before this migration keep their per-upload path and are deleted as before.
+
+CREATE TABLE IF NOT EXISTS evidence_blobs (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    file_path VARCHAR(500) NOT NULL,
+    file_size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_evidence_content_hash ON evidence_files(content_hash);
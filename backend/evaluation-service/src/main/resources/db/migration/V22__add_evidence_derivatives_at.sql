@@ -0,0 +1,10 @@
+-- Migration: Track thumbnail / preview generation for evidence images
+-- EvidenceDerivativeService writes {file}.thumb.jpg and {file}.preview.jpg next to the stored file
+-- and sets derivatives_at (also when the image could not be decoded, so it is not retried forever).
+-- The partial index lets the backfill find unprocessed images without scanning all evidence rows.
+
+ALTER TABLE evidence_files ADD COLUMN IF NOT EXISTS derivatives_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_evidence_derivatives_pending
+    ON evidence_files(id)
+    WHERE derivatives_at IS NULL AND file_type LIKE 'image/%';
@@ -0,0 +1,19 @@
+-- Migration: Persistent cache of AI score suggestions
+-- cache_key = SHA-256 of (prompt version, model, criteria, sub-criteria, sorted evidence content
+-- hashes, rendered prompt). The same evidence re-scored by the monitor, advisor and faculty
+-- reviewer gets the stored response instead of another vision model call.
+-- Rows are deleted when their criteria is edited, and expire after ai.scoring.cache.ttl-hours.
+
+CREATE TABLE IF NOT EXISTS ai_score_cache (
+    cache_key VARCHAR(64) PRIMARY KEY,
+    criteria_id BIGINT NOT NULL,
+    sub_criteria_id VARCHAR(20),
+    model VARCHAR(100) NOT NULL,
+    prompt_version INT NOT NULL,
+    response TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ai_score_cache_criteria ON ai_score_cache(criteria_id);
+CREATE INDEX IF NOT EXISTS idx_ai_score_cache_expires ON ai_score_cache(expires_at);
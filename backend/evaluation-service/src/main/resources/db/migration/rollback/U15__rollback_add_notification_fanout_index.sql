@@ -0,0 +1,64 @@
+-- ============================================
+-- Rollback: Drop notification fan-out index
+-- Version: U15 (Undo V15)
+-- Description: Rollback for the index supporting bulk notification fan-out
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V15 migration
+-- Period / rubric broadcasts keep working but the duplicate check
+-- (type + related entity + user) falls back to a scan per batch
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify migration was actually applied
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_indexes 
+        WHERE tablename = 'notifications' AND indexname = 'idx_notification_type_related_user'
+    ) THEN
+        RAISE EXCEPTION 'Migration V15 was not applied. Nothing to rollback.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+-- Index only, no data is lost
+DROP INDEX IF EXISTS idx_notification_type_related_user;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify index was removed
+    IF EXISTS (
+        SELECT 1 FROM pg_indexes 
+        WHERE tablename = 'notifications' AND indexname = 'idx_notification_type_related_user'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Index still exists';
+    END IF;
+    
+    RAISE NOTICE 'Rollback U15 completed successfully';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '15';
+-- 3. Roll back later migrations first (U23 ... U16)
+-- 4. Test rollback on staging first
@@ -0,0 +1,92 @@
+-- ============================================
+-- Rollback: Drop notification outbox
+-- Version: U16 (Undo V16)
+-- Description: Rollback for the asynchronous notification outbox
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V16 migration
+-- Workflow events not dispatched yet (status <> 'DONE') never become notifications
+-- Deploy the code from before the outbox together with this rollback
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify migration was actually applied
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.tables 
+        WHERE table_name = 'notification_outbox'
+    ) THEN
+        RAISE EXCEPTION 'Migration V16 was not applied. Nothing to rollback.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+-- Check for data that will be lost
+DO $$
+DECLARE
+    undelivered INTEGER;
+BEGIN
+    SELECT COUNT(*) INTO undelivered 
+    FROM notification_outbox 
+    WHERE status <> 'DONE';
+    
+    IF undelivered > 0 THEN
+        RAISE WARNING '% outbox events were not dispatched and will be lost', undelivered;
+        RAISE NOTICE 'Stop evaluation-service and let the dispatcher drain, or back them up below';
+    ELSE
+        RAISE NOTICE 'No undelivered outbox events';
+    END IF;
+END $$;
+
+-- ============================================
+-- BACKUP BEFORE ROLLBACK (if needed)
+-- ============================================
+
+-- Uncomment to keep undelivered events
+-- CREATE TABLE notification_outbox_backup_v16 AS 
+-- SELECT * FROM notification_outbox WHERE status <> 'DONE';
+-- 
+-- COMMENT ON TABLE notification_outbox_backup_v16 IS 
+-- 'Backup before V16 rollback. Safe to drop after verification.';
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+DROP INDEX IF EXISTS idx_notification_outbox_status_next;
+DROP TABLE IF EXISTS notification_outbox;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify table was removed
+    IF EXISTS (
+        SELECT 1 FROM information_schema.tables 
+        WHERE table_name = 'notification_outbox'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: notification_outbox table still exists';
+    END IF;
+    
+    RAISE NOTICE 'Rollback U16 completed successfully';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '16';
+-- 3. Roll back later migrations first (U23 ... U17)
+-- 4. Test rollback on staging first
@@ -0,0 +1,64 @@
+-- ============================================
+-- Rollback: Drop approval queue keyset index
+-- Version: U17 (Undo V17)
+-- Description: Rollback for the index supporting keyset pagination of the approval queue
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V17 migration
+-- GET /evaluations/pending/cursor keeps working but each page sorts
+-- the pending rows again instead of an index range scan
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify migration was actually applied
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_indexes 
+        WHERE tablename = 'evaluations' AND indexname = 'idx_evaluation_status_submitted_id'
+    ) THEN
+        RAISE EXCEPTION 'Migration V17 was not applied. Nothing to rollback.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+-- Index only, no data is lost
+DROP INDEX IF EXISTS idx_evaluation_status_submitted_id;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify index was removed
+    IF EXISTS (
+        SELECT 1 FROM pg_indexes 
+        WHERE tablename = 'evaluations' AND indexname = 'idx_evaluation_status_submitted_id'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Index still exists';
+    END IF;
+    
+    RAISE NOTICE 'Rollback U17 completed successfully';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '17';
+-- 3. Roll back later migrations first (U23 ... U18)
+-- 4. Test rollback on staging first
@@ -0,0 +1,92 @@
+-- ============================================
+-- Rollback: Remove class_code / faculty_code from evaluations
+-- Version: U18 (Undo V18)
+-- Description: Rollback for the denormalized scope of evaluations (scoped approval queues)
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V18 migration
+-- The columns are copies of student-service data (filled on create and by
+-- EvaluationScopeBackfill); nothing is lost that cannot be resolved again.
+-- Deploy the code from before the scoped queues together with this rollback
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify migration was actually applied
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.columns 
+        WHERE table_name = 'evaluations' AND column_name = 'class_code'
+    ) THEN
+        RAISE EXCEPTION 'Migration V18 was not applied. Nothing to rollback.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+-- Check for data that will be dropped
+DO $$
+DECLARE
+    affected_rows INTEGER;
+BEGIN
+    SELECT COUNT(*) INTO affected_rows
+    FROM evaluations 
+    WHERE class_code IS NOT NULL OR faculty_code IS NOT NULL;
+    
+    RAISE NOTICE '% evaluations have a stored class / faculty code (re-derivable from student-service)', affected_rows;
+END $$;
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+-- Drop indexes first
+DROP INDEX IF EXISTS idx_evaluation_class_status_submitted;
+DROP INDEX IF EXISTS idx_evaluation_faculty_status_submitted;
+
+-- Drop columns
+ALTER TABLE evaluations 
+DROP COLUMN IF EXISTS class_code,
+DROP COLUMN IF EXISTS faculty_code;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify columns were removed
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns 
+        WHERE table_name = 'evaluations' AND column_name IN ('class_code', 'faculty_code')
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Columns still exist';
+    END IF;
+    
+    -- Verify indexes were removed
+    IF EXISTS (
+        SELECT 1 FROM pg_indexes 
+        WHERE tablename = 'evaluations' 
+          AND indexname IN ('idx_evaluation_class_status_submitted', 'idx_evaluation_faculty_status_submitted')
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Index still exists';
+    END IF;
+    
+    RAISE NOTICE 'Rollback U18 completed successfully';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '18';
+-- 3. Roll back later migrations first (U23 ... U19)
+-- 4. Test rollback on staging first
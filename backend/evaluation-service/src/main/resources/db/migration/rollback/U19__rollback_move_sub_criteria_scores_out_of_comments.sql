@@ -0,0 +1,179 @@
+-- ============================================
+-- Rollback: Move reviewer sub-criteria scores back into comments
+-- Version: U19 (Undo V19)
+-- Description: Rollback for storing reviewer sub-criteria scores in evaluation_sub_criteria_scores
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V19 migration (a data migration, not a schema change)
+-- V19 copied classMonitorSubCriteria / advisorSubCriteria out of the
+-- evaluation_details.comment JSON and rewrote those comments as plain evidence
+-- strings ("SCORES:1.1=3,1.2=10|EVIDENCE:..."). Scores saved since then exist
+-- only in evaluation_sub_criteria_scores. This script rebuilds the JSON comments
+-- the earlier code reads:
+--   {"evidence": "...", "scores": {"selfSubCriteria": {...},
+--    "classMonitorSubCriteria": {...}, "advisorSubCriteria": {...}}}
+-- and then empties evaluation_sub_criteria_scores (unused before V19).
+-- Deploy the code from before this change together with this rollback
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- V19 needs the table created in V12
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.tables 
+        WHERE table_name = 'evaluation_sub_criteria_scores'
+    ) THEN
+        RAISE EXCEPTION 'evaluation_sub_criteria_scores does not exist. Nothing to rollback.';
+    END IF;
+    
+    IF NOT EXISTS (
+        SELECT 1 FROM flyway_schema_history 
+        WHERE version = '19' AND success
+    ) THEN
+        RAISE EXCEPTION 'Migration V19 was not applied. Nothing to rollback.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+-- Rows that will be moved back
+DO $$
+DECLARE
+    score_rows INTEGER;
+    details INTEGER;
+BEGIN
+    SELECT COUNT(*), COUNT(DISTINCT (evaluation_id, criteria_id)) INTO score_rows, details
+    FROM evaluation_sub_criteria_scores;
+    
+    RAISE NOTICE '% sub-criteria scores of % evaluation details will be moved back into comments', 
+        score_rows, details;
+END $$;
+
+-- ============================================
+-- BACKUP BEFORE ROLLBACK
+-- ============================================
+
+-- Comments that are rewritten and the scores that are removed
+CREATE TABLE IF NOT EXISTS evaluation_details_comment_backup_v19 AS
+SELECT d.evaluation_id, d.criteria_id, d.comment
+FROM evaluation_details d
+WHERE EXISTS (
+    SELECT 1 FROM evaluation_sub_criteria_scores s 
+    WHERE s.evaluation_id = d.evaluation_id AND s.criteria_id = d.criteria_id
+);
+
+CREATE TABLE IF NOT EXISTS evaluation_sub_criteria_scores_backup_v19 AS
+SELECT * FROM evaluation_sub_criteria_scores;
+
+COMMENT ON TABLE evaluation_details_comment_backup_v19 IS 
+'Backup before V19 rollback. Safe to drop after verification.';
+COMMENT ON TABLE evaluation_sub_criteria_scores_backup_v19 IS 
+'Backup before V19 rollback. Safe to drop after verification.';
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+-- 1. Rebuild the JSON comment of every detail that has reviewer scores
+WITH reviewer AS (
+    SELECT evaluation_id, criteria_id,
+           jsonb_object_agg(sub_criteria_id, class_monitor_score) 
+               FILTER (WHERE class_monitor_score IS NOT NULL) AS class_monitor,
+           jsonb_object_agg(sub_criteria_id, advisor_score) 
+               FILTER (WHERE advisor_score IS NOT NULL) AS advisor
+    FROM evaluation_sub_criteria_scores
+    GROUP BY evaluation_id, criteria_id
+),
+details AS (
+    SELECT d.evaluation_id, d.criteria_id, d.comment, r.class_monitor, r.advisor,
+           COALESCE(CASE WHEN ltrim(d.comment) LIKE '{%' AND pg_input_is_valid(d.comment, 'jsonb')
+                         THEN jsonb_typeof(d.comment::jsonb) = 'object' END, false) AS is_json,
+           (d.comment LIKE 'SCORES:%' AND position('|EVIDENCE:' IN d.comment) > 0) AS has_self_scores
+    FROM evaluation_details d
+    JOIN reviewer r ON r.evaluation_id = d.evaluation_id AND r.criteria_id = d.criteria_id
+)
+UPDATE evaluation_details d
+SET comment = (
+    CASE
+        -- Comments kept as JSON by V19 (score adjustments): merge the table scores in
+        WHEN x.is_json THEN
+            jsonb_set(x.comment::jsonb, '{scores}',
+                CASE WHEN jsonb_typeof(x.comment::jsonb -> 'scores') = 'object'
+                     THEN x.comment::jsonb -> 'scores' ELSE '{}'::jsonb END
+                || jsonb_strip_nulls(jsonb_build_object(
+                       'classMonitorSubCriteria', x.class_monitor,
+                       'advisorSubCriteria', x.advisor)))
+        -- "SCORES:1.1=3,1.2=10|EVIDENCE:..." or plain evidence
+        ELSE
+            jsonb_build_object(
+                'evidence', CASE WHEN x.has_self_scores
+                                 THEN substring(x.comment FROM position('|EVIDENCE:' IN x.comment) + 10)
+                                 ELSE COALESCE(x.comment, '') END,
+                'scores', jsonb_strip_nulls(jsonb_build_object(
+                    'selfSubCriteria', CASE WHEN x.has_self_scores THEN (
+                        SELECT jsonb_object_agg(trim(split_part(pair, '=', 1)),
+                                                trim(split_part(pair, '=', 2))::double precision)
+                        FROM unnest(string_to_array(
+                                 substring(x.comment FROM 8 FOR position('|EVIDENCE:' IN x.comment) - 8), ',')) pair
+                        WHERE pair ~ '^\s*[^=]+=\s*-?[0-9]+(\.[0-9]+)?\s*$'
+                    ) END,
+                    'classMonitorSubCriteria', x.class_monitor,
+                    'advisorSubCriteria', x.advisor)))
+    END)::text
+FROM details x
+WHERE d.evaluation_id = x.evaluation_id
+  AND d.criteria_id = x.criteria_id;
+
+-- 2. The earlier code does not read the table; empty it so it is not mistaken for current data
+DELETE FROM evaluation_sub_criteria_scores;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+DECLARE
+    remaining INTEGER;
+    missing INTEGER;
+BEGIN
+    SELECT COUNT(*) INTO remaining FROM evaluation_sub_criteria_scores;
+    IF remaining > 0 THEN
+        RAISE EXCEPTION 'Rollback failed: % rows left in evaluation_sub_criteria_scores', remaining;
+    END IF;
+    
+    -- Every backed-up score must now be in its detail's comment JSON
+    SELECT COUNT(*) INTO missing
+    FROM evaluation_sub_criteria_scores_backup_v19 b
+    JOIN evaluation_details d ON d.evaluation_id = b.evaluation_id AND d.criteria_id = b.criteria_id
+    WHERE CASE WHEN NOT COALESCE(pg_input_is_valid(d.comment, 'jsonb'), false) THEN true
+               ELSE (b.class_monitor_score IS NOT NULL 
+                     AND NOT COALESCE((d.comment::jsonb #> '{scores,classMonitorSubCriteria}') ? b.sub_criteria_id, false))
+                 OR (b.advisor_score IS NOT NULL 
+                     AND NOT COALESCE((d.comment::jsonb #> '{scores,advisorSubCriteria}') ? b.sub_criteria_id, false))
+          END;
+    IF missing > 0 THEN
+        RAISE EXCEPTION 'Rollback failed: % scores were not written back to comments', missing;
+    END IF;
+    
+    RAISE NOTICE 'Rollback U19 completed successfully';
+    RAISE NOTICE 'Backup tables: evaluation_details_comment_backup_v19, evaluation_sub_criteria_scores_backup_v19';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually, with evaluation-service stopped
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '19';
+--    Re-running V19 afterwards moves the scores out again.
+-- 3. Roll back later migrations first (U23 ... U20)
+-- 4. Backup tables should be manually dropped after verification
+-- 5. Test rollback on staging first
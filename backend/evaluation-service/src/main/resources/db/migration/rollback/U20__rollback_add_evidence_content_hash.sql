@@ -0,0 +1,84 @@
+-- ============================================
+-- Rollback: Remove evidence content hash
+-- Version: U20 (Undo V20)
+-- Description: Rollback for evidence_files.content_hash (download ETags) and the stored file name index
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V20 migration
+-- Content hashes are derived from the stored bytes and can be recomputed;
+-- evidence downloads fall back to the earlier caching behaviour
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify migration was actually applied
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.columns 
+        WHERE table_name = 'evidence_files' AND column_name = 'content_hash'
+    ) THEN
+        RAISE EXCEPTION 'Migration V20 was not applied. Nothing to rollback.';
+    END IF;
+    
+    -- V21 (content-addressed blobs) is keyed by content_hash: roll it back first
+    IF EXISTS (
+        SELECT 1 FROM information_schema.tables 
+        WHERE table_name = 'evidence_blobs'
+    ) THEN
+        RAISE EXCEPTION 'evidence_blobs still exists. Run U21 before U20.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+-- Drop index first
+DROP INDEX IF EXISTS idx_evidence_stored_file_name;
+
+-- Drop column
+ALTER TABLE evidence_files 
+DROP COLUMN IF EXISTS content_hash;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify column was removed
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns 
+        WHERE table_name = 'evidence_files' AND column_name = 'content_hash'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Column still exists';
+    END IF;
+    
+    -- Verify index was removed
+    IF EXISTS (
+        SELECT 1 FROM pg_indexes 
+        WHERE tablename = 'evidence_files' AND indexname = 'idx_evidence_stored_file_name'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Index still exists';
+    END IF;
+    
+    RAISE NOTICE 'Rollback U20 completed successfully';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '20';
+-- 3. Roll back later migrations first (U23 ... U21)
+-- 4. Test rollback on staging first
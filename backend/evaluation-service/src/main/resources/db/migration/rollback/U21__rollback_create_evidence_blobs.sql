@@ -0,0 +1,111 @@
+-- ============================================
+-- Rollback: Drop content-addressed evidence blobs
+-- Version: U21 (Undo V21)
+-- Description: Rollback for reference-counted evidence blobs (deduplicated uploads)
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V21 migration
+-- Evidence rows keep their file_path, so files stored under blobs/ stay
+-- downloadable. But several rows may point at the same blob file, and the
+-- earlier code deletes file_path together with a row: deleting one of them
+-- would remove the file of the others. Give every shared row its own copy
+-- (see NOTES) before deploying the earlier code.
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify migration was actually applied
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.tables 
+        WHERE table_name = 'evidence_blobs'
+    ) THEN
+        RAISE EXCEPTION 'Migration V21 was not applied. Nothing to rollback.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+-- Check for files shared by several evidence rows
+DO $$
+DECLARE
+    shared_blobs INTEGER;
+    shared_rows INTEGER;
+BEGIN
+    SELECT COUNT(*), COALESCE(SUM(ref_count), 0) INTO shared_blobs, shared_rows
+    FROM evidence_blobs 
+    WHERE ref_count > 1;
+    
+    IF shared_blobs > 0 THEN
+        RAISE WARNING '% blob files are shared by % evidence rows', shared_blobs, shared_rows;
+        RAISE NOTICE 'Copy them per row before running the earlier code (see NOTES)';
+    ELSE
+        RAISE NOTICE 'No shared blob files';
+    END IF;
+END $$;
+
+-- ============================================
+-- BACKUP BEFORE ROLLBACK
+-- ============================================
+
+-- Which rows share which file, needed to copy the files afterwards
+CREATE TABLE IF NOT EXISTS evidence_blobs_backup_v21 AS
+SELECT b.content_hash, b.file_path, b.ref_count, f.id AS evidence_file_id
+FROM evidence_blobs b
+JOIN evidence_files f ON f.file_path = b.file_path;
+
+COMMENT ON TABLE evidence_blobs_backup_v21 IS 
+'Backup before V21 rollback. Safe to drop after verification.';
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+DROP INDEX IF EXISTS idx_evidence_content_hash;
+DROP TABLE IF EXISTS evidence_blobs;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify table was removed
+    IF EXISTS (
+        SELECT 1 FROM information_schema.tables 
+        WHERE table_name = 'evidence_blobs'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: evidence_blobs table still exists';
+    END IF;
+    
+    -- Verify index was removed
+    IF EXISTS (
+        SELECT 1 FROM pg_indexes 
+        WHERE tablename = 'evidence_files' AND indexname = 'idx_evidence_content_hash'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Index still exists';
+    END IF;
+    
+    RAISE NOTICE 'Rollback U21 completed successfully';
+    RAISE NOTICE 'Backup table: evidence_blobs_backup_v21 (can be dropped after verification)';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually, with evaluation-service stopped
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '21';
+-- 3. Roll back later migrations first (U23, U22); run U20 after this one
+-- 4. Shared blobs: for each row of
+--      SELECT evidence_file_id, file_path FROM evidence_blobs_backup_v21 WHERE ref_count > 1;
+--    copy file_path to a new per-row path in the upload directory and
+--      UPDATE evidence_files SET file_path = '<new path>' WHERE id = <evidence_file_id>;
+-- 5. Test rollback on staging first
@@ -0,0 +1,92 @@
+-- ============================================
+-- Rollback: Remove evidence derivative tracking
+-- Version: U22 (Undo V22)
+-- Description: Rollback for evidence_files.derivatives_at (thumbnail / preview generation)
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V22 migration
+-- Generated {file}.thumb.jpg / {file}.preview.jpg files stay on disk; the
+-- earlier code neither serves nor deletes them (see NOTES)
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify migration was actually applied
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.columns 
+        WHERE table_name = 'evidence_files' AND column_name = 'derivatives_at'
+    ) THEN
+        RAISE EXCEPTION 'Migration V22 was not applied. Nothing to rollback.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+-- Check for data that will be dropped
+DO $$
+DECLARE
+    affected_rows INTEGER;
+BEGIN
+    SELECT COUNT(*) INTO affected_rows
+    FROM evidence_files 
+    WHERE derivatives_at IS NOT NULL;
+    
+    IF affected_rows > 0 THEN
+        RAISE NOTICE '% evidence images have generated derivatives left on disk', affected_rows;
+    END IF;
+END $$;
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+-- Drop index first
+DROP INDEX IF EXISTS idx_evidence_derivatives_pending;
+
+-- Drop column
+ALTER TABLE evidence_files 
+DROP COLUMN IF EXISTS derivatives_at;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify column was removed
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns 
+        WHERE table_name = 'evidence_files' AND column_name = 'derivatives_at'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Column still exists';
+    END IF;
+    
+    -- Verify index was removed
+    IF EXISTS (
+        SELECT 1 FROM pg_indexes 
+        WHERE tablename = 'evidence_files' AND indexname = 'idx_evidence_derivatives_pending'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: Index still exists';
+    END IF;
+    
+    RAISE NOTICE 'Rollback U22 completed successfully';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '22';
+-- 3. Roll back U23 first
+-- 4. Derivatives can be removed from the upload directory afterwards:
+--    find <upload-dir> \( -name '*.thumb.jpg' -o -name '*.preview.jpg' \) -delete
+-- 5. Test rollback on staging first
@@ -0,0 +1,73 @@
+-- ============================================
+-- Rollback: Drop AI score cache
+-- Version: U23 (Undo V23)
+-- Description: Rollback for the persistent cache of AI score suggestions
+-- Date: 2026-10-17
+-- ============================================
+-- WARNING: This will undo V23 migration
+-- Only cached model responses are dropped; every scoring request calls
+-- the model again. No backup is needed.
+-- ============================================
+
+-- ============================================
+-- PRE-ROLLBACK CHECKS
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify migration was actually applied
+    IF NOT EXISTS (
+        SELECT 1 FROM information_schema.tables 
+        WHERE table_name = 'ai_score_cache'
+    ) THEN
+        RAISE EXCEPTION 'Migration V23 was not applied. Nothing to rollback.';
+    END IF;
+    
+    RAISE NOTICE 'Pre-rollback checks passed';
+END $$;
+
+DO $$
+DECLARE
+    cached INTEGER;
+BEGIN
+    SELECT COUNT(*) INTO cached FROM ai_score_cache;
+    RAISE NOTICE '% cached AI score suggestions will be dropped', cached;
+END $$;
+
+-- ============================================
+-- ACTUAL ROLLBACK
+-- ============================================
+
+BEGIN;
+
+DROP INDEX IF EXISTS idx_ai_score_cache_criteria;
+DROP INDEX IF EXISTS idx_ai_score_cache_expires;
+DROP TABLE IF EXISTS ai_score_cache;
+
+COMMIT;
+
+-- ============================================
+-- POST-ROLLBACK VALIDATION
+-- ============================================
+
+DO $$
+BEGIN
+    -- Verify table was removed
+    IF EXISTS (
+        SELECT 1 FROM information_schema.tables 
+        WHERE table_name = 'ai_score_cache'
+    ) THEN
+        RAISE EXCEPTION 'Rollback failed: ai_score_cache table still exists';
+    END IF;
+    
+    RAISE NOTICE 'Rollback U23 completed successfully';
+END $$;
+
+-- ============================================
+-- NOTES
+-- ============================================
+-- 1. This rollback script should only be run manually
+-- 2. Flyway does not automatically run rollback scripts:
+--    DELETE FROM flyway_schema_history WHERE version = '23';
+-- 3. Alternatively keep the table and set ai.scoring.cache.enabled=false
+-- 4. Test rollback on staging first
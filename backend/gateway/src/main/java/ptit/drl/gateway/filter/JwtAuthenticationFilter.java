@@ -1,9 +1,7 @@
 package ptit.drl.gateway.filter;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -15,23 +13,31 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * JWT Authentication Global Filter for Spring Cloud Gateway
- * Validates JWT tokens and adds user context to request headers
+ * Validates JWT tokens and adds user context to request headers.
+ * Identity headers sent by the client (X-User-*, X-Username, X-Roles, X-Permissions) and the
+ * service-to-service X-Internal-Token are removed from every request first, so downstream
+ * services only ever see the ones set here.
  */
 @Component
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
-    @Value("${jwt.secret:your-256-bit-secret-key-change-this-in-production-minimum-32-characters-long}")
-    private String jwtSecret;
+    @Autowired
+    private JwtVerifier jwtVerifier;
+
+    @Autowired
+    private PublicRouteMatcher publicRouteMatcher;
+
+    private static final List<String> TRUSTED_HEADERS = List.of("x-roles", "x-permissions", "x-internal-token");
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpRequest request = stripTrustedHeaders(exchange.getRequest());
+        exchange = exchange.mutate().request(request).build();
         
         // Skip JWT validation for OPTIONS requests (CORS preflight)
         if (request.getMethod() != null && request.getMethod().name().equals("OPTIONS")) {
@@ -40,9 +46,8 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             return response.setComplete();
         }
         
-        // Skip JWT validation for public endpoints
-        String path = request.getURI().getPath();
-        if (isPublicEndpoint(path)) {
+        // Skip JWT validation for public endpoints (gateway.public-paths)
+        if (publicRouteMatcher.isPublic(request.getPath().pathWithinApplication())) {
             return chain.filter(exchange);
         }
 
@@ -59,21 +64,21 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         String token = authHeader.substring(7);
 
         try {
-            // Validate token
-            if (!validateToken(token)) {
+            // Validate token and extract claims (single verification, cached per token)
+            VerifiedToken verified;
+            try {
+                verified = jwtVerifier.verify(token);
+            } catch (JwtException | IllegalArgumentException e) {
                 return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
             }
-
-            // Extract claims
-            Claims claims = getClaims(token);
             
             // Add user context to request headers for downstream services
             ServerHttpRequest modifiedRequest = request.mutate()
-                    .header("X-User-Id", claims.getSubject())
-                    .header("X-User-Name", claims.get("username", String.class))
-                    .header("X-Username", claims.get("username", String.class)) // Keep for backward compatibility
-                    .header("X-Roles", String.join(",", (List<String>) claims.get("roles")))
-                    .header("X-Permissions", String.join(",", (List<String>) claims.get("permissions")))
+                    .header("X-User-Id", verified.userId())
+                    .header("X-User-Name", verified.username())
+                    .header("X-Username", verified.username()) // Keep for backward compatibility
+                    .header("X-Roles", verified.rolesHeader())
+                    .header("X-Permissions", verified.permissionsHeader())
                     .build();
 
             return chain.filter(exchange.mutate().request(modifiedRequest).build());
@@ -82,42 +87,20 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         }
     }
 
-    private boolean isPublicEndpoint(String path) {
-        return path.startsWith("/api/auth/register") ||
-               path.startsWith("/api/auth/login") ||
-               path.startsWith("/api/auth/refresh") ||
-               path.startsWith("/api/auth/logout") ||
-               path.startsWith("/api/auth/request-password") ||  // Public endpoint for password requests
-               path.startsWith("/api/auth/me") ||  // /auth/me requires token but should pass through gateway
-               path.startsWith("/api/students/hello") ||  // Test endpoint
-               path.startsWith("/api/students/db-test") ||  // Test endpoint
-               path.startsWith("/api/files/evidence/") ||  // Public file access (evidence files)
-               path.startsWith("/api/files/signatures/") ||  // Public file access (signature files)
-               path.startsWith("/api/class-users/") ||  // Public endpoint for class users (advisor, monitor, student)
-               path.startsWith("/api/evaluation-periods/open") ||  // Public endpoint to check open period
-               path.startsWith("/actuator/");
-    }
-
-    private boolean validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+    /**
+     * Drop headers that downstream services trust, whatever the client sent
+     */
+    private static ServerHttpRequest stripTrustedHeaders(ServerHttpRequest request) {
+        List<String> names = request.getHeaders().keySet().stream()
+                .filter(name -> {
+                    String lower = name.toLowerCase(Locale.ROOT);
+                    return lower.startsWith("x-user") || TRUSTED_HEADERS.contains(lower);
+                })
+                .toList();
+        if (names.isEmpty()) {
+            return request;
         }
-    }
-
-    private Claims getClaims(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return request.mutate().headers(headers -> names.forEach(headers::remove)).build();
     }
 
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
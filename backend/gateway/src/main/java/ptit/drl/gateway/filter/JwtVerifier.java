@@ -0,0 +1,110 @@
+package ptit.drl.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies JWT access tokens for the gateway.
+ * The signing key and parser are built once; verified tokens (with their precomputed header values)
+ * are cached by SHA-256 of the token for a short TTL that never goes past the token's exp,
+ * so polling clients skip HMAC and header building on repeat requests.
+ * Metrics: cache.gets{result=hit|miss}, cache.evictions, cache.size (cache=gatewayVerifiedTokens).
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtVerifier(@Value("${jwt.secret:your-256-bit-secret-key-change-this-in-production-minimum-32-characters-long}") String jwtSecret,
+                       @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+                       @Value("${jwt.verified-cache.ttl-seconds:60}") long ttlSeconds,
+                       MeterRegistry meterRegistry) {
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(TimeUnit.SECONDS.toNanos(ttlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "gatewayVerifiedTokens");
+    }
+
+    /**
+     * Verify signature and expiry once, reusing a cached result for a token seen recently
+     * @return verified token
+     * @throws JwtException if the token is invalid or expired
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        VerifiedToken verified = VerifiedToken.from(parser.parseSignedClaims(token).getPayload());
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Entry lives for the configured TTL or until the token's exp, whichever comes first
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long ttlNanos;
+
+        private TokenExpiry(long ttlNanos) {
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            Date expiration = token.expiration();
+            if (expiration == null) {
+                return ttlNanos;
+            }
+            long untilExp = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, untilExp));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ptit.drl.gateway.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Public (no JWT) routes of the gateway, configured in gateway.public-paths
+ * and compiled into PathPatterns once at startup.
+ */
+@Component
+public class PublicRouteMatcher {
+
+    private final List<PathPattern> patterns;
+
+    public PublicRouteMatcher(@Value("${gateway.public-paths:/actuator/**}") String[] publicPaths) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.patterns = Arrays.stream(publicPaths)
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(parser::parse)
+                .toList();
+    }
+
+    /**
+     * Check if the (already parsed) request path is public
+     */
+    public boolean isPublic(PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
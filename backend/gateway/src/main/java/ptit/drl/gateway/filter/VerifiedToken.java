@@ -0,0 +1,42 @@
+package ptit.drl.gateway.filter;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.stream.Collectors;
+
+/**
+ * Verified JWT with the downstream header values (X-User-Id, X-Username, X-Roles, X-Permissions)
+ * computed once per token, so cached tokens add headers without re-joining role lists.
+ */
+public record VerifiedToken(
+        String userId,
+        String username,
+        String rolesHeader,
+        String permissionsHeader,
+        Date expiration
+) {
+
+    static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("username", String.class),
+                join(claims.get("roles")),
+                join(claims.get("permissions")),
+                claims.getExpiration());
+    }
+
+    boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    private static String join(Object values) {
+        if (!(values instanceof Collection<?> collection)) {
+            return "";
+        }
+        return collection.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import ptit.drl.student.dto.ApiResponse;
+import ptit.drl.student.dto.BatchStudentRequest;
 import ptit.drl.student.dto.CreateStudentRequest;
 import ptit.drl.student.dto.StudentDTO;
 import ptit.drl.student.dto.UpdateStudentRequest;
@@ -195,6 +196,19 @@ public class StudentController {
         }
     }
     
+    /**
+     * POST /students/batch - Get many students by code in one call
+     * Used by other services instead of one GET /students/{studentCode} per student.
+     * Unknown codes are omitted from the result.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<StudentDTO>>> getStudentsByCodes(
+            @Valid @RequestBody BatchStudentRequest request) {
+        List<StudentDTO> students = studentService.getStudentsByCodes(request.getStudentCodes());
+        return ResponseEntity.ok(
+            ApiResponse.success("Students retrieved successfully", students));
+    }
+    
     /**
      * POST /students - Create new student
      * Requires ADMIN, INSTRUCTOR, or FACULTY_INSTRUCTOR role
@@ -0,0 +1,33 @@
+package ptit.drl.student.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for looking up many students in one call
+ */
+public class BatchStudentRequest {
+    
+    @NotEmpty(message = "Student codes are required")
+    @Size(max = 500, message = "At most 500 student codes per request")
+    private List<String> studentCodes;
+    
+    // Constructors
+    public BatchStudentRequest() {
+    }
+    
+    public BatchStudentRequest(List<String> studentCodes) {
+        this.studentCodes = studentCodes;
+    }
+    
+    // Getters and Setters
+    public List<String> getStudentCodes() {
+        return studentCodes;
+    }
+    
+    public void setStudentCodes(List<String> studentCodes) {
+        this.studentCodes = studentCodes;
+    }
+}
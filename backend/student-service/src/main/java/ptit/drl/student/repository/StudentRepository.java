@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,11 @@ public interface StudentRepository extends JpaRepository<Student, String> {
     @Query("SELECT s FROM Student s WHERE s.studentCode = :studentCode")
     Optional<Student> findByIdWithRelations(@Param("studentCode") String studentCode);
     
+    // Batch lookup: single IN query with fetch join
+    @EntityGraph(attributePaths = {"studentClass", "major", "faculty"})
+    @Query("SELECT s FROM Student s WHERE s.studentCode IN :studentCodes")
+    List<Student> findAllByIdWithRelations(@Param("studentCodes") Collection<String> studentCodes);
+    
     // List methods (no pagination) - with fetch join
     @EntityGraph(attributePaths = {"studentClass", "major", "faculty"})
     @Query("SELECT s FROM Student s WHERE s.faculty.code = :facultyCode")
@@ -17,6 +17,14 @@ import ptit.drl.student.exception.ResourceNotFoundException;
 import ptit.drl.student.mapper.StudentMapper;
 import ptit.drl.student.repository.*;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Service for Student CRUD operations
  */
@@ -58,6 +66,29 @@ public class StudentService {
         return StudentMapper.toDTO(student);
     }
     
+    /**
+     * Get many students by code in one query
+     * Unknown codes are skipped; result follows the order of the requested codes
+     */
+    @Transactional(readOnly = true)
+    public List<StudentDTO> getStudentsByCodes(List<String> studentCodes) {
+        Set<String> codes = studentCodes.stream()
+                .filter(code -> code != null && !code.isBlank())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (codes.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<String, Student> studentsByCode = studentRepository.findAllByIdWithRelations(codes).stream()
+                .collect(Collectors.toMap(Student::getStudentCode, Function.identity()));
+        
+        return codes.stream()
+                .map(studentsByCode::get)
+                .filter(Objects::nonNull)
+                .map(StudentMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Create a new student
      */
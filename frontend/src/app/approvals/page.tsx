@@ -37,7 +37,12 @@ export default function ApprovalsPage() {
           level = activeTab === 'faculty' ? 'FACULTY' : undefined;
         }
 
-        const response = await getPendingEvaluations({ level, size: 100 });
+        // Class monitors and advisors only review their own class (filtered server-side)
+        const isClassScoped = user.roles?.some(role => role === 'CLASS_MONITOR' || role === 'ADVISOR')
+          && !user.roles?.includes('ADMIN');
+        const classCode = isClassScoped ? user.classCode : undefined;
+
+        const response = await getPendingEvaluations({ level, classCode, size: 100 });
         if (response.success && response.data) {
           setEvaluations(response.data.content || []);
         }
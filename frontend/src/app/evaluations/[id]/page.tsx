@@ -345,6 +345,14 @@ export default function EvaluationDetailPage() {
                     // Not JSON (evidence string), will fallback to distribution
                   }
                   
+                  // Reviewer sub-criteria scores come from evaluation_sub_criteria_scores
+                  if (detail.classMonitorSubCriteriaScores || detail.advisorSubCriteriaScores) {
+                    parsedSubCriteriaScores = {
+                      classMonitorSubCriteria: detail.classMonitorSubCriteriaScores,
+                      advisorSubCriteria: detail.advisorSubCriteriaScores,
+                    };
+                  }
+                  
                   // If we have saved sub-criteria scores in JSON, use them
                   if (parsedSubCriteriaScores) {
                     if (parsedSubCriteriaScores.classMonitorSubCriteria) {
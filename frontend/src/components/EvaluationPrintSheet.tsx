@@ -107,6 +107,12 @@ export function EvaluationPrintSheet({ evaluationId }: EvaluationPrintSheetProps
                   }
                 }
               }
+              if (detail?.advisorSubCriteriaScores) {
+                advisorSubScores = detail.advisorSubCriteriaScores;
+              }
+              if (detail?.classMonitorSubCriteriaScores) {
+                classMonitorSubScores = detail.classMonitorSubCriteriaScores;
+              }
               
               // Map sub-criteria with scores (use advisor if available, else class monitor, else student)
               const subCriteriaWithScores = subCriteria.map(sub => {
@@ -238,7 +244,9 @@ export function EvaluationPrintSheet({ evaluationId }: EvaluationPrintSheetProps
             
             // Parse class monitor sub-scores once for this criterion
             let classMonitorSubScores: Record<string, number> = {};
-            if (detail?.note) {
+            if (detail?.classMonitorSubCriteriaScores) {
+              classMonitorSubScores = detail.classMonitorSubCriteriaScores;
+            } else if (detail?.note) {
               try {
                 const parsed = JSON.parse(detail.note);
                 if (parsed.scores?.classMonitorSubCriteria) {
@@ -319,6 +327,9 @@ export function EvaluationPrintSheet({ evaluationId }: EvaluationPrintSheetProps
             <td className="border border-black p-2 text-center">
               {criteriaWithSubCriteria.reduce((sum, c) => {
                 const detail = evaluation.details.find(d => d.criteriaId === c.id);
+                if (detail?.classMonitorSubCriteriaScores) {
+                  return sum + Object.values(detail.classMonitorSubCriteriaScores).reduce((s: number, score) => s + Number(score), 0);
+                }
                 if (detail?.note) {
                   try {
                     const parsed = JSON.parse(detail.note);
@@ -50,7 +50,7 @@ function FileItem({
       {isImage && !imageError ? (
         <div className="relative w-10 h-10 flex-shrink-0 rounded border overflow-hidden bg-muted">
           <img
-            src={fileUrl}
+            src={`${fileUrl}?size=thumb`}
             alt={file.fileName}
             className="w-full h-full object-cover"
             onError={() => setImageError(true)}
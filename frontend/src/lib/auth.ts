@@ -97,7 +97,10 @@ export async function refreshToken(
  */
 export async function logout(): Promise<void> {
   try {
-    await apiClient.post('/auth/logout');
+    // Send the refresh token so the server can revoke it
+    const storedRefreshToken =
+      typeof window !== 'undefined' ? localStorage.getItem('refreshToken') : null;
+    await apiClient.post('/auth/logout', storedRefreshToken ? { refreshToken: storedRefreshToken } : undefined);
   } catch (error) {
     // Ignore errors on logout
     // Logout errors are usually not critical - user is already logged out
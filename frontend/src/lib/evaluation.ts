@@ -123,11 +123,15 @@ export async function resubmitEvaluation(
  */
 export async function getPendingEvaluations(params?: {
   level?: string;
+  classCode?: string;
+  facultyCode?: string;
   page?: number;
   size?: number;
 }): Promise<ApiResponse<{ content: Evaluation[]; totalElements: number; totalPages: number; number: number }>> {
   const queryParams = new URLSearchParams();
   if (params?.level) queryParams.append('level', params.level);
+  if (params?.classCode) queryParams.append('classCode', params.classCode);
+  if (params?.facultyCode) queryParams.append('facultyCode', params.facultyCode);
   if (params?.page !== undefined) queryParams.append('page', params.page.toString());
   if (params?.size !== undefined) queryParams.append('size', params.size.toString());
   
@@ -63,6 +63,8 @@ export interface EvaluationDetail {
   // New: sub-criteria details
   subCriteriaScores?: Record<string, number>; // Map of subCriteriaId -> score
   subCriteriaEvidence?: Record<string, string>; // Map of subCriteriaId -> evidence
+  classMonitorSubCriteriaScores?: Record<string, number>; // Map of subCriteriaId -> class monitor score
+  advisorSubCriteriaScores?: Record<string, number>; // Map of subCriteriaId -> advisor score
 }
 
 export interface Evaluation {
@@ -0,0 +1,70 @@
+-- ============================================
+-- Benchmark: offset vs keyset pagination of the approval queue
+-- Compares page 100 (size 20) of GET /evaluations/pending (offset)
+-- with GET /evaluations/pending/cursor (keyset on submitted_at, id)
+--
+-- Usage (against the evaluation-service database, after V17 migration):
+--   psql -h localhost -U drl -d drl_evaluation -f scripts/benchmark-pending-pagination.sql
+--
+-- Seeds 200k evaluations inside a transaction and ROLLS BACK at the end,
+-- so existing data is not modified.
+-- ============================================
+
+\timing on
+\set page_size 20
+\set page_number 100
+
+BEGIN;
+
+-- ============================================
+-- SEED
+-- ============================================
+
+INSERT INTO rubrics (name, description, max_points, academic_year, is_active)
+VALUES ('Benchmark rubric', 'Temporary rubric for pagination benchmark', 100, '2025-2026', false)
+RETURNING id AS rubric_id \gset
+
+INSERT INTO evaluations (student_code, semester, academic_year, status, submitted_at, rubric_id)
+SELECT
+    'BENCH' || lpad(g::text, 7, '0'),
+    '2025-2026-HK1',
+    '2025-2026',
+    (ARRAY['SUBMITTED', 'CLASS_APPROVED', 'ADVISOR_APPROVED', 'FACULTY_APPROVED', 'DRAFT'])[1 + g % 5],
+    DATE '2025-09-01' + (g % 60),
+    :rubric_id
+FROM generate_series(1, 200000) AS g;
+
+ANALYZE evaluations;
+
+-- ============================================
+-- OFFSET (current GET /evaluations/pending)
+-- ============================================
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT e.*
+FROM evaluations e
+WHERE e.status IN ('SUBMITTED', 'CLASS_APPROVED', 'ADVISOR_APPROVED')
+ORDER BY e.submitted_at ASC, e.id ASC
+LIMIT :page_size OFFSET (:page_number - 1) * :page_size;
+
+-- ============================================
+-- KEYSET (GET /evaluations/pending/cursor)
+-- Cursor = last row of page 99
+-- ============================================
+
+SELECT e.submitted_at AS cursor_date, e.id AS cursor_id
+FROM evaluations e
+WHERE e.status IN ('SUBMITTED', 'CLASS_APPROVED', 'ADVISOR_APPROVED')
+ORDER BY e.submitted_at ASC, e.id ASC
+LIMIT 1 OFFSET (:page_number - 1) * :page_size - 1 \gset
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT e.*
+FROM evaluations e
+WHERE e.status IN ('SUBMITTED', 'CLASS_APPROVED', 'ADVISOR_APPROVED')
+  AND e.submitted_at >= :'cursor_date'
+  AND (e.submitted_at > :'cursor_date' OR (e.submitted_at = :'cursor_date' AND e.id > :cursor_id))
+ORDER BY e.submitted_at ASC, e.id ASC
+LIMIT :page_size + 1;
+
+ROLLBACK;